@@ -0,0 +1,25 @@
+package com.nimis.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Which upload headers feed the normalized allocation tables.
+ *
+ * allocation.projection.tables.&lt;table&gt;.&lt;column&gt;=&lt;header&gt;, with table
+ * and column names written in kebab case (agency-details.manager-emp-id
+ * is agency_details.manager_emp_id).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "allocation.projection")
+@Data
+public class AllocationProjectionProperties {
+
+    private boolean enabled = true;
+
+    private Map<String, Map<String, String>> tables = new LinkedHashMap<>();
+}
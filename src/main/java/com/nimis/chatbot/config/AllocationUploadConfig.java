@@ -0,0 +1,32 @@
+package com.nimis.chatbot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Bounded executor for background allocation uploads.
+ * Submissions beyond the queue capacity are rejected instead of piling up.
+ */
+@Configuration
+public class AllocationUploadConfig {
+
+    @Value("${allocation.upload.workers:2}")
+    private int workers;
+
+    @Value("${allocation.upload.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Bean(name = "allocationUploadExecutor")
+    public ThreadPoolTaskExecutor allocationUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("allocation-upload-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -3,6 +3,7 @@ package com.nimis.chatbot.config;
 import com.nimis.chatbot.security.CustomUserDetailsService;
 import com.nimis.chatbot.security.jwt.JwtAuthEntryPoint;
 import com.nimis.chatbot.security.jwt.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -133,6 +134,12 @@ public class SecurityConfig {
                                 "/error"
                         ).permitAll()
 
+                        // Completion of streamed responses; the request itself was authorized when it arrived
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
+                        // Upload metrics (/actuator/metrics/allocation.ingest.*)
+                        .requestMatchers("/actuator/metrics/**").hasRole("SUPER_ADMIN")
+
                         // All other endpoints require authentication
                         .anyRequest().authenticated()
                 );
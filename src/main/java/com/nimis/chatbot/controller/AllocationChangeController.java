@@ -0,0 +1,40 @@
+package com.nimis.chatbot.controller;
+
+import com.nimis.chatbot.model.entity.AllocationChange;
+import com.nimis.chatbot.service.AllocationChangeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/allocations/changes")
+@RequiredArgsConstructor
+public class AllocationChangeController {
+
+    private final AllocationChangeService changeService;
+
+    /**
+     * GET /api/allocations/changes?after={cursor}&limit={n}
+     * Changes after the cursor, oldest first. Keep nextCursor and send it
+     * back as after; hasMore means call again straight away.
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
+    public ResponseEntity<Map<String, Object>> changesAfter(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + AllocationChangeService.DEFAULT_LIMIT) int limit) {
+        List<AllocationChange> changes = changeService.changesAfter(after, limit);
+
+        // ✅ Cursor stays put when there is nothing new
+        Map<String, Object> response = new HashMap<>();
+        response.put("changes", changes);
+        response.put("nextCursor", changes.isEmpty() ? after : changes.get(changes.size() - 1).getSeq());
+        response.put("hasMore", changes.size() == AllocationChangeService.pageSize(limit));
+        return ResponseEntity.ok(response);
+    }
+}
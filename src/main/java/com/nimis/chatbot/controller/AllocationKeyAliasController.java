@@ -0,0 +1,91 @@
+package com.nimis.chatbot.controller;
+
+import com.nimis.chatbot.dto.request.AllocationKeyAliasRequest;
+import com.nimis.chatbot.model.entity.AllocationKeyAlias;
+import com.nimis.chatbot.service.AllocationKeyAliasService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Upload header aliases. Bank admins manage their own bank's; a super
+ * admin manages any bank's, or the shared ones when no bankId is given.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/allocations/key-aliases")
+@RequiredArgsConstructor
+public class AllocationKeyAliasController {
+
+    private final AllocationKeyAliasService aliasService;
+
+    // ✅ LIST ALIASES
+    @GetMapping
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN')")
+    public ResponseEntity<List<AllocationKeyAlias>> list(
+            @RequestParam(required = false) Long bankId,
+            Authentication authentication) {
+        return ResponseEntity.ok(aliasService.list(scope(bankId, authentication)));
+    }
+
+    // ✅ ADD OR REPOINT AN ALIAS
+    @PutMapping
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN')")
+    public ResponseEntity<?> save(
+            @Valid @RequestBody AllocationKeyAliasRequest request,
+            Authentication authentication) {
+        try {
+            AllocationKeyAlias saved = aliasService.save(
+                    scope(request.getBankId(), authentication), request.getAlias(), request.getCanonicalKey());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Alias saved");
+            response.put("alias", saved);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected alias '{}': {}", request.getAlias(), e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "message", e.getMessage(), "type", "VALIDATION_ERROR"));
+        }
+    }
+
+    // ✅ DELETE AN ALIAS
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN')")
+    public ResponseEntity<?> delete(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long bankId,
+            Authentication authentication) {
+        try {
+            aliasService.delete(scope(bankId, authentication), id);
+            return ResponseEntity.ok(Map.of("success", true, "message", "Alias deleted"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    // Bank admins are pinned to their own bank whatever they pass
+    private Long scope(Long bankId, Authentication authentication) {
+        boolean superAdmin = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_SUPER_ADMIN".equals(a.getAuthority()));
+        if (superAdmin) {
+            return bankId;
+        }
+        Long ownBank = aliasService.bankOf(authentication.getName());
+        if (ownBank == null) {
+            throw new AccessDeniedException("No bank linked to this account");
+        }
+        return ownBank;
+    }
+}
@@ -1,16 +1,41 @@
 package com.nimis.chatbot.controller;
 
+import com.nimis.chatbot.dto.request.AllocationListFilter;
+import com.nimis.chatbot.dto.request.CreateUploadSessionRequest;
+import com.nimis.chatbot.dto.response.AllocationUploadJobResponse;
+import com.nimis.chatbot.dto.response.AllocationUploadSessionResponse;
+import com.nimis.chatbot.dto.response.AllocationValidationReport;
 import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.model.entity.AllocationUploadJob;
+import com.nimis.chatbot.model.entity.UserEntity;
+import com.nimis.chatbot.model.enums.AllocationLoadEngine;
+import com.nimis.chatbot.repository.AllocationSearchTerm;
+import com.nimis.chatbot.repository.projection.AllocationSearchHit;
+import com.nimis.chatbot.security.Tenant;
+import com.nimis.chatbot.service.AllocationUploadJobService;
 import com.nimis.chatbot.service.AllocationUploadService;
+import com.nimis.chatbot.service.AllocationUploadSessionService;
+import com.nimis.chatbot.service.JsonExportService;
+import com.nimis.chatbot.service.TenantService;
 import com.nimis.chatbot.utility.FileUploadValidator;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,14 +47,21 @@ import java.util.Map;
 public class AllocationUploadController {
 
     private final AllocationUploadService excelUploadService;
+    private final AllocationUploadJobService uploadJobService;
+    private final AllocationUploadSessionService uploadSessionService;
+    private final JsonExportService exportService;
+    private final TenantService tenantService;
 
     @PostMapping(
             value = "/upload",
             consumes = "multipart/form-data"
     )
     @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
-    public ResponseEntity<Map<String, Object>> uploadExcel(
-            @RequestPart("file") MultipartFile file) {
+    public ResponseEntity<?> uploadExcel(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            @RequestParam(defaultValue = "BATCH") AllocationLoadEngine engine,
+            Authentication authentication) {
 
         try {
             log.info("Upload request received for file: {}", file.getOriginalFilename());
@@ -37,16 +69,24 @@ public class AllocationUploadController {
             // Validate file
             FileUploadValidator.validateFile(file);
 
-            log.info("File validation passed. Processing upload...");
-            int inserted = excelUploadService.upload(file);
+            if (dryRun) {
+                return ResponseEntity.ok(dryRun(file, authentication));
+            }
+
+            log.info("File validation passed. Queueing upload...");
+            AllocationUploadJob job = uploadJobService.submit(
+                    file, authentication != null ? authentication.getName() : null, engine);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "File processed successfully");
-            response.put("recordsInserted", inserted);
+            response.put("message", "File accepted for processing");
+            response.put("jobId", job.getId());
+            response.put("status", job.getStatus());
+            response.put("engine", job.getEngine());
+            response.put("statusUrl", "/api/allocations/upload/" + job.getId());
+            response.put("reportUrl", "/api/allocations/upload/" + job.getId() + "/report");
 
-            log.info("Upload completed successfully. Records inserted: {}", inserted);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
 
         } catch (IllegalArgumentException e) {
             // ✅ SECURE: Log full error, return sanitized message
@@ -60,6 +100,17 @@ public class AllocationUploadController {
 
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
 
+        } catch (IllegalStateException e) {
+            log.warn("Upload rejected: {}", e.getMessage());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", true);
+            response.put("message", e.getMessage());
+            response.put("type", "UPLOAD_QUEUE_FULL");
+
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+
         } catch (Exception e) {
             // ✅ SECURE: Log full stack trace, return generic error
             log.error("Error during file upload: {}", e.getMessage(), e);
@@ -74,6 +125,166 @@ public class AllocationUploadController {
         }
     }
 
+    private AllocationValidationReport dryRun(MultipartFile file, Authentication authentication) throws Exception {
+        Path temp = Files.createTempFile("allocation-dry-run-", ".upload");
+        try {
+            file.transferTo(temp);
+            return excelUploadService.validate(temp, file.getOriginalFilename(),
+                    authentication != null ? authentication.getName() : null);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // ✅ UPLOAD JOB PROGRESS
+    @GetMapping("/upload/{jobId}")
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
+    public ResponseEntity<?> getUploadJob(@PathVariable Long jobId) {
+        try {
+            AllocationUploadJobResponse progress = uploadJobService.getProgress(jobId);
+            return ResponseEntity.ok(progress);
+        } catch (RuntimeException e) {
+            log.error("Error fetching upload job {}: {}", jobId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Upload job not found"));
+        }
+    }
+
+    // ✅ UPLOAD JOB ROW ERROR REPORT (CSV)
+    @GetMapping("/upload/{jobId}/report")
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
+    public ResponseEntity<?> getUploadReport(@PathVariable Long jobId) {
+        try {
+            StringWriter report = new StringWriter();
+            uploadJobService.writeReport(jobId, report);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"upload-" + jobId + "-errors.csv\"")
+                    .contentType(new MediaType("text", "csv"))
+                    .body(report.toString());
+        } catch (RuntimeException e) {
+            log.error("Error fetching report for upload job {}: {}", jobId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Upload job not found"));
+        }
+    }
+
+    // ✅ CHUNKED UPLOAD: OPEN SESSION
+    @PostMapping("/upload/sessions")
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
+    public ResponseEntity<?> createUploadSession(
+            @Valid @RequestBody CreateUploadSessionRequest request,
+            Authentication authentication) {
+        try {
+            AllocationUploadSessionResponse session = uploadSessionService.create(
+                    request, authentication != null ? authentication.getName() : null);
+            return ResponseEntity.status(HttpStatus.CREATED).body(session);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected upload session for {}: {}", request.getFileName(), e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", true, "message", e.getMessage(), "type", "VALIDATION_ERROR"));
+        } catch (IOException e) {
+            log.error("Could not open upload session: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", true, "message", "Could not open upload session", "type", "UPLOAD_ERROR"));
+        }
+    }
+
+    // ✅ CHUNKED UPLOAD: SEND (OR RE-SEND) ONE PART AS A RAW BODY
+    @PutMapping(value = "/upload/sessions/{sessionId}/parts/{partNumber}",
+            consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
+    public ResponseEntity<?> uploadPart(
+            @PathVariable String sessionId,
+            @PathVariable int partNumber,
+            @RequestHeader(value = "X-Checksum-SHA256", required = false) String checksum,
+            HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(uploadSessionService.writePart(
+                    sessionId, partNumber, checksum, request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected part {} of upload session {}: {}", partNumber, sessionId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", true, "message", e.getMessage(), "type", "PART_REJECTED"));
+        } catch (IOException e) {
+            log.warn("Part {} of upload session {} was interrupted: {}", partNumber, sessionId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", true, "message", "Part upload interrupted, please retry", "type", "PART_INTERRUPTED"));
+        } catch (RuntimeException e) {
+            log.error("Error uploading part {} of session {}: {}", partNumber, sessionId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Upload session not found"));
+        }
+    }
+
+    // ✅ CHUNKED UPLOAD: STATUS (WHICH PARTS TO RE-SEND)
+    @GetMapping("/upload/sessions/{sessionId}")
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
+    public ResponseEntity<?> getUploadSession(@PathVariable String sessionId) {
+        try {
+            return ResponseEntity.ok(uploadSessionService.getSession(sessionId));
+        } catch (RuntimeException e) {
+            log.error("Error fetching upload session {}: {}", sessionId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Upload session not found"));
+        }
+    }
+
+    // ✅ CHUNKED UPLOAD: ASSEMBLE AND START INGESTION
+    @PostMapping("/upload/sessions/{sessionId}/complete")
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
+    public ResponseEntity<Map<String, Object>> completeUploadSession(
+            @PathVariable String sessionId,
+            @RequestParam(defaultValue = "BATCH") AllocationLoadEngine engine) {
+        try {
+            AllocationUploadJob job = uploadSessionService.complete(sessionId, engine);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "File accepted for processing");
+            response.put("jobId", job.getId());
+            response.put("status", job.getStatus());
+            response.put("engine", job.getEngine());
+            response.put("statusUrl", "/api/allocations/upload/" + job.getId());
+            response.put("reportUrl", "/api/allocations/upload/" + job.getId() + "/report");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Cannot complete upload session {}: {}", sessionId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "error", true, "message", e.getMessage(), "type", "VALIDATION_ERROR"));
+        } catch (IllegalStateException e) {
+            log.warn("Upload rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("success", false, "error", true, "message", e.getMessage(), "type", "UPLOAD_QUEUE_FULL"));
+        } catch (IOException e) {
+            log.error("Error completing upload session {}: {}", sessionId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "error", true, "message", "File upload failed", "type", "UPLOAD_ERROR"));
+        } catch (RuntimeException e) {
+            log.error("Error completing upload session {}: {}", sessionId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "error", "Upload session not found"));
+        }
+    }
+
+    // ✅ CHUNKED UPLOAD: ABORT
+    @DeleteMapping("/upload/sessions/{sessionId}")
+    @PreAuthorize("hasRole('SUPER_ADMIN') || hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
+    public ResponseEntity<?> abortUploadSession(@PathVariable String sessionId) {
+        try {
+            uploadSessionService.abort(sessionId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", true, "message", e.getMessage(), "type", "VALIDATION_ERROR"));
+        } catch (IOException | RuntimeException e) {
+            log.error("Error aborting upload session {}: {}", sessionId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Upload session not found"));
+        }
+    }
+
     // ✅ GET BY LOAN NUMBER
     @GetMapping("/{loanNumber}")
     @PreAuthorize("hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN') || hasRole('FO')")
@@ -103,10 +314,10 @@ public class AllocationUploadController {
 
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN') || hasRole('FO')")
-    public ResponseEntity<?> getByUserId(@PathVariable String userId) {
+    public ResponseEntity<?> getByUserId(@PathVariable String userId, Authentication authentication) {
         try {
             log.info("Fetching allocations for userId: {}", userId);
-            List<Allocation> allocations = excelUploadService.getByUserId(userId);
+            List<Allocation> allocations = excelUploadService.getByUserId(ownUserIdForFo(userId, authentication));
             return ResponseEntity.ok(allocations);
         } catch (Exception e) {
             log.error("Error fetching allocations for user {}: {}", userId, e.getMessage());
@@ -115,17 +326,85 @@ public class AllocationUploadController {
         }
     }
 
-    // ✅ GET ALL
+    /**
+     * GET /api/allocations?after={cursor}&limit={n}&status=&fieldExecutiveId=
+     *     &location=&segment=&bucket=&posMin=&posMax=
+     * One page in id order, without allocation_data (fetch a single
+     * allocation for that). Send nextCursor back as after; hasMore means
+     * there may be another page.
+     */
     @GetMapping
     @PreAuthorize("hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
-    public ResponseEntity<?> getAll() {
+    public ResponseEntity<?> list(
+            @ModelAttribute AllocationListFilter filter,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + AllocationUploadService.DEFAULT_PAGE_SIZE) int limit) {
         try {
-            List<Allocation> allocations = excelUploadService.getAll();
-            return ResponseEntity.ok(allocations);
+            List<Allocation> allocations = excelUploadService.list(filter, after, limit);
+
+            // ✅ Cursor stays put on an empty page
+            Map<String, Object> response = new HashMap<>();
+            response.put("allocations", allocations);
+            response.put("nextCursor", allocations.isEmpty() ? after : allocations.get(allocations.size() - 1).getId());
+            response.put("hasMore", allocations.size() == AllocationUploadService.pageSize(limit));
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Error fetching all allocations: {}", e.getMessage());
+            log.error("Error fetching allocations: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to fetch allocations"));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * GET /api/allocations/search?q=
+     * The caller's allocations whose loan number, customer name or phone
+     * partly matches q (at least 3 characters), best match first.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
+    public ResponseEntity<?> search(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "" + AllocationSearchTerm.DEFAULT_LIMIT) int limit) {
+        try {
+            List<AllocationSearchHit> results = excelUploadService.search(query, limit);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("query", query);
+            response.put("results", results);
+            response.put("count", results.size());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "error", true, "message", e.getMessage(), "type", "VALIDATION_ERROR"));
+        } catch (Exception e) {
+            log.error("Error searching allocations: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to search allocations"));
+        }
+    }
+
+    /**
+     * GET /api/allocations/export
+     * Every allocation of the caller's tenant with allocation_data, as one
+     * JSON array streamed while it is read, in id order.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> export() {
+        // ✅ Resolved here; the body is written on another thread
+        Tenant tenant = tenantService.current();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> exportService.writeAllocations(tenant, out));
+    }
+
+    // Field officers are pinned to their own cases whatever id they pass
+    private static String ownUserIdForFo(String userId, Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_BANK_ADMIN".equals(a.getAuthority()) || "ROLE_VENDOR_ADMIN".equals(a.getAuthority()));
+        if (admin) {
+            return userId;
+        }
+        return String.valueOf(((UserEntity) authentication.getPrincipal()).getId());
+    }
+}
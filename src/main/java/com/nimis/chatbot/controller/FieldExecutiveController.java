@@ -3,12 +3,17 @@ package com.nimis.chatbot.controller;
 import com.nimis.chatbot.dto.response.FieldExecutiveCaseResponse;
 import com.nimis.chatbot.dto.response.FieldExecutiveDashboardCaseResponse;
 import com.nimis.chatbot.model.entity.UserEntity;
+import com.nimis.chatbot.repository.AllocationSearchTerm;
+import com.nimis.chatbot.repository.projection.AllocationSearchHit;
 import com.nimis.chatbot.service.FieldExecutiveService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -22,11 +27,14 @@ public class FieldExecutiveController {
 
     @GetMapping("/dashboard/stats")
     @PreAuthorize("hasRole('FO')")
-    public ResponseEntity<Map<String, Long>> getDashboardStats(Authentication authentication) {
+    public ResponseEntity<Map<String, Long>> getDashboardStats(Authentication authentication, ServletWebRequest request) {
         System.out.println("=== Stats Called ===");
         try {
             UserEntity user = (UserEntity) authentication.getPrincipal();
             System.out.println("User: " + user.getId());
+            if (notModified(user, request)) {
+                return null;
+            }
 
             Map<String, Long> stats = fieldExecutiveService.getDashboardStats(user.getId());
             System.out.println("Stats: " + stats);
@@ -42,9 +50,13 @@ public class FieldExecutiveController {
     @GetMapping("/dashboard/cases")
     @PreAuthorize("hasRole('FO')")
     public List<FieldExecutiveDashboardCaseResponse> dashboardCases(
-            Authentication authentication
+            Authentication authentication,
+            ServletWebRequest request
     ) {
         UserEntity user = (UserEntity) authentication.getPrincipal();
+        if (notModified(user, request)) {
+            return null;
+        }
         return fieldExecutiveService.getDashboardCases(user.getId());
     }
 
@@ -53,20 +65,53 @@ public class FieldExecutiveController {
 //    @PreAuthorize("hasRole('FO')")
     @GetMapping("/cases")
     @PreAuthorize("hasRole('FO')")
-    public List<FieldExecutiveCaseResponse> myCases(Authentication authentication) {
+    public List<FieldExecutiveCaseResponse> myCases(Authentication authentication, ServletWebRequest request) {
         UserEntity user = (UserEntity) authentication.getPrincipal();
+        if (notModified(user, request)) {
+            return null;
+        }
         return fieldExecutiveService.getMyCases(user.getId());
     }
 
+    // FE -> Search own cases by partial loan number, customer name or phone
+    @GetMapping("/cases/search")
+    @PreAuthorize("hasRole('FO')")
+    public List<AllocationSearchHit> searchMyCases(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "" + AllocationSearchTerm.DEFAULT_LIMIT) int limit,
+            Authentication authentication
+    ) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        return fieldExecutiveService.searchMyCases(user.getId(), query, limit);
+    }
+
     @GetMapping("/cases/{loanNumber}/addresses")
     @PreAuthorize("hasRole('FO')")
     public List<String> getVisitAddresses(
             @PathVariable String loanNumber,
-            Authentication authentication
+            Authentication authentication,
+            ServletWebRequest request
     ) {
         UserEntity user = (UserEntity) authentication.getPrincipal();
+        if (notModified(user, request)) {
+            return null;
+        }
         return fieldExecutiveService.getVisitAddresses(user.getId(), loanNumber);
     }
 
+    /**
+     * Conditional GET for the case endpoints: a weak ETag from the FO's
+     * case version, so a poll with a matching If-None-Match gets a 304
+     * without running the list query. The version is read before the
+     * list, so a change in between costs one extra download, never a
+     * stale 304.
+     */
+    private boolean notModified(UserEntity user, ServletWebRequest request) {
+        long version = fieldExecutiveService.getCasesVersion(user.getId());
+        // ✅ Revalidate on every poll; the cached copy is only for this FO
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        return request.checkNotModified("W/\"" + user.getId() + "-" + version + "\"");
+    }
+
 
 }
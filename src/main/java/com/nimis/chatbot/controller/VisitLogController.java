@@ -4,6 +4,7 @@ import com.nimis.chatbot.dto.request.VisitLogRequestDTO;
 import com.nimis.chatbot.dto.response.VisitLogResponseDTO;
 import com.nimis.chatbot.model.entity.UserEntity;
 import com.nimis.chatbot.model.enums.*;
+import com.nimis.chatbot.service.JsonExportService;
 import com.nimis.chatbot.service.VisitLogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +14,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.security.Principal;
@@ -26,6 +28,7 @@ import java.util.Map;
 public class VisitLogController {
 
     private final VisitLogService visitLogService;
+    private final JsonExportService exportService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('VENDOR_ADMIN') || hasRole('FO')")
@@ -180,17 +183,13 @@ public class VisitLogController {
         }
     }
 
+    // ✅ Streamed while it is read, so any number of logs fits in flat memory
     @GetMapping("/allocation/get-all")
     @PreAuthorize("hasRole('BANK_ADMIN') || hasRole('VENDOR_ADMIN')")
-    public ResponseEntity<?> getAllVisitLogs() {
-        try {
-            log.info("Fetching all visit logs");
-            List<VisitLogResponseDTO> logs = visitLogService.getAll();
-            return ResponseEntity.ok(logs);
-        } catch (Exception e) {
-            log.error("Error fetching all visit logs: {}", e.getMessage());
-            return ResponseEntity.status(500)
-                    .body(Map.of("error", "Failed to fetch visit logs"));
-        }
+    public ResponseEntity<StreamingResponseBody> getAllVisitLogs() {
+        log.info("Fetching all visit logs");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(exportService::writeVisitLogs);
     }
 }
\ No newline at end of file
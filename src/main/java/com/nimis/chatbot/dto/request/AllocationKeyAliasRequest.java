@@ -0,0 +1,18 @@
+package com.nimis.chatbot.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationKeyAliasRequest {
+    @NotBlank
+    private String alias;
+
+    @NotBlank
+    private String canonicalKey;
+
+    // Super admin only; absent means the alias applies to every bank
+    private Long bankId;
+}
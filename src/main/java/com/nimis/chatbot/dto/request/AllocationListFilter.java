@@ -0,0 +1,30 @@
+package com.nimis.chatbot.dto.request;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Query parameters of GET /api/allocations; every filter is optional and
+ * they combine with AND. Text filters match the typed column exactly.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationListFilter {
+    private String status;
+
+    private Long fieldExecutiveId;
+
+    private String location;
+
+    private String segment;
+
+    // OPENING BKT
+    private String bucket;
+
+    // POS Amt, inclusive
+    private BigDecimal posMin;
+
+    private BigDecimal posMax;
+}
@@ -0,0 +1,24 @@
+package com.nimis.chatbot.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateUploadSessionRequest {
+    @NotBlank
+    private String fileName;
+
+    @NotNull
+    @Positive
+    private Long totalSize;
+
+    // Optional; the server default is used when absent
+    private Long partSize;
+
+    // Optional hex SHA-256 of the whole file, verified on completion
+    private String sha256;
+}
@@ -0,0 +1,19 @@
+package com.nimis.chatbot.dto.response;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationChunkResult {
+    private int chunk;
+    // Checkpoint: every file row up to it is settled once the chunk commits
+    private int lastRow;
+    private int rows;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int failed;
+    private int skipped;
+}
@@ -0,0 +1,34 @@
+package com.nimis.chatbot.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationUploadJobResponse {
+    private Long jobId;
+    private String fileName;
+    private String status;
+    private String engine;
+    private Integer lastRow;
+    private Integer rowsProcessed;
+    private Integer inserted;
+    private Integer updated;
+    private Integer unchanged;
+    private Integer failed;
+    private Integer skipped;
+    private Integer duplicateLoanNumbers;
+    private Integer chunksCommitted;
+    private Long errorCount;
+    private Double percentDone;
+    private Double rowsPerSecond;
+    private Long etaSeconds;
+    private Long peakHeapMb;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
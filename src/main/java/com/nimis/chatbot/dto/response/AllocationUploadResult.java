@@ -0,0 +1,36 @@
+package com.nimis.chatbot.dto.response;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationUploadResult {
+    private int rowsRead;
+    // Last file row read
+    private int lastRow;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int failed;
+    private int skipped;
+    private int duplicateLoanNumbers;
+    // Heap high-water mark seen while ingesting
+    private long peakHeapBytes;
+
+    @Builder.Default
+    private List<AllocationChunkResult> chunks = new ArrayList<>();
+
+    public void add(AllocationChunkResult chunk) {
+        chunks.add(chunk);
+        inserted += chunk.getInserted();
+        updated += chunk.getUpdated();
+        unchanged += chunk.getUnchanged();
+        failed += chunk.getFailed();
+        skipped += chunk.getSkipped();
+    }
+}
@@ -0,0 +1,24 @@
+package com.nimis.chatbot.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationUploadSessionResponse {
+    private String sessionId;
+    private String fileName;
+    private String status;
+    private Long totalSize;
+    private Long partSize;
+    private Integer partCount;
+    private List<Integer> receivedParts;
+    private Long receivedBytes;
+    private Long jobId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,56 @@
+package com.nimis.chatbot.dto.response;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a dry-run upload: what would be written, without writing it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationValidationReport {
+    private String fileName;
+    private int rowsRead;
+    // Rows that would be written
+    private int validRows;
+    // Rows without a loan number plus rows with a value that does not fit its column
+    private int invalidRowCount;
+    private int duplicateLoanNumberCount;
+    private long elapsedMs;
+
+    @Builder.Default
+    private List<ColumnStats> columns = new ArrayList<>();
+
+    // Capped samples; the counts above are exact
+    @Builder.Default
+    private List<String> duplicateLoanNumbers = new ArrayList<>();
+
+    @Builder.Default
+    private List<InvalidRow> invalidRows = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ColumnStats {
+        private String name;
+        private String type;
+        private long nonNull;
+        private long nulls;
+        private long mismatches;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InvalidRow {
+        private int row;
+        private String loanNumber;
+        private String reason;
+    }
+}
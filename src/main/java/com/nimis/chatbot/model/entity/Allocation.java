@@ -1,10 +1,13 @@
 package com.nimis.chatbot.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.Hibernate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Map;
 
@@ -23,9 +26,58 @@ public class Allocation {
     @Column(name = "loan_number", nullable = false, unique = true)
     private String loanNumber;
 
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "allocation_data", columnDefinition = "jsonb")
-    private Map<String, Object> allocationData;
+    // allocation_data, loaded on first access (see AllocationPayload)
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id", insertable = false, updatable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @JsonIgnore
+    private AllocationPayload payload;
+
+    // SHA-256 of allocation_data as last uploaded, so re-uploads can skip unchanged rows
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Hot allocation_data keys as typed columns, written only by ingestion (see AllocationHotColumns)
+    @Column(name = "customer_name", insertable = false, updatable = false)
+    private String customerName;
+
+    @Column(name = "pos_amount", precision = 38, scale = 2, insertable = false, updatable = false)
+    private BigDecimal posAmount;
+
+    @Column(name = "location", insertable = false, updatable = false)
+    private String location;
+
+    @Column(name = "phone_1", length = 50, insertable = false, updatable = false)
+    private String phone1;
+
+    @Column(name = "address_priority_1", columnDefinition = "TEXT", insertable = false, updatable = false)
+    private String addressPriority1;
+
+    @Column(name = "address_priority_2", columnDefinition = "TEXT", insertable = false, updatable = false)
+    private String addressPriority2;
+
+    @Column(name = "address_priority_3", columnDefinition = "TEXT", insertable = false, updatable = false)
+    private String addressPriority3;
+
+    @Column(name = "address_priority_4", columnDefinition = "TEXT", insertable = false, updatable = false)
+    private String addressPriority4;
+
+    @Column(name = "segment", length = 100, insertable = false, updatable = false)
+    private String segment;
+
+    @Column(name = "emi", precision = 38, scale = 2, insertable = false, updatable = false)
+    private BigDecimal emi;
+
+    @Column(name = "opening_bkt", length = 50, insertable = false, updatable = false)
+    private String openingBkt;
+
+    // Owning tenant, stamped by ingestion from the uploader (see TenantService)
+    @Column(name = "bank_id", insertable = false, updatable = false)
+    private Long bankId;
+
+    @Column(name = "vendor_id", insertable = false, updatable = false)
+    private Long vendorId;
 
     private Long fieldExecutiveId;
 
@@ -55,4 +107,16 @@ public class Allocation {
         updatedAt = LocalDateTime.now();
     }
 
+    @JsonIgnore
+    public Map<String, Object> getAllocationData() {
+        return payload != null ? payload.getData() : null;
+    }
+
+    // Serialized only once loaded, so list responses go out without the payload
+    @JsonProperty("allocationData")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> loadedAllocationData() {
+        return Hibernate.isInitialized(payload) ? getAllocationData() : null;
+    }
+
 }
@@ -0,0 +1,49 @@
+package com.nimis.chatbot.model.entity;
+
+import com.nimis.chatbot.model.enums.AllocationChangeType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only allocation change log. seq is global and
+ * only grows, so consumers keep the last seq they saw as their cursor.
+ * Written by AllocationChangeLog, never updated.
+ */
+@Entity
+@Table(name = "allocation_change")
+@Getter
+@NoArgsConstructor
+public class AllocationChange {
+
+    @Id
+    private Long seq;
+
+    @Column(name = "allocation_id", nullable = false)
+    private Long allocationId;
+
+    @Column(name = "loan_number", nullable = false)
+    private String loanNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 20)
+    private AllocationChangeType changeType;
+
+    // Allocation state right after the change
+    @Column(length = 30)
+    private String status;
+
+    // For UNASSIGNED, the field executive the allocation was taken from
+    @Column(name = "field_executive_id")
+    private Long fieldExecutiveId;
+
+    @Column(name = "bank_id")
+    private Long bankId;
+
+    @Column(name = "vendor_id")
+    private Long vendorId;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
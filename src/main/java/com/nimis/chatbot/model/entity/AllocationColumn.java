@@ -0,0 +1,37 @@
+package com.nimis.chatbot.model.entity;
+
+import com.nimis.chatbot.model.enums.ColumnType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inferred type of an allocation_data key, widened across uploads.
+ */
+@Entity
+@Table(name = "allocation_column")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AllocationColumn {
+
+    @Id
+    @Column(length = 255)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private ColumnType type;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
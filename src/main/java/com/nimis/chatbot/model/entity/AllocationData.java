@@ -0,0 +1,172 @@
+package com.nimis.chatbot.model.entity;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only allocation_data as loaded: one value array per row over a key
+ * schema shared by every row with the same keys in the same order. Rows
+ * of one upload have identical headers, so 100k rows cost 100k arrays
+ * instead of 100k hash maps each repeating the keys and their entries.
+ *
+ * Iterates in stored key order, like the LinkedHashMap Jackson would
+ * otherwise build; nested values are plain maps and lists.
+ */
+@JsonDeserialize(using = AllocationData.Deserializer.class)
+public final class AllocationData extends AbstractMap<String, Object> {
+
+    // Distinct key layouts cached; past this new layouts are still shared per row but not remembered
+    private static final int MAX_SCHEMAS = 1_024;
+    private static final Map<List<String>, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private final Schema schema;
+    private final Object[] values;
+
+    private AllocationData(Schema schema, Object[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
+
+    /**
+     * Compact copy of the given map, in its iteration order.
+     */
+    public static AllocationData copyOf(Map<String, ?> data) {
+        if (data instanceof AllocationData compact) {
+            return compact;
+        }
+        List<String> keys = new ArrayList<>(data.size());
+        Object[] values = new Object[data.size()];
+        int i = 0;
+        for (Map.Entry<String, ?> entry : data.entrySet()) {
+            keys.add(entry.getKey());
+            values[i++] = entry.getValue();
+        }
+        return new AllocationData(Schema.of(keys), values);
+    }
+
+    boolean sharesSchemaWith(AllocationData other) {
+        return schema == other.schema;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return schema.index.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        Integer i = schema.index.get(key);
+        return i != null ? values[i] : null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return values.length;
+            }
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (next >= values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        int i = next++;
+                        return new SimpleImmutableEntry<>(schema.keys[i], values[i]);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Key names in order and their positions, shared by every row with
+     * exactly these keys.
+     */
+    private static final class Schema {
+
+        private final String[] keys;
+        private final Map<String, Integer> index;
+
+        private Schema(List<String> keys) {
+            this.keys = keys.toArray(String[]::new);
+            this.index = new HashMap<>(keys.size() * 2);
+            for (int i = 0; i < this.keys.length; i++) {
+                index.put(this.keys[i], i);
+            }
+        }
+
+        static Schema of(List<String> keys) {
+            Schema schema = SCHEMAS.get(keys);
+            if (schema != null) {
+                return schema;
+            }
+            if (SCHEMAS.size() >= MAX_SCHEMAS) {
+                return new Schema(keys);
+            }
+            return SCHEMAS.computeIfAbsent(List.copyOf(keys), Schema::new);
+        }
+    }
+
+    /**
+     * Reads a JSON object field by field, values as Jackson's untyped
+     * reader would, without building an intermediate map.
+     */
+    static final class Deserializer extends JsonDeserializer<AllocationData> {
+
+        @Override
+        public AllocationData deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = p.nextToken();
+            }
+            List<String> keys = new ArrayList<>();
+            Object[] values = new Object[16];
+            for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                keys.add(p.currentName());
+                p.nextToken();
+                if (keys.size() > values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+                values[keys.size() - 1] = ctxt.readValue(p, Object.class);
+            }
+            if (token != JsonToken.END_OBJECT) {
+                return (AllocationData) ctxt.handleUnexpectedToken(AllocationData.class, p);
+            }
+            return new AllocationData(Schema.of(keys),
+                    values.length == keys.size() ? values : Arrays.copyOf(values, keys.size()));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.nimis.chatbot.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Upload header variant renamed to a canonical allocation_data key at
+ * ingestion. Rows without a bank apply to every bank; a bank's own row
+ * wins over them.
+ */
+@Entity
+@Table(name = "allocation_key_alias", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_allocation_key_alias_bank_alias", columnNames = {"bank_id", "alias"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AllocationKeyAlias {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bank_id")
+    private Long bankId;
+
+    // Normalized, see AllocationKeyAliases.normalize
+    @Column(nullable = false, length = 255)
+    private String alias;
+
+    @Column(name = "canonical_key", nullable = false, length = 255)
+    private String canonicalKey;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
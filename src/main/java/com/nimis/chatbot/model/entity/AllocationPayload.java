@@ -0,0 +1,34 @@
+package com.nimis.chatbot.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * The allocation_data column of loan_allocation, mapped on its own so
+ * Allocation can load it lazily: list queries select only the row header
+ * and typed columns, and the payload is fetched on first access (in
+ * batches when a list does touch it). Written only by ingestion.
+ *
+ * Decoded into {@link AllocationData}, so rows with the same keys share one
+ * copy of their keys.
+ */
+@Entity
+@Immutable
+@BatchSize(size = 100)
+@Table(name = "loan_allocation")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationPayload {
+
+    @Id
+    private Long id;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "allocation_data", columnDefinition = "jsonb", insertable = false, updatable = false)
+    private AllocationData data;
+}
@@ -0,0 +1,38 @@
+package com.nimis.chatbot.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A row that an upload job skipped or failed to write, with the reason.
+ */
+@Entity
+@Table(name = "allocation_upload_error", indexes = {
+        @Index(name = "idx_upload_error_job_row", columnList = "job_id, row_number")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AllocationUploadError {
+
+    public static final int LOAN_NUMBER_LENGTH = 255;
+    public static final int REASON_LENGTH = 500;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "row_number", nullable = false)
+    private Integer rowNumber;
+
+    @Column(name = "loan_number", length = LOAN_NUMBER_LENGTH)
+    private String loanNumber;
+
+    @Column(length = REASON_LENGTH)
+    private String reason;
+}
@@ -0,0 +1,112 @@
+package com.nimis.chatbot.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background allocation upload.
+ *
+ * Status flow: QUEUED -> RUNNING -> COMPLETED / FAILED.
+ * checkpointRow is the last file row whose chunk has been committed;
+ * a resumed job skips everything up to and including it.
+ */
+@Entity
+@Table(name = "allocation_upload_job", indexes = {
+        @Index(name = "idx_upload_job_status", columnList = "status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AllocationUploadJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "spool_path", length = 500)
+    private String spoolPath;
+
+    @Column(length = 30, nullable = false)
+    private String status;
+
+    @Column(name = "uploaded_by")
+    private String uploadedBy;
+
+    // Uploader's tenant; only that tenant (or a super admin) may read it back
+    @Column(name = "bank_id")
+    private Long bankId;
+
+    @Column(name = "vendor_id")
+    private Long vendorId;
+
+    // AllocationLoadEngine used to write the rows
+    @Column(length = 10)
+    @Builder.Default
+    private String engine = "BATCH";
+
+    // Last row number of the file, when the reader can tell up front
+    @Column(name = "last_row")
+    private Integer lastRow;
+
+    @Column(name = "checkpoint_row", nullable = false)
+    @Builder.Default
+    private Integer checkpointRow = 0;
+
+    @Column(name = "chunks_committed", nullable = false)
+    @Builder.Default
+    private Integer chunksCommitted = 0;
+
+    @Builder.Default
+    private Integer inserted = 0;
+
+    @Builder.Default
+    private Integer updated = 0;
+
+    // Rows whose content hash matched the stored row, so nothing was written
+    @Builder.Default
+    private Integer unchanged = 0;
+
+    @Builder.Default
+    private Integer failed = 0;
+
+    @Builder.Default
+    private Integer skipped = 0;
+
+    @Column(name = "duplicate_loan_numbers")
+    @Builder.Default
+    private Integer duplicateLoanNumbers = 0;
+
+    // Heap high-water mark of the last run
+    @Column(name = "peak_heap_bytes")
+    private Long peakHeapBytes;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    // Where the current run started, so rows/sec ignores rows done before a restart
+    @Column(name = "run_start_row")
+    private Integer runStartRow;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
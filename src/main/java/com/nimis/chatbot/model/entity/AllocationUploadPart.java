@@ -0,0 +1,40 @@
+package com.nimis.chatbot.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A part of an upload session whose bytes reached the spool and matched
+ * their checksum. A retried part replaces the earlier record.
+ */
+@Entity
+@Table(name = "allocation_upload_part", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_upload_part_session_part", columnNames = {"session_id", "part_number"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AllocationUploadPart {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false, length = 36)
+    private String sessionId;
+
+    @Column(name = "part_number", nullable = false)
+    private Integer partNumber;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(length = 64, nullable = false)
+    private String sha256;
+
+    private LocalDateTime receivedAt;
+}
@@ -0,0 +1,75 @@
+package com.nimis.chatbot.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumable upload of a large allocation file, sent in fixed-size parts.
+ *
+ * Status flow: OPEN -> COMPLETED (handed to an upload job) / ABORTED.
+ * Part N occupies bytes [(N-1) * partSize, N * partSize) of the spool file.
+ */
+@Entity
+@Table(name = "allocation_upload_session")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AllocationUploadSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "uploaded_by")
+    private String uploadedBy;
+
+    // Uploader's tenant, checked on every read of the session
+    @Column(name = "bank_id")
+    private Long bankId;
+
+    @Column(name = "vendor_id")
+    private Long vendorId;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    @Column(name = "part_size", nullable = false)
+    private Long partSize;
+
+    @Column(name = "part_count", nullable = false)
+    private Integer partCount;
+
+    // Optional SHA-256 of the whole file, checked on completion
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(length = 30, nullable = false)
+    private String status;
+
+    @Column(name = "spool_path", length = 500)
+    private String spoolPath;
+
+    @Column(name = "job_id")
+    private Long jobId;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
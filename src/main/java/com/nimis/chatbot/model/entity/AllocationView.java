@@ -0,0 +1,158 @@
+package com.nimis.chatbot.model.entity;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Typed view of the allocation_data keys the case screens and visit logs
+ * read. Decode once per allocation with {@link #of(Allocation)} and hand
+ * the view to every mapper instead of reading the map again.
+ *
+ * Numbers may arrive as JSON numbers (typed uploads) or as text (older
+ * uploads); text is checked before it is parsed, so a bad value costs no
+ * exception and simply decodes to null.
+ */
+@Getter
+public final class AllocationView {
+
+    public static final String SEGMENT = "SEGMENT";
+    public static final String PRODUCT = "PRODUCT";
+    public static final String STATE = "STATE";
+    public static final String BRANCH = "BRANCH";
+    public static final String LOCATION = "LOCATION";
+    public static final String CUSTOMER_NAME = "CUSTOMER NAME";
+    public static final String POS_IN_CR = "POS (IN CR)";
+    public static final String POS_AMOUNT = "POS Amt";
+    public static final String EMI = "EMI";
+    public static final String EMI_OVERDUE = "Emi Overdue";
+    public static final String MOBILE = "phone_1";
+    public static final String EMI_DUE_COUNT = "Count Of Emi Due NOV";
+    public static final String BKT_TAG = "BKT TAG";
+    public static final String OPENING_BUCKET = "OPENING BKT";
+    public static final String SECURITIZATION = "SECURITIZATION";
+    public static final String ASHV_DA_PTC = "ASHV DA/PTC";
+    public static final String WARRANT = "Warrant";
+    public static final String CO_APPLICANT1_NAME = "Co_Applicant1_Name";
+    public static final String CO_APPLICANT1_MOBILE = "Co_Applicant1_Mobile_No";
+    public static final String ADDRESS_PRIORITY_1 = "address_priority_1";
+    public static final String ADDRESS_PRIORITY_2 = "address_priority_2";
+    public static final String ADDRESS_PRIORITY_3 = "address_priority_3";
+    public static final String ADDRESS_PRIORITY_4 = "address_priority_4";
+
+    private static final AllocationView EMPTY = new AllocationView(Map.of());
+
+    private final String segment;
+    private final String product;
+    private final String state;
+    private final String branch;
+    private final String location;
+    private final String customerName;
+    private final BigDecimal posInCr;
+    private final BigDecimal posAmount;
+    private final BigDecimal emi;
+    private final Integer emiOverdue;
+    private final String mobile;
+    private final Integer emiDueCount;
+    private final String bktTag;
+    private final String openingBucket;
+    private final String securitization;
+    private final String ashvDaPtc;
+    private final String warrant;
+    private final String coApplicant1Name;
+    private final String coApplicant1Mobile;
+    private final String addressPriority1;
+    private final String addressPriority2;
+    private final String addressPriority3;
+    private final String addressPriority4;
+
+    private AllocationView(Map<String, Object> d) {
+        this.segment = text(d.get(SEGMENT));
+        this.product = text(d.get(PRODUCT));
+        this.state = text(d.get(STATE));
+        this.branch = text(d.get(BRANCH));
+        this.location = text(d.get(LOCATION));
+        this.customerName = text(d.get(CUSTOMER_NAME));
+        this.posInCr = decimal(d.get(POS_IN_CR));
+        this.posAmount = decimal(d.get(POS_AMOUNT));
+        this.emi = decimal(d.get(EMI));
+        this.emiOverdue = integer(d.get(EMI_OVERDUE));
+        this.mobile = text(d.get(MOBILE));
+        this.emiDueCount = integer(d.get(EMI_DUE_COUNT));
+        this.bktTag = text(d.get(BKT_TAG));
+        this.openingBucket = text(d.get(OPENING_BUCKET));
+        this.securitization = text(d.get(SECURITIZATION));
+        this.ashvDaPtc = text(d.get(ASHV_DA_PTC));
+        this.warrant = text(d.get(WARRANT));
+        this.coApplicant1Name = text(d.get(CO_APPLICANT1_NAME));
+        this.coApplicant1Mobile = text(d.get(CO_APPLICANT1_MOBILE));
+        this.addressPriority1 = text(d.get(ADDRESS_PRIORITY_1));
+        this.addressPriority2 = text(d.get(ADDRESS_PRIORITY_2));
+        this.addressPriority3 = text(d.get(ADDRESS_PRIORITY_3));
+        this.addressPriority4 = text(d.get(ADDRESS_PRIORITY_4));
+    }
+
+    public static AllocationView of(Allocation allocation) {
+        return of(allocation.getAllocationData());
+    }
+
+    public static AllocationView of(Map<String, Object> data) {
+        return data == null || data.isEmpty() ? EMPTY : new AllocationView(data);
+    }
+
+    /**
+     * Strings as they are; whole numbers without a trailing ".0" or exponent.
+     */
+    static String text(Object value) {
+        if (value == null || value instanceof String) return (String) value;
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (d == Math.rint(d) && Math.abs(d) < 1e15) return Long.toString((long) d);
+            return BigDecimal.valueOf(d).toPlainString();
+        }
+        if (value instanceof BigDecimal b) return b.toPlainString();
+        return value.toString();
+    }
+
+    /**
+     * Also for keys read as text in SQL projections, see AllocationCaseRow.
+     */
+    public static BigDecimal decimal(Object value) {
+        if (value == null) return null;
+        if (value instanceof BigDecimal b) return b;
+        if (value instanceof Long || value instanceof Integer) return BigDecimal.valueOf(((Number) value).longValue());
+        if (value instanceof Number n) {
+            double d = n.doubleValue();
+            return Double.isFinite(d) ? BigDecimal.valueOf(d) : null;
+        }
+        String s = value.toString().trim();
+        return isNumber(s) ? new BigDecimal(s) : null;
+    }
+
+    public static Integer integer(Object value) {
+        BigDecimal d = decimal(value);
+        return d == null ? null : d.intValue();
+    }
+
+    /**
+     * Optional sign, digits, at most one point; what {@link BigDecimal}
+     * accepts minus exponents.
+     */
+    private static boolean isNumber(String s) {
+        int start = !s.isEmpty() && (s.charAt(0) == '-' || s.charAt(0) == '+') ? 1 : 0;
+        boolean digits = false;
+        boolean point = false;
+        for (int i = start; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return false;
+            }
+        }
+        return digits;
+    }
+}
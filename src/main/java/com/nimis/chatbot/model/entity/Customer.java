@@ -6,7 +6,9 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+        @Index(name = "idx_customers_allocation", columnList = "allocation_id")
+})
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
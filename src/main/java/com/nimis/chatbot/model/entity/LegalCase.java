@@ -7,7 +7,9 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "legal_cases")
+@Table(name = "legal_cases", indexes = {
+        @Index(name = "idx_legal_cases_allocation", columnList = "allocation_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
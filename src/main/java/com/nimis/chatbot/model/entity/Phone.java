@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "phones")
+@Table(name = "phones", indexes = {
+        @Index(name = "idx_phones_allocation", columnList = "allocation_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
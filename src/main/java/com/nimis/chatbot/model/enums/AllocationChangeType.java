@@ -0,0 +1,12 @@
+package com.nimis.chatbot.model.enums;
+
+/**
+ * What happened to an allocation, as recorded in the change log.
+ */
+public enum AllocationChangeType {
+
+    CREATED,     // first uploaded
+    UPDATED,     // re-uploaded with different data
+    ASSIGNED,    // assigned or reassigned to a field executive
+    UNASSIGNED   // taken off the field executive it is logged under
+}
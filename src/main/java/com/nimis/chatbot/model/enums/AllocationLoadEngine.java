@@ -0,0 +1,10 @@
+package com.nimis.chatbot.model.enums;
+
+/**
+ * How an upload writes its chunks to loan_allocation.
+ */
+public enum AllocationLoadEngine {
+
+    BATCH,   // JDBC batch of INSERT ... ON CONFLICT per chunk
+    COPY     // COPY into an unlogged staging table, then one set-based merge per chunk
+}
@@ -0,0 +1,22 @@
+package com.nimis.chatbot.model.enums;
+
+/**
+ * JSON type an allocation column is normalized to on upload.
+ */
+public enum ColumnType {
+
+    INTEGER,   // whole numbers, stored as JSON integers
+    DECIMAL,   // other numbers, stored as JSON doubles
+    DATE,      // ISO yyyy-MM-dd strings
+    BOOLEAN,
+    TEXT;      // anything else, including numbers with leading zeros
+
+    /**
+     * Narrowest type that can hold values of both types.
+     */
+    public ColumnType widen(ColumnType other) {
+        if (other == null || other == this) return this;
+        if ((this == INTEGER && other == DECIMAL) || (this == DECIMAL && other == INTEGER)) return DECIMAL;
+        return TEXT;
+    }
+}
@@ -3,10 +3,27 @@ package com.nimis.chatbot.repository;
 import com.nimis.chatbot.model.entity.Address;
 import com.nimis.chatbot.model.entity.Allocation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface AddressRepository extends JpaRepository<Address, Long> {
     Optional<Address> findByAllocation(Allocation allocation);
 
+    // The 18 address columns of an allocation's row, priorities first; empty when it has none
+    @Query(value = """
+    SELECT v.value
+    FROM addresses ad
+    CROSS JOIN LATERAL unnest(ARRAY[
+        ad.address_priority1, ad.address_priority2, ad.address_priority3, ad.address_priority4,
+        ad.address_priority5, ad.address_priority6, ad.address_priority7, ad.address_priority8,
+        ad.address_1, ad.address_2, ad.address_3, ad.address_4, ad.address_5,
+        ad.address_6, ad.address_7, ad.address_8, ad.address_9, ad.address_10
+    ]) WITH ORDINALITY AS v(value, n)
+    WHERE ad.allocation_id = :allocationId
+    ORDER BY ad.id, v.n
+    """, nativeQuery = true)
+    List<String> findAddressValues(@Param("allocationId") Long allocationId);
 }
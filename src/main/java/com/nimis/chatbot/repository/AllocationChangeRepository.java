@@ -0,0 +1,22 @@
+package com.nimis.chatbot.repository;
+
+import com.nimis.chatbot.model.entity.AllocationChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AllocationChangeRepository extends JpaRepository<AllocationChange, Long> {
+
+    List<AllocationChange> findBySeqGreaterThanOrderBySeq(Long after, Limit limit);
+
+    List<AllocationChange> findByBankIdAndSeqGreaterThanOrderBySeq(Long bankId, Long after, Limit limit);
+
+    List<AllocationChange> findByVendorIdAndSeqGreaterThanOrderBySeq(Long vendorId, Long after, Limit limit);
+
+    // Newest change to any case of the field executive, null if none; one probe of V12's index
+    @Query("SELECT max(c.seq) FROM AllocationChange c WHERE c.fieldExecutiveId = :fieldExecutiveId")
+    Long findLastSeqByFieldExecutiveId(@Param("fieldExecutiveId") Long fieldExecutiveId);
+}
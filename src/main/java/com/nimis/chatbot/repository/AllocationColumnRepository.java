@@ -0,0 +1,32 @@
+package com.nimis.chatbot.repository;
+
+import com.nimis.chatbot.model.entity.AllocationColumn;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AllocationColumnRepository extends JpaRepository<AllocationColumn, String> {
+
+    /**
+     * Insert the column, or widen its stored type to hold the given one
+     * (same rule as ColumnType.widen); a type that already holds it is left
+     * untouched. Safe to repeat and to race with another upload: the row
+     * lock serializes them and a type never narrows.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO allocation_column (name, type, updated_at)
+            VALUES (:name, :type, now())
+            ON CONFLICT (name) DO UPDATE SET
+                type = CASE
+                    WHEN allocation_column.type IN ('INTEGER', 'DECIMAL')
+                         AND excluded.type IN ('INTEGER', 'DECIMAL') THEN 'DECIMAL'
+                    ELSE 'TEXT'
+                END,
+                updated_at = excluded.updated_at
+            WHERE allocation_column.type <> excluded.type
+              AND allocation_column.type <> 'TEXT'
+              AND NOT (allocation_column.type = 'DECIMAL' AND excluded.type = 'INTEGER')""", nativeQuery = true)
+    void upsertWidening(@Param("name") String name, @Param("type") String type);
+}
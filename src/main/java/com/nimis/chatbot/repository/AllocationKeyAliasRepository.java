@@ -0,0 +1,28 @@
+package com.nimis.chatbot.repository;
+
+import com.nimis.chatbot.model.entity.AllocationKeyAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface AllocationKeyAliasRepository extends JpaRepository<AllocationKeyAlias, Long> {
+
+    // Shared aliases first, so a bank's own alias overrides them when compiled in order
+    @Query("""
+    SELECT a FROM AllocationKeyAlias a
+    WHERE a.bankId IS NULL OR a.bankId = :bankId
+    ORDER BY CASE WHEN a.bankId IS NULL THEN 0 ELSE 1 END, a.id
+    """)
+    List<AllocationKeyAlias> findEffective(@Param("bankId") Long bankId);
+
+    List<AllocationKeyAlias> findByBankIdOrderByAlias(Long bankId);
+
+    List<AllocationKeyAlias> findByBankIdIsNullOrderByAlias();
+
+    Optional<AllocationKeyAlias> findByBankIdAndAlias(Long bankId, String alias);
+
+    Optional<AllocationKeyAlias> findByBankIdIsNullAndAlias(String alias);
+}
@@ -1,54 +1,301 @@
 package com.nimis.chatbot.repository;
 
 import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.repository.projection.AllocationAssignee;
+import com.nimis.chatbot.repository.projection.AllocationCaseRow;
+import com.nimis.chatbot.repository.projection.AllocationCaseSummary;
+import com.nimis.chatbot.repository.projection.AllocationSearchHit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface AllocationRepository extends JpaRepository<Allocation, Long> {
+public interface AllocationRepository extends JpaRepository<Allocation, Long>, JpaSpecificationExecutor<Allocation> {
 
     Optional<Allocation> findByLoanNumber(String loanNumber);
 
+    // Detail reads: the row and its allocation_data in one query
+    @EntityGraph(attributePaths = "payload")
+    Optional<Allocation> findWithPayloadByLoanNumber(String loanNumber);
+
+    @EntityGraph(attributePaths = "payload")
+    Optional<Allocation> findWithPayloadById(Long id);
+
+    // Full exports (JsonExportService): a cursor read 500 rows per fetch, inside a transaction
+    @EntityGraph(attributePaths = "payload")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Allocation> streamAllByOrderById();
+
+    @EntityGraph(attributePaths = "payload")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Allocation> streamByBankIdOrderById(Long bankId);
+
+    @EntityGraph(attributePaths = "payload")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Allocation> streamByVendorIdOrderById(Long vendorId);
+
     List<Allocation> findByFieldExecutiveIdAndStatusIn(
             Long userId,
             List<String> statuses
     );
 
-    @Query(value = """
-    SELECT
-        a.allocation_data ->> 'LOANNUMBER' AS loanNumber,
-        a.allocation_data ->> 'CUSTOMER NAME' AS customerName,
-        a.allocation_data ->> 'LOCATION' AS location
+    @Query("""
+    SELECT a.id AS id, a.loanNumber AS loanNumber, a.status AS status,
+           a.customerName AS customerName, a.posAmount AS posAmount, a.phone1 AS phone1,
+           a.location AS location, a.addressPriority1 AS addressPriority1
+    FROM Allocation a
+    WHERE a.fieldExecutiveId = :userId
+    AND a.status IN :statuses
+    """)
+    List<AllocationCaseSummary> findCaseSummaries(
+            @Param("userId") Long userId,
+            @Param("statuses") List<String> statuses
+    );
+
+    @Query("""
+    SELECT a.id AS id, a.loanNumber AS loanNumber, a.status AS status,
+           a.customerName AS customerName, a.posAmount AS posAmount, a.phone1 AS phone1,
+           a.location AS location, a.addressPriority1 AS addressPriority1
+    FROM Allocation a
+    WHERE a.status IN :statuses
+    """)
+    List<AllocationCaseSummary> findCaseSummariesByStatusIn(@Param("statuses") List<String> statuses);
+
+    @Query("""
+    SELECT a.id AS id, a.loanNumber AS loanNumber, a.status AS status,
+           a.customerName AS customerName, a.posAmount AS posAmount, a.phone1 AS phone1,
+           a.location AS location, a.addressPriority1 AS addressPriority1
+    FROM Allocation a
+    WHERE a.bankId = :bankId
+    AND a.status IN :statuses
+    """)
+    List<AllocationCaseSummary> findCaseSummariesByBankIdAndStatusIn(
+            @Param("bankId") Long bankId,
+            @Param("statuses") List<String> statuses
+    );
+
+    @Query("""
+    SELECT a.id AS id, a.loanNumber AS loanNumber, a.status AS status,
+           a.customerName AS customerName, a.posAmount AS posAmount, a.phone1 AS phone1,
+           a.location AS location, a.addressPriority1 AS addressPriority1
+    FROM Allocation a
+    WHERE a.vendorId = :vendorId
+    AND a.status IN :statuses
+    """)
+    List<AllocationCaseSummary> findCaseSummariesByVendorIdAndStatusIn(
+            @Param("vendorId") Long vendorId,
+            @Param("statuses") List<String> statuses
+    );
+
+    /**
+     * Select list and FROM of the "my cases" rows (AllocationCaseRow): typed
+     * columns, and the remaining keys the screen shows read out of
+     * allocation_data by one jsonb_to_record, so each row's JSONB is
+     * detoasted once rather than once per key. Number keys come out as
+     * text, the rest through V9's jsonb_text. Quoted aliases keep the
+     * projection's case.
+     */
+    String CASE_ROWS = """
+    SELECT a.loan_number AS "loanNumber", a.segment AS "segment", a.location AS "location",
+           a.customer_name AS "customerName", a.pos_amount AS "posAmount", a.emi AS "emi",
+           a.phone_1 AS "phone1", a.opening_bkt AS "openingBkt",
+           a.address_priority_1 AS "addressPriority1", a.address_priority_2 AS "addressPriority2",
+           a.address_priority_3 AS "addressPriority3", a.address_priority_4 AS "addressPriority4",
+           d."POS (IN CR)" AS "posInCr",
+           d."Emi Overdue" AS "emiOverdue",
+           d."Count Of Emi Due NOV" AS "emiDueCount",
+           jsonb_text(d."BKT TAG") AS "bktTag",
+           jsonb_text(d."SECURITIZATION") AS "securitization",
+           jsonb_text(d."ASHV DA/PTC") AS "ashvDaPtc",
+           jsonb_text(d."Warrant") AS "warrant",
+           jsonb_text(d."Co_Applicant1_Name") AS "coApplicant1Name",
+           jsonb_text(d."Co_Applicant1_Mobile_No") AS "coApplicant1Mobile"
     FROM loan_allocation a
+    CROSS JOIN LATERAL jsonb_to_record(a.allocation_data) AS d(
+           "POS (IN CR)" text, "Emi Overdue" text, "Count Of Emi Due NOV" text,
+           "BKT TAG" jsonb, "SECURITIZATION" jsonb, "ASHV DA/PTC" jsonb, "Warrant" jsonb,
+           "Co_Applicant1_Name" jsonb, "Co_Applicant1_Mobile_No" jsonb)
+    """;
+
+    @Query(value = CASE_ROWS + """
     WHERE a.field_executive_id = :userId
     AND a.status IN (:statuses)
     """, nativeQuery = true)
-    List<Object[]> findDashboardCases(
+    List<AllocationCaseRow> findCaseRows(
             @Param("userId") Long userId,
             @Param("statuses") List<String> statuses
     );
 
+    @Query(value = CASE_ROWS + "WHERE a.status IN (:statuses)", nativeQuery = true)
+    List<AllocationCaseRow> findCaseRowsByStatusIn(@Param("statuses") List<String> statuses);
+
+    @Query(value = CASE_ROWS + "WHERE a.bank_id = :bankId AND a.status IN (:statuses)", nativeQuery = true)
+    List<AllocationCaseRow> findCaseRowsByBankIdAndStatusIn(
+            @Param("bankId") Long bankId,
+            @Param("statuses") List<String> statuses
+    );
+
+    @Query(value = CASE_ROWS + "WHERE a.vendor_id = :vendorId AND a.status IN (:statuses)", nativeQuery = true)
+    List<AllocationCaseRow> findCaseRowsByVendorIdAndStatusIn(
+            @Param("vendorId") Long vendorId,
+            @Param("statuses") List<String> statuses
+    );
+
+    Optional<AllocationAssignee> findAssigneeByLoanNumber(String loanNumber);
+
+    /**
+     * Allocation search, after a "WITH scoped AS NOT MATERIALIZED (...)," CTE
+     * naming the rows the caller may see. :term is the search text and
+     * :pattern the same text as an escaped ILIKE '%term%'.
+     *
+     * An exact loan number returns that case alone, off the unique index.
+     * Otherwise rows match on a substring of loan number or phone, or on a
+     * customer name with a word close to the term (which covers substrings
+     * and typos), all through V11's trigram indexes. The matches are read
+     * through a materialized CTE so the planner keeps the index plan
+     * instead of a LIMIT-driven seq scan. Every match is scored and only
+     * then cut to :limit, by the best trigram similarity, so an exact phone
+     * or full name scores 1 however many rows share the term. Only the
+     * returned columns are materialized.
+     */
+    String SEARCH = """
+    exact AS (
+        SELECT id, loan_number, status, customer_name, pos_amount, phone_1, location, address_priority_1
+        FROM scoped WHERE loan_number = :term
+    ),
+    matches AS MATERIALIZED (
+        SELECT id, loan_number, status, customer_name, pos_amount, phone_1, location, address_priority_1
+        FROM scoped s
+        WHERE s.loan_number ILIKE :pattern OR s.phone_1 ILIKE :pattern OR :term <% s.customer_name
+    ),
+    candidates AS (
+        SELECT * FROM exact
+        UNION ALL
+        SELECT * FROM matches WHERE NOT EXISTS (SELECT 1 FROM exact)
+    )
+    SELECT c.id AS "id", c.loan_number AS "loanNumber", c.status AS "status",
+           c.customer_name AS "customerName", c.pos_amount AS "posAmount", c.phone_1 AS "phone1",
+           c.location AS "location", c.address_priority_1 AS "addressPriority1",
+           greatest(similarity(c.loan_number, :term), word_similarity(:term, c.customer_name),
+                    similarity(c.phone_1, :term)) AS "score"
+    FROM candidates c
+    ORDER BY "score" DESC, c.id
+    LIMIT :limit
+    """;
+
+    @Query(value = "WITH scoped AS NOT MATERIALIZED (SELECT * FROM loan_allocation)," + SEARCH, nativeQuery = true)
+    List<AllocationSearchHit> search(
+            @Param("term") String term,
+            @Param("pattern") String pattern,
+            @Param("limit") int limit
+    );
+
+    @Query(value = "WITH scoped AS NOT MATERIALIZED (SELECT * FROM loan_allocation WHERE bank_id = :bankId),"
+            + SEARCH, nativeQuery = true)
+    List<AllocationSearchHit> searchByBankId(
+            @Param("bankId") Long bankId,
+            @Param("term") String term,
+            @Param("pattern") String pattern,
+            @Param("limit") int limit
+    );
+
+    @Query(value = "WITH scoped AS NOT MATERIALIZED (SELECT * FROM loan_allocation WHERE vendor_id = :vendorId),"
+            + SEARCH, nativeQuery = true)
+    List<AllocationSearchHit> searchByVendorId(
+            @Param("vendorId") Long vendorId,
+            @Param("term") String term,
+            @Param("pattern") String pattern,
+            @Param("limit") int limit
+    );
+
+    @Query(value = "WITH scoped AS NOT MATERIALIZED (SELECT * FROM loan_allocation WHERE field_executive_id = :userId),"
+            + SEARCH, nativeQuery = true)
+    List<AllocationSearchHit> searchByFieldExecutiveId(
+            @Param("userId") Long userId,
+            @Param("term") String term,
+            @Param("pattern") String pattern,
+            @Param("limit") int limit
+    );
+
+    // Address-like keys of allocation_data in stored order; whole numbers without a trailing ".0"
     @Query(value = """
-    SELECT
-        a.allocation_data ->> 'address_priority_1' AS addr1,
-        a.allocation_data ->> 'address_priority_2' AS addr2,
-        a.allocation_data ->> 'address_priority_3' AS addr3,
-        a.allocation_data ->> 'address_priority_4' AS addr4
+    SELECT jsonb_text(e.value)
     FROM loan_allocation a
-    WHERE a.loan_number = :loanNumber
-    AND a.field_executive_id = :userId
+    CROSS JOIN LATERAL jsonb_each(a.allocation_data) WITH ORDINALITY AS e(key, value, n)
+    WHERE a.id = :allocationId
+    AND lower(e.key) LIKE 'address%'
+    ORDER BY e.n
     """, nativeQuery = true)
-    List<Object[]> findVisitAddresses(
-            @Param("loanNumber") String loanNumber,
-            @Param("userId") Long userId
-    );
+    List<String> findJsonAddressValues(@Param("allocationId") Long allocationId);
 
     long countByStatus(String status);
 
+    // ===== Tenant-scoped variants (see Tenant.select) =====
+
+    List<Allocation> findByBankIdAndStatusIn(Long bankId, List<String> statuses);
+
+    List<Allocation> findByVendorIdAndStatusIn(Long vendorId, List<String> statuses);
+
+    List<Allocation> findByStatusOrderByCreatedAtDesc(String status, Limit limit);
+
+    List<Allocation> findByBankIdAndStatusOrderByCreatedAtDesc(Long bankId, String status, Limit limit);
+
+    List<Allocation> findByVendorIdAndStatusOrderByCreatedAtDesc(Long vendorId, String status, Limit limit);
+
+    long countByBankIdAndStatus(Long bankId, String status);
+
+    long countByVendorIdAndStatus(Long vendorId, String status);
+
+    long countByBankId(Long bankId);
+
+    long countByVendorId(Long vendorId);
+
+    long countByBankIdAndFieldExecutiveIdIsNull(Long bankId);
+
+    long countByVendorIdAndFieldExecutiveIdIsNull(Long vendorId);
+
+    List<Allocation> findByBankIdAndFieldExecutiveIdIsNull(Long bankId);
+
+    List<Allocation> findByVendorIdAndFieldExecutiveIdIsNull(Long vendorId);
+
+    List<Allocation> findByBankIdAndFieldExecutiveId(Long bankId, Long fieldExecutiveId);
+
+    List<Allocation> findByVendorIdAndFieldExecutiveId(Long vendorId, Long fieldExecutiveId);
+
+    long countByBankIdAndFieldExecutiveId(Long bankId, Long fieldExecutiveId);
+
+    long countByVendorIdAndFieldExecutiveId(Long vendorId, Long fieldExecutiveId);
+
+    // Total POS from the typed column, summed in the database
+    @Query("SELECT COALESCE(SUM(a.posAmount), 0) FROM Allocation a")
+    BigDecimal sumPosAmount();
+
+    @Query("SELECT COALESCE(SUM(a.posAmount), 0) FROM Allocation a WHERE a.bankId = :bankId")
+    BigDecimal sumPosAmountByBankId(@Param("bankId") Long bankId);
+
+    @Query("SELECT COALESCE(SUM(a.posAmount), 0) FROM Allocation a WHERE a.vendorId = :vendorId")
+    BigDecimal sumPosAmountByVendorId(@Param("vendorId") Long vendorId);
+
     List<Allocation> findByFieldExecutiveId(Long userId);
 
     List<Allocation> findByStatusIn(List<String> statusFilter);
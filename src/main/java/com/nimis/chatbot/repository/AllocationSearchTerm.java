@@ -0,0 +1,31 @@
+package com.nimis.chatbot.repository;
+
+/**
+ * Search text as the AllocationRepository.search* queries take it: trimmed,
+ * digits only when it reads as a phone number, and as an ILIKE substring
+ * pattern with its wildcards escaped.
+ */
+public record AllocationSearchTerm(String term, String pattern) {
+
+    // Shorter terms have no trigram to look up, so they would scan every row
+    public static final int MIN_LENGTH = 3;
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    public static AllocationSearchTerm of(String text) {
+        String term = text == null ? "" : text.trim().replaceAll("\\s+", " ");
+        if (term.matches("\\+?[0-9][0-9 ()-]*")) {
+            term = term.replaceAll("[^0-9]", "");
+        }
+        if (term.length() < MIN_LENGTH) {
+            throw new IllegalArgumentException("Search text needs at least " + MIN_LENGTH + " characters");
+        }
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return new AllocationSearchTerm(term, "%" + escaped + "%");
+    }
+
+    public static int limit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,24 @@
+package com.nimis.chatbot.repository;
+
+import com.nimis.chatbot.model.entity.AllocationUploadError;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AllocationUploadErrorRepository extends JpaRepository<AllocationUploadError, Long> {
+
+    List<AllocationUploadError> findByJobIdOrderByRowNumberAsc(Long jobId);
+
+    long countByJobId(Long jobId);
+
+    /**
+     * Drop errors recorded past a checkpoint before a job resumes,
+     * since those rows are read again.
+     */
+    @Modifying
+    @Query("DELETE FROM AllocationUploadError e WHERE e.jobId = :jobId AND e.rowNumber > :rowNumber")
+    void deleteByJobIdAndRowNumberGreaterThan(@Param("jobId") Long jobId, @Param("rowNumber") Integer rowNumber);
+}
@@ -0,0 +1,43 @@
+package com.nimis.chatbot.repository;
+
+import com.nimis.chatbot.model.entity.AllocationUploadJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AllocationUploadJobRepository extends JpaRepository<AllocationUploadJob, Long> {
+
+    List<AllocationUploadJob> findByStatusInOrderByIdAsc(List<String> statuses);
+
+    /**
+     * Add one committed chunk's counts to the job row. Increments in place,
+     * so chunks committing concurrently or out of order cannot overwrite
+     * each other, and the checkpoint only ever moves forward.
+     */
+    @Modifying
+    @Query("""
+            UPDATE AllocationUploadJob j SET
+                j.checkpointRow = greatest(j.checkpointRow, :lastRow),
+                j.lastRow = :fileLastRow,
+                j.chunksCommitted = j.chunksCommitted + 1,
+                j.inserted = j.inserted + :inserted,
+                j.updated = j.updated + :updated,
+                j.unchanged = coalesce(j.unchanged, 0) + :unchanged,
+                j.failed = j.failed + :failed,
+                j.skipped = j.skipped + :skipped,
+                j.updatedAt = :now
+            WHERE j.id = :jobId""")
+    void addChunk(@Param("jobId") Long jobId,
+                  @Param("lastRow") int lastRow,
+                  @Param("fileLastRow") Integer fileLastRow,
+                  @Param("inserted") int inserted,
+                  @Param("updated") int updated,
+                  @Param("unchanged") int unchanged,
+                  @Param("failed") int failed,
+                  @Param("skipped") int skipped,
+                  @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,20 @@
+package com.nimis.chatbot.repository;
+
+import com.nimis.chatbot.model.entity.AllocationUploadPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface AllocationUploadPartRepository extends JpaRepository<AllocationUploadPart, Long> {
+
+    List<AllocationUploadPart> findBySessionIdOrderByPartNumberAsc(String sessionId);
+
+    Optional<AllocationUploadPart> findBySessionIdAndPartNumber(String sessionId, Integer partNumber);
+
+    @Modifying
+    @Transactional
+    void deleteBySessionId(String sessionId);
+}
@@ -0,0 +1,7 @@
+package com.nimis.chatbot.repository;
+
+import com.nimis.chatbot.model.entity.AllocationUploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AllocationUploadSessionRepository extends JpaRepository<AllocationUploadSession, String> {
+}
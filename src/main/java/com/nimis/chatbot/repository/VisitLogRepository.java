@@ -1,8 +1,11 @@
 package com.nimis.chatbot.repository;
 
 import com.nimis.chatbot.model.entity.VisitLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -10,6 +13,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface VisitLogRepository extends JpaRepository<VisitLog, Long> {
@@ -20,6 +24,13 @@ public interface VisitLogRepository extends JpaRepository<VisitLog, Long> {
     List<VisitLog> findByVisitDate(LocalDate visitDate);
     List<VisitLog> findByVisitDateBetween(LocalDate startDate, LocalDate endDate);
 
+    // Full export (JsonExportService): a cursor read 500 rows per fetch, inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<VisitLog> streamAllByOrderById();
+
     // ==================== COLLECTION APPROVAL METHODS ====================
     /**
      * Find all visit logs with specific collection status
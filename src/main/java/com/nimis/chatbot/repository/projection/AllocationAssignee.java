@@ -0,0 +1,11 @@
+package com.nimis.chatbot.repository.projection;
+
+/**
+ * Who an allocation is assigned to, for access checks that need nothing else.
+ */
+public interface AllocationAssignee {
+
+    Long getId();
+
+    Long getFieldExecutiveId();
+}
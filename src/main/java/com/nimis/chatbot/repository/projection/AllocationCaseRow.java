@@ -0,0 +1,55 @@
+package com.nimis.chatbot.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * A "my cases" row: the typed columns plus the few other allocation_data
+ * keys the case screen shows, extracted as text in SQL (see
+ * AllocationRepository.CASE_ROWS) so the JSONB never leaves the database.
+ */
+public interface AllocationCaseRow {
+
+    String getLoanNumber();
+
+    String getSegment();
+
+    String getLocation();
+
+    String getCustomerName();
+
+    BigDecimal getPosAmount();
+
+    BigDecimal getEmi();
+
+    String getPhone1();
+
+    String getOpeningBkt();
+
+    String getAddressPriority1();
+
+    String getAddressPriority2();
+
+    String getAddressPriority3();
+
+    String getAddressPriority4();
+
+    // As text, decoded like AllocationView does
+
+    String getPosInCr();
+
+    String getEmiOverdue();
+
+    String getEmiDueCount();
+
+    String getBktTag();
+
+    String getSecuritization();
+
+    String getAshvDaPtc();
+
+    String getWarrant();
+
+    String getCoApplicant1Name();
+
+    String getCoApplicant1Mobile();
+}
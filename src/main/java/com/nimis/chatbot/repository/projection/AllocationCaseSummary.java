@@ -0,0 +1,26 @@
+package com.nimis.chatbot.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * A case list row read from the typed columns of loan_allocation,
+ * without loading allocation_data.
+ */
+public interface AllocationCaseSummary {
+
+    Long getId();
+
+    String getLoanNumber();
+
+    String getStatus();
+
+    String getCustomerName();
+
+    BigDecimal getPosAmount();
+
+    String getPhone1();
+
+    String getLocation();
+
+    String getAddressPriority1();
+}
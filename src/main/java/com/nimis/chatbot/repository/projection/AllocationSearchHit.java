@@ -0,0 +1,10 @@
+package com.nimis.chatbot.repository.projection;
+
+/**
+ * A search result: the case list columns and how closely the best of
+ * loan number, customer name and phone matched the term, from 0 to 1.
+ */
+public interface AllocationSearchHit extends AllocationCaseSummary {
+
+    Float getScore();
+}
@@ -0,0 +1,49 @@
+package com.nimis.chatbot.security;
+
+import com.nimis.chatbot.model.entity.Allocation;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Which allocations a user owns and may see: a vendor's (vendorId set),
+ * a whole bank's (only bankId set), or all of them (neither, super admin).
+ * Resolved by TenantService.
+ *
+ * A vendor sees only rows stamped with its own vendor id, not its bank's
+ * rows that no vendor has uploaded yet. Those stay with the bank admins
+ * until the vendor uploads them itself (see AllocationBatchWriter).
+ */
+public record Tenant(Long bankId, Long vendorId) {
+
+    public static final Tenant ALL = new Tenant(null, null);
+
+    public boolean isAll() {
+        return bankId == null && vendorId == null;
+    }
+
+    /**
+     * Run the narrowest query this tenant allows.
+     */
+    public <T> T select(Supplier<T> all, Function<Long, T> byBank, Function<Long, T> byVendor) {
+        if (vendorId != null) return byVendor.apply(vendorId);
+        if (bankId != null) return byBank.apply(bankId);
+        return all.get();
+    }
+
+    public boolean owns(Allocation allocation) {
+        return owns(allocation.getBankId(), allocation.getVendorId());
+    }
+
+    /**
+     * Whether a record stamped with this bank and vendor is this tenant's.
+     * For a vendor the bank is not consulted: a record without a vendor is
+     * not its own even within its bank.
+     */
+    public boolean owns(Long ownerBankId, Long ownerVendorId) {
+        if (vendorId != null) return Objects.equals(vendorId, ownerVendorId);
+        if (bankId != null) return Objects.equals(bankId, ownerBankId);
+        return true;
+    }
+}
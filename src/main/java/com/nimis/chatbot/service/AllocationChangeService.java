@@ -0,0 +1,42 @@
+package com.nimis.chatbot.service;
+
+import com.nimis.chatbot.model.entity.AllocationChange;
+import com.nimis.chatbot.repository.AllocationChangeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Reads the allocation change log for incremental consumers.
+ */
+@Service
+@RequiredArgsConstructor
+public class AllocationChangeService {
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 5000;
+
+    private final AllocationChangeRepository changeRepository;
+    private final TenantService tenantService;
+
+    /**
+     * Up to limit of the current tenant's changes with seq greater than the
+     * cursor, oldest first. Pass the last seq returned as the next cursor;
+     * 0 reads from the start.
+     */
+    @Transactional(readOnly = true)
+    public List<AllocationChange> changesAfter(long after, int limit) {
+        Limit page = Limit.of(pageSize(limit));
+        return tenantService.current().select(
+                () -> changeRepository.findBySeqGreaterThanOrderBySeq(after, page),
+                bankId -> changeRepository.findByBankIdAndSeqGreaterThanOrderBySeq(bankId, after, page),
+                vendorId -> changeRepository.findByVendorIdAndSeqGreaterThanOrderBySeq(vendorId, after, page));
+    }
+
+    public static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,56 @@
+package com.nimis.chatbot.service;
+
+import com.nimis.chatbot.model.entity.AllocationColumn;
+import com.nimis.chatbot.model.enums.ColumnType;
+import com.nimis.chatbot.repository.AllocationColumnRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Persisted column types of allocation_data, shared by every upload.
+ * A key's type only ever widens, so values already written stay valid.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AllocationColumnService {
+
+    private final AllocationColumnRepository columnRepository;
+
+    @Transactional(readOnly = true)
+    public Map<String, ColumnType> getColumnTypes() {
+        Map<String, ColumnType> types = new LinkedHashMap<>();
+        for (AllocationColumn column : columnRepository.findAll()) {
+            types.put(column.getName(), column.getType());
+        }
+        return types;
+    }
+
+    /**
+     * Record the types an upload wrote, widening stored types as needed.
+     * Keys are upserted in name order so concurrent uploads lock rows in
+     * the same order.
+     */
+    @Transactional
+    public void merge(Map<String, ColumnType> uploaded) {
+        Map<String, ColumnType> existing = new LinkedHashMap<>();
+        for (AllocationColumn column : columnRepository.findAllById(uploaded.keySet())) {
+            existing.put(column.getName(), column.getType());
+        }
+
+        for (Map.Entry<String, ColumnType> entry : new TreeMap<>(uploaded).entrySet()) {
+            ColumnType previous = existing.get(entry.getKey());
+            if (previous != null && previous != previous.widen(entry.getValue())) {
+                log.info("Widening allocation column '{}' from {} to {}",
+                        entry.getKey(), previous, previous.widen(entry.getValue()));
+            }
+            columnRepository.upsertWidening(entry.getKey(), entry.getValue().name());
+        }
+    }
+}
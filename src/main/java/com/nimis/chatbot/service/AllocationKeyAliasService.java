@@ -0,0 +1,107 @@
+package com.nimis.chatbot.service;
+
+import com.nimis.chatbot.model.entity.AllocationKeyAlias;
+import com.nimis.chatbot.repository.AllocationKeyAliasRepository;
+import com.nimis.chatbot.service.ingestion.AllocationKeyAliases;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-bank registry of upload header aliases. Aliases without a bank
+ * apply to every bank. Compiled registries are cached per bank and
+ * dropped whenever an alias changes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AllocationKeyAliasService {
+
+    // Key for the shared registry in the cache (bank ids are positive)
+    private static final long SHARED = 0L;
+
+    private final AllocationKeyAliasRepository aliasRepository;
+    private final TenantService tenantService;
+
+    private final Map<Long, AllocationKeyAliases> compiled = new ConcurrentHashMap<>();
+
+    /**
+     * Registry for the bank the uploading user belongs to, directly or
+     * through their vendor; the shared one when there is none.
+     */
+    @Transactional(readOnly = true)
+    public AllocationKeyAliases forUploader(String email) {
+        return forBank(bankOf(email));
+    }
+
+    @Transactional(readOnly = true)
+    public AllocationKeyAliases forBank(Long bankId) {
+        return compiled.computeIfAbsent(bankId != null ? bankId : SHARED, id -> {
+            Map<String, String> aliases = new LinkedHashMap<>();
+            for (AllocationKeyAlias alias : aliasRepository.findEffective(id)) {
+                aliases.put(alias.getAlias(), alias.getCanonicalKey());
+            }
+            return AllocationKeyAliases.of(aliases);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<AllocationKeyAlias> list(Long bankId) {
+        return bankId != null
+                ? aliasRepository.findByBankIdOrderByAlias(bankId)
+                : aliasRepository.findByBankIdIsNullOrderByAlias();
+    }
+
+    /**
+     * Add or repoint an alias. Takes effect for uploads started afterwards;
+     * data already stored keeps its keys until re-uploaded.
+     */
+    @Transactional
+    public AllocationKeyAlias save(Long bankId, String alias, String canonicalKey) {
+        if (alias == null || alias.isBlank() || canonicalKey == null || canonicalKey.isBlank()) {
+            throw new IllegalArgumentException("alias and canonicalKey are required");
+        }
+        String normalized = AllocationKeyAliases.normalize(alias);
+        String canonical = canonicalKey.trim();
+        if (normalized.equals(AllocationKeyAliases.normalize(canonical))) {
+            throw new IllegalArgumentException("Alias is the canonical key itself");
+        }
+
+        Optional<AllocationKeyAlias> existing = bankId != null
+                ? aliasRepository.findByBankIdAndAlias(bankId, normalized)
+                : aliasRepository.findByBankIdIsNullAndAlias(normalized);
+        AllocationKeyAlias saved = existing.orElseGet(() -> AllocationKeyAlias.builder()
+                .bankId(bankId)
+                .alias(normalized)
+                .build());
+        saved.setCanonicalKey(canonical);
+        saved = aliasRepository.save(saved);
+
+        log.info("Allocation key alias '{}' -> '{}' saved for bank {}", normalized, canonical, bankId);
+        compiled.clear();
+        return saved;
+    }
+
+    @Transactional
+    public void delete(Long bankId, Long id) {
+        AllocationKeyAlias alias = aliasRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Alias not found"));
+        if (!Objects.equals(alias.getBankId(), bankId)) {
+            throw new IllegalArgumentException("Alias not found");
+        }
+        aliasRepository.delete(alias);
+        compiled.clear();
+    }
+
+    public Long bankOf(String email) {
+        return tenantService.forUser(email).bankId();
+    }
+}
@@ -0,0 +1,461 @@
+package com.nimis.chatbot.service;
+
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+import com.nimis.chatbot.dto.response.AllocationUploadJobResponse;
+import com.nimis.chatbot.dto.response.AllocationUploadResult;
+import com.nimis.chatbot.model.entity.AllocationUploadError;
+import com.nimis.chatbot.model.entity.AllocationUploadJob;
+import com.nimis.chatbot.model.enums.AllocationLoadEngine;
+import com.nimis.chatbot.repository.AllocationUploadErrorRepository;
+import com.nimis.chatbot.repository.AllocationUploadJobRepository;
+import com.nimis.chatbot.security.Tenant;
+import com.nimis.chatbot.service.ingestion.AllocationIngestionListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs allocation uploads in the background.
+ *
+ * The upload is spooled to disk and a job row is created before the
+ * request returns. The job commits its checkpoint and any row errors in
+ * the same transaction as each chunk, so after a restart it resumes from
+ * the last committed chunk rather than from the top of the file.
+ */
+@Slf4j
+@Service
+public class AllocationUploadJobService {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private final AllocationUploadJobRepository jobRepository;
+    private final AllocationUploadErrorRepository errorRepository;
+    private final AllocationUploadService allocationUploadService;
+    private final TenantService tenantService;
+    private final TaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${allocation.upload.spool-dir:uploads/allocations}")
+    private String spoolDir;
+
+    public AllocationUploadJobService(AllocationUploadJobRepository jobRepository,
+                                      AllocationUploadErrorRepository errorRepository,
+                                      AllocationUploadService allocationUploadService,
+                                      TenantService tenantService,
+                                      @Qualifier("allocationUploadExecutor") TaskExecutor executor,
+                                      PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.allocationUploadService = allocationUploadService;
+        this.tenantService = tenantService;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Spool the upload to disk and queue it.
+     *
+     * @throws IllegalStateException when the upload queue is full
+     */
+    public AllocationUploadJob submit(MultipartFile file, String uploadedBy, AllocationLoadEngine engine) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+
+        AllocationUploadJob job = createJob(file.getOriginalFilename(), uploadedBy, engine);
+        Path spool = spoolPathFor(job);
+        try {
+            file.transferTo(spool);
+        } catch (IOException e) {
+            failSpool(job, spool);
+            throw e;
+        }
+        return queue(job, spool);
+    }
+
+    /**
+     * Queue a file that is already on disk, e.g. an assembled chunked
+     * upload. The file is moved into the job spool.
+     *
+     * @throws IllegalStateException when the upload queue is full
+     */
+    public AllocationUploadJob submit(Path file, String fileName, String uploadedBy,
+                                      AllocationLoadEngine engine) throws IOException {
+        AllocationUploadJob job = createJob(fileName, uploadedBy, engine);
+        Path spool = spoolPathFor(job);
+        try {
+            Files.move(file, spool, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            failSpool(job, spool);
+            throw e;
+        }
+        return queue(job, spool);
+    }
+
+    private AllocationUploadJob createJob(String fileName, String uploadedBy, AllocationLoadEngine engine) throws IOException {
+        Files.createDirectories(Path.of(spoolDir));
+        Tenant owner = tenantService.forUser(uploadedBy);
+        return jobRepository.save(AllocationUploadJob.builder()
+                .fileName(fileName)
+                .uploadedBy(uploadedBy)
+                .bankId(owner.bankId())
+                .vendorId(owner.vendorId())
+                .engine(engine.name())
+                .status(QUEUED)
+                .build());
+    }
+
+    private Path spoolPathFor(AllocationUploadJob job) {
+        return Path.of(spoolDir).resolve("job-" + job.getId() + ".upload").toAbsolutePath();
+    }
+
+    /**
+     * Fail a job whose file never made it to the spool, removing whatever
+     * part of it was written.
+     */
+    private void failSpool(AllocationUploadJob job, Path spool) {
+        job.setSpoolPath(spool.toString());
+        markFailed(job, "Could not store the uploaded file");
+    }
+
+    private AllocationUploadJob queue(AllocationUploadJob job, Path spool) {
+        job.setSpoolPath(spool.toString());
+        job = jobRepository.save(job);
+
+        log.info("Queued allocation upload job {} for file {}", job.getId(), job.getFileName());
+        enqueue(job);
+        return job;
+    }
+
+    /**
+     * Re-queue jobs that were queued or running when the application stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        List<AllocationUploadJob> interrupted = jobRepository.findByStatusInOrderByIdAsc(List.of(QUEUED, RUNNING));
+        for (AllocationUploadJob job : interrupted) {
+            log.info("Resuming allocation upload job {} after row {}", job.getId(), job.getCheckpointRow());
+            try {
+                enqueue(job);
+            } catch (IllegalStateException e) {
+                log.warn("Could not resume job {}: {}", job.getId(), e.getMessage());
+            }
+        }
+    }
+
+    public AllocationUploadJobResponse getProgress(Long jobId) {
+        return toResponse(getOwnedJob(jobId));
+    }
+
+    /**
+     * Write the job's skipped and failed rows as CSV.
+     */
+    public void writeReport(Long jobId, Writer writer) {
+        getOwnedJob(jobId);
+
+        PrintWriter out = new PrintWriter(writer);
+        out.println("row,loanNumber,reason");
+        for (AllocationUploadError error : errorRepository.findByJobIdOrderByRowNumberAsc(jobId)) {
+            out.println(error.getRowNumber() + "," + csv(error.getLoanNumber()) + "," + csv(error.getReason()));
+        }
+        out.flush();
+    }
+
+    /**
+     * Another tenant's job is reported as missing rather than forbidden.
+     */
+    private AllocationUploadJob getOwnedJob(Long jobId) {
+        Tenant tenant = tenantService.current();
+        return jobRepository.findById(jobId)
+                .filter(job -> tenant.owns(job.getBankId(), job.getVendorId()))
+                .orElseThrow(() -> new RuntimeException("Upload job not found: " + jobId));
+    }
+
+    private void enqueue(AllocationUploadJob job) {
+        try {
+            executor.execute(() -> run(job.getId()));
+        } catch (TaskRejectedException e) {
+            markFailed(job, "Upload queue is full");
+            throw new IllegalStateException("Upload queue is full, try again later");
+        }
+    }
+
+    private void run(Long jobId) {
+        AllocationUploadJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        Path spool = job.getSpoolPath() != null ? Path.of(job.getSpoolPath()) : null;
+        if (spool == null || !Files.exists(spool)) {
+            markFailed(job, "Upload file is no longer available");
+            return;
+        }
+
+        int resumeAfter = job.getCheckpointRow();
+        transactionTemplate.executeWithoutResult(status ->
+                errorRepository.deleteByJobIdAndRowNumberGreaterThan(jobId, resumeAfter));
+
+        job.setStatus(RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job.setRunStartRow(resumeAfter);
+        job.setErrorMessage(null);
+        JobProgress progress = new JobProgress(jobRepository.save(job));
+
+        try {
+            AllocationUploadResult result = allocationUploadService.ingest(
+                    spool, resumeAfter, engineOf(job), job.getUploadedBy(), progress);
+
+            job = progress.job();
+            job.setCheckpointRow(Math.max(job.getCheckpointRow(), result.getLastRow()));
+            job.setDuplicateLoanNumbers(job.getDuplicateLoanNumbers() + result.getDuplicateLoanNumbers());
+            job.setPeakHeapBytes(result.getPeakHeapBytes());
+            job.setStatus(COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            jobRepository.save(job);
+            deleteSpool(spool);
+
+            log.info("Allocation upload job {} completed: {} inserted, {} updated, {} unchanged, {} failed, {} skipped",
+                    jobId, job.getInserted(), job.getUpdated(), job.getUnchanged(), job.getFailed(), job.getSkipped());
+
+        } catch (Exception e) {
+            log.error("Allocation upload job {} failed", jobId, e);
+            markFailed(progress.job(), e instanceof IllegalArgumentException
+                    ? e.getMessage()
+                    : "File upload failed. Please check file format and try again.");
+        }
+    }
+
+    private static AllocationLoadEngine engineOf(AllocationUploadJob job) {
+        return job.getEngine() != null ? AllocationLoadEngine.valueOf(job.getEngine()) : AllocationLoadEngine.BATCH;
+    }
+
+    private void markFailed(AllocationUploadJob job, String message) {
+        job.setStatus(FAILED);
+        job.setErrorMessage(message);
+        job.setFinishedAt(LocalDateTime.now());
+        jobRepository.save(job);
+        if (job.getSpoolPath() != null) {
+            deleteSpool(Path.of(job.getSpoolPath()));
+        }
+    }
+
+    private void deleteSpool(Path spool) {
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException e) {
+            log.warn("Could not delete upload spool {}: {}", spool, e.getMessage());
+        }
+    }
+
+    /**
+     * Folds chunk results into the job row inside each chunk's transaction.
+     * Called from the pipeline's writer threads, so all state is guarded by
+     * one lock. The in-memory job only takes a chunk's counts once that
+     * chunk commits; if it rolls back, its buffered errors are kept for the
+     * retry, which reports the same rows again and replaces them.
+     */
+    private class JobProgress implements AllocationIngestionListener {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AllocationUploadJob job;
+        // Keyed by row number, so a row reported again by a retry is stored once
+        private final Map<Integer, AllocationUploadError> pendingErrors = new TreeMap<>();
+
+        JobProgress(AllocationUploadJob job) {
+            this.job = job;
+        }
+
+        AllocationUploadJob job() {
+            lock.lock();
+            try {
+                return job;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onLastRow(int lastRow) {
+            lock.lock();
+            try {
+                job.setLastRow(lastRow);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onRowRejected(int rowNumber, String loanNumber, String reason) {
+            lock.lock();
+            try {
+                pendingErrors.put(rowNumber, AllocationUploadError.builder()
+                        .jobId(job.getId())
+                        .rowNumber(rowNumber)
+                        .loanNumber(truncate(loanNumber, AllocationUploadError.LOAN_NUMBER_LENGTH))
+                        .reason(truncate(reason, AllocationUploadError.REASON_LENGTH))
+                        .build());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onChunkCommitted(AllocationChunkResult chunk) {
+            List<AllocationUploadError> errors;
+            Integer lastRow;
+            lock.lock();
+            try {
+                errors = new ArrayList<>(pendingErrors.values());
+                pendingErrors.clear();
+                lastRow = job.getLastRow();
+            } finally {
+                lock.unlock();
+            }
+
+            if (!errors.isEmpty()) {
+                errorRepository.saveAll(errors);
+            }
+            jobRepository.addChunk(job.getId(), chunk.getLastRow(), lastRow,
+                    chunk.getInserted(), chunk.getUpdated(), chunk.getUnchanged(),
+                    chunk.getFailed(), chunk.getSkipped(), LocalDateTime.now());
+
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_COMMITTED) {
+                            applyCommitted(chunk);
+                        } else {
+                            restoreErrors(errors);
+                        }
+                    }
+                });
+            } else {
+                applyCommitted(chunk);
+            }
+        }
+
+        private void applyCommitted(AllocationChunkResult chunk) {
+            lock.lock();
+            try {
+                job.setCheckpointRow(Math.max(job.getCheckpointRow(), chunk.getLastRow()));
+                job.setChunksCommitted(job.getChunksCommitted() + 1);
+                job.setInserted(job.getInserted() + chunk.getInserted());
+                job.setUpdated(job.getUpdated() + chunk.getUpdated());
+                job.setUnchanged((job.getUnchanged() != null ? job.getUnchanged() : 0) + chunk.getUnchanged());
+                job.setFailed(job.getFailed() + chunk.getFailed());
+                job.setSkipped(job.getSkipped() + chunk.getSkipped());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void restoreErrors(List<AllocationUploadError> errors) {
+            lock.lock();
+            try {
+                for (AllocationUploadError error : errors) {
+                    // The id was assigned by the rolled-back insert
+                    error.setId(null);
+                    pendingErrors.putIfAbsent(error.getRowNumber(), error);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private AllocationUploadJobResponse toResponse(AllocationUploadJob job) {
+        int checkpoint = job.getCheckpointRow() != null ? job.getCheckpointRow() : 0;
+        int rowsProcessed = Math.max(checkpoint - 1, 0);
+
+        Double percentDone = null;
+        if (COMPLETED.equals(job.getStatus())) {
+            percentDone = 100.0;
+        } else if (job.getLastRow() != null && job.getLastRow() > 1) {
+            percentDone = Math.min(100.0, Math.round(rowsProcessed * 10000.0 / (job.getLastRow() - 1)) / 100.0);
+        }
+
+        Double rowsPerSecond = null;
+        Long etaSeconds = null;
+        if (job.getStartedAt() != null && job.getRunStartRow() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            double seconds = Duration.between(job.getStartedAt(), end).toMillis() / 1000.0;
+            int rowsThisRun = Math.max(checkpoint - Math.max(job.getRunStartRow(), 1), 0);
+            if (seconds > 0) {
+                rowsPerSecond = Math.round(rowsThisRun / seconds * 100.0) / 100.0;
+            }
+            if (RUNNING.equals(job.getStatus()) && job.getLastRow() != null
+                    && rowsPerSecond != null && rowsPerSecond > 0) {
+                etaSeconds = Math.round(Math.max(job.getLastRow() - checkpoint, 0) / rowsPerSecond);
+            }
+        }
+
+        return AllocationUploadJobResponse.builder()
+                .jobId(job.getId())
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .engine(job.getEngine())
+                .lastRow(job.getLastRow())
+                .rowsProcessed(rowsProcessed)
+                .inserted(job.getInserted())
+                .updated(job.getUpdated())
+                .unchanged(job.getUnchanged())
+                .failed(job.getFailed())
+                .skipped(job.getSkipped())
+                .duplicateLoanNumbers(job.getDuplicateLoanNumbers())
+                .chunksCommitted(job.getChunksCommitted())
+                .errorCount(errorRepository.countByJobId(job.getId()))
+                .percentDone(percentDone)
+                .rowsPerSecond(rowsPerSecond)
+                .etaSeconds(etaSeconds)
+                .peakHeapMb(job.getPeakHeapBytes() != null ? job.getPeakHeapBytes() / (1024 * 1024) : null)
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    // Driver messages and rejected loan numbers can exceed their columns and would fail the chunk
+    private static String truncate(String value, int length) {
+        return value != null && value.length() > length ? value.substring(0, length) : value;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -1,14 +1,41 @@
 package com.nimis.chatbot.service;
 
+import com.nimis.chatbot.dto.request.AllocationListFilter;
+import com.nimis.chatbot.dto.response.AllocationUploadResult;
+import com.nimis.chatbot.dto.response.AllocationValidationReport;
 import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.model.enums.AllocationLoadEngine;
 import com.nimis.chatbot.repository.AllocationRepository;
+import com.nimis.chatbot.repository.AllocationSearchTerm;
+import com.nimis.chatbot.repository.AllocationSpecifications;
+import com.nimis.chatbot.repository.projection.AllocationSearchHit;
+import com.nimis.chatbot.security.Tenant;
+import com.nimis.chatbot.service.ingestion.AllocationBatchWriter;
+import com.nimis.chatbot.service.ingestion.AllocationChunkWriter;
+import com.nimis.chatbot.service.ingestion.AllocationColumnSchema;
+import com.nimis.chatbot.service.ingestion.AllocationCopyWriter;
+import com.nimis.chatbot.service.ingestion.AllocationIngestionListener;
+import com.nimis.chatbot.service.ingestion.AllocationIngestionMetrics;
+import com.nimis.chatbot.service.ingestion.AllocationIngestionPipeline;
+import com.nimis.chatbot.service.ingestion.AllocationKeyAliases;
+import com.nimis.chatbot.service.ingestion.AllocationRowReader;
+import com.nimis.chatbot.service.ingestion.AllocationValidationCollector;
+import com.nimis.chatbot.service.ingestion.CsvAllocationReader;
+import com.nimis.chatbot.service.ingestion.StreamingXlsxAllocationReader;
+import com.nimis.chatbot.service.ingestion.WorkbookAllocationReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 @Slf4j
@@ -16,172 +43,222 @@ import java.util.*;
 @RequiredArgsConstructor
 public class AllocationUploadService {
 
-    private final AllocationRepository allocationRepository;
-
-    public int upload(MultipartFile file) throws Exception {
-        log.info("Starting upload for file: {}", file.getOriginalFilename());
-
-        if (file == null || file.isEmpty()) {
-            throw new IllegalArgumentException("File is empty");
-        }
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
 
-        int inserted = 0;
-
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = WorkbookFactory.create(is)) {
-
-            log.info("Workbook created successfully");
-
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
-                throw new IllegalArgumentException("No sheet found in workbook");
-            }
-
-            Row headerRow = sheet.getRow(0);
-            if (headerRow == null) {
-                throw new IllegalArgumentException("No header row found");
-            }
-
-            log.info("Processing {} rows", sheet.getLastRowNum());
-
-            // Process each data row
-            for (int r = 1; r <= sheet.getLastRowNum(); r++) {
-                try {
-                    Row row = sheet.getRow(r);
-                    if (row == null) continue;
-
-                    Map<String, Object> rowData = new LinkedHashMap<>();
-                    String loanNumber = null;
-
-                    // Read all cells in the row
-                    for (Cell cell : row) {
-                        String columnName = getHeaderName(headerRow, cell.getColumnIndex());
-                        if (columnName != null && !columnName.isBlank()) {
-                            Object value = readCell(cell);
-                            rowData.put(columnName, value);
-
-                            if (columnName.equalsIgnoreCase("LOANNUMBER")) {
-                                loanNumber = value != null ? value.toString().trim() : null;
-                            }
-                        }
-                    }
-
-                    // Skip row if no loan number
-                    if (loanNumber == null || loanNumber.isBlank()) {
-                        log.warn("Row {} has no loan number, skipping", r);
-                        continue;
-                    }
-
-                    // Check if loan already exists - UPDATE if duplicate, INSERT if new
-                    var existingAllocation = allocationRepository.findByLoanNumber(loanNumber);
-
-                    Allocation allocation;
-                    if (existingAllocation.isPresent()) {
-                        // Update existing allocation
-                        allocation = existingAllocation.get();
-                        allocation.setAllocationData(rowData);
-                        allocation.setUpdatedAt(java.time.LocalDateTime.now());
-                        log.info("Updating existing allocation: {}", loanNumber);
-                    } else {
-                        // Create new allocation
-                        allocation = new Allocation();
-                        allocation.setLoanNumber(loanNumber);
-                        allocation.setAllocationData(rowData);
-                        allocation.setStatus("UNASSIGNED");
-                        allocation.setVisitCount(0);
-                        log.info("Creating new allocation: {}", loanNumber);
-                    }
-
-                    try {
-                        allocationRepository.save(allocation);
-                        inserted++;
-                        log.info("Successfully saved allocation: {}", loanNumber);
-                    } catch (Exception e) {
-                        log.error("Failed to save allocation {}: {}", loanNumber, e.getMessage());
-                        // Continue to next row instead of crashing
-                        continue;
-                    }
-
-                } catch (Exception e) {
-                    log.error("Error processing row {}: {}", r, e.getMessage());
-                    // Continue to next row
+    private final AllocationRepository allocationRepository;
+    private final StreamingXlsxAllocationReader streamingXlsxReader;
+    private final WorkbookAllocationReader workbookReader;
+    private final CsvAllocationReader csvReader;
+    private final AllocationBatchWriter batchWriter;
+    private final AllocationCopyWriter copyWriter;
+    private final AllocationColumnService columnService;
+    private final AllocationKeyAliasService aliasService;
+    private final TenantService tenantService;
+    private final AllocationIngestionMetrics metrics;
+
+    @Value("${allocation.upload.chunk-size:1000}")
+    private int chunkSize;
+
+    // COPY pays a fixed round trip per chunk, so it wants bigger ones
+    @Value("${allocation.upload.copy-chunk-size:10000}")
+    private int copyChunkSize;
+
+    @Value("${allocation.upload.parallelism:4}")
+    private int parallelism;
+
+    @Value("${allocation.upload.queue-depth:2}")
+    private int queueDepth;
+
+    @Value("${allocation.upload.schema-sample-rows:1000}")
+    private int schemaSampleRows;
+
+    /**
+     * Read an allocation file and upsert its rows chunk by chunk.
+     *
+     * The calling thread only parses; chunks are written in parallel by the
+     * ingestion pipeline. Rows up to and including resumeAfterRow are parsed
+     * but not written, which lets an interrupted job pick up after its last
+     * committed checkpoint.
+     *
+     * The engine picks how chunks reach the table: JDBC batch upserts, or
+     * COPY into a staging table followed by one set-based merge per chunk.
+     * Headers are renamed to canonical keys with the uploader's bank aliases,
+     * and rows are stamped with the uploader's bank and vendor.
+     */
+    public AllocationUploadResult ingest(Path file,
+                                         int resumeAfterRow,
+                                         AllocationLoadEngine engine,
+                                         String uploadedBy,
+                                         AllocationIngestionListener listener) throws Exception {
+        AllocationRowReader reader = readerFor(file);
+        AllocationKeyAliases aliases = aliasService.forUploader(uploadedBy);
+        Tenant owner = tenantService.forUser(uploadedBy);
+        AllocationChunkWriter writer = engine == AllocationLoadEngine.COPY
+                ? copyWriter.ownedBy(owner)
+                : batchWriter.ownedBy(owner);
+        int rowsPerChunk = engine == AllocationLoadEngine.COPY ? copyChunkSize : chunkSize;
+        log.info("Reading {} with {} into {} {} writer lanes for bank {} vendor {}, resuming after row {}",
+                file.getFileName(), reader.getClass().getSimpleName(), parallelism, engine,
+                owner.bankId(), owner.vendorId(), resumeAfterRow);
+
+        AllocationUploadResult result;
+        long start = System.nanoTime();
+        try (AllocationIngestionMetrics.Run run = metrics.start();
+             AllocationIngestionPipeline pipeline = new AllocationIngestionPipeline(
+                     writer, listener, rowsPerChunk, parallelism, queueDepth,
+                     schemaSampleRows, columnService.getColumnTypes(), resumeAfterRow, run)) {
+            try {
+                reader.read(file, aliases.canonicalizing(pipeline));
+                result = pipeline.finish();
+                result.setPeakHeapBytes(run.peakHeapBytes());
+            } finally {
+                // Rows may have been written with this schema even if the run failed
+                if (pipeline.schema() != null) {
+                    mergeColumnTypes(pipeline.schema());
                 }
             }
-
-            log.info("Upload completed. {} records inserted", inserted);
-            return inserted;
-
-        } catch (Exception e) {
-            log.error("Error during file upload", e);
-            throw e;
         }
+
+        long elapsedMs = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        log.info("Ingestion completed. {} inserted, {} updated, {} unchanged, {} failed, {} skipped in {} chunks, "
+                        + "{} ms ({} rows/s), peak heap {} MB",
+                result.getInserted(), result.getUpdated(), result.getUnchanged(), result.getFailed(),
+                result.getSkipped(), result.getChunks().size(), elapsedMs,
+                result.getRowsRead() * 1000L / elapsedMs, result.getPeakHeapBytes() / (1024 * 1024));
+        return result;
     }
 
-    private String getHeaderName(Row headerRow, int columnIndex) {
+    /**
+     * Column types only guide later uploads, so failing to save them must
+     * not fail (or mask the outcome of) a run whose rows are committed.
+     */
+    private void mergeColumnTypes(AllocationColumnSchema schema) {
         try {
-            Cell cell = headerRow.getCell(columnIndex);
-            if (cell != null) {
-                String value = cell.getStringCellValue();
-                return value != null ? value.trim() : null;
-            }
-        } catch (Exception e) {
-            log.warn("Error reading header at column {}: {}", columnIndex, e.getMessage());
+            columnService.merge(schema.columnTypes());
+        } catch (RuntimeException e) {
+            log.error("Could not save allocation column types {}: {}", schema.columnTypes(), e.getMessage(), e);
         }
-        return null;
     }
 
-    private Object readCell(Cell cell) {
-        try {
-            if (cell == null) return null;
-
-            switch (cell.getCellType()) {
-                case STRING:
-                    String str = cell.getStringCellValue();
-                    return str != null ? str.trim() : null;
-
-                case NUMERIC:
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        return cell.getLocalDateTimeCellValue().toLocalDate();
-                    } else {
-                        return cell.getNumericCellValue();
-                    }
-
-                case BOOLEAN:
-                    return cell.getBooleanCellValue();
+    /**
+     * Run a file through the same parse, schema and validation stages as
+     * {@link #ingest} without touching the database, and report what an
+     * upload would do.
+     */
+    public AllocationValidationReport validate(Path file, String fileName, String uploadedBy) throws Exception {
+        long start = System.nanoTime();
+        AllocationRowReader reader = readerFor(file);
+        AllocationKeyAliases aliases = aliasService.forUploader(uploadedBy);
+        AllocationValidationCollector collector = new AllocationValidationCollector();
+
+        AllocationUploadResult result;
+        AllocationColumnSchema schema;
+        try (AllocationIngestionPipeline pipeline = new AllocationIngestionPipeline(
+                collector, collector, chunkSize, parallelism, queueDepth,
+                schemaSampleRows, columnService.getColumnTypes(), 0)) {
+            reader.read(file, aliases.canonicalizing(pipeline));
+            result = pipeline.finish();
+            schema = pipeline.schema();
+        }
 
-                case BLANK:
-                    return null;
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Dry run of {}: {} rows read, {} duplicates in {} ms",
+                fileName, result.getRowsRead(), result.getDuplicateLoanNumbers(), elapsedMs);
+        return collector.report(fileName, result, schema, elapsedMs);
+    }
 
-                default:
-                    return null;
+    /**
+     * Pick a reader from the file's magic bytes rather than its name.
+     * .xlsx is streamed; legacy .xls still goes through the POI DOM; any
+     * other file that looks like text is read as CSV.
+     */
+    AllocationRowReader readerFor(Path file) throws Exception {
+        FileMagic magic = FileMagic.valueOf(file.toFile());
+        return switch (magic) {
+            case OOXML -> streamingXlsxReader;
+            case OLE2 -> workbookReader;
+            default -> {
+                if (looksLikeText(file)) yield csvReader;
+                throw new IllegalArgumentException("Unsupported file format: " + magic);
             }
-        } catch (Exception e) {
-            log.warn("Error reading cell: {}", e.getMessage());
-            return null;
+        };
+    }
+
+    /**
+     * No NUL bytes in the first 8KB. Binary formats almost always have one.
+     */
+    private static boolean looksLikeText(Path file) throws IOException {
+        byte[] head = new byte[8192];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        if (read == 0) {
+            return false;
         }
+        for (int i = 0; i < read; i++) {
+            if (head[i] == 0) return false;
+        }
+        return true;
     }
 
     public Allocation getByLoanNumber(String loanNumber) {
-        return allocationRepository.findByLoanNumber(loanNumber)
+        Tenant tenant = tenantService.current();
+        return allocationRepository.findWithPayloadByLoanNumber(loanNumber)
+                .filter(tenant::owns)
                 .orElseThrow(() -> new RuntimeException("Allocation not found for loan: " + loanNumber));
     }
 
     public Allocation getById(Long allocationId) {
-        return allocationRepository.findById(allocationId)
+        Tenant tenant = tenantService.current();
+        return allocationRepository.findWithPayloadById(allocationId)
+                .filter(tenant::owns)
                 .orElseThrow(() -> new RuntimeException("Allocation not found with id: " + allocationId));
     }
 
     public List<Allocation> getByUserId(String userId) {
         try {
             Long id = Long.parseLong(userId);
-            return allocationRepository.findByFieldExecutiveId(id);
+            return tenantService.current().select(
+                    () -> allocationRepository.findByFieldExecutiveId(id),
+                    bankId -> allocationRepository.findByBankIdAndFieldExecutiveId(bankId, id),
+                    vendorId -> allocationRepository.findByVendorIdAndFieldExecutiveId(vendorId, id));
         } catch (NumberFormatException e) {
             log.warn("Invalid userId format: {}", userId);
             return new ArrayList<>();
         }
     }
 
-    public List<Allocation> getAll() {
-        return allocationRepository.findAll();
+    /**
+     * One page of the current tenant's allocations matching the filter, with
+     * id greater than the cursor, in id order. Pass the last id returned as
+     * the next cursor; 0 reads from the start.
+     */
+    @Transactional(readOnly = true)
+    public List<Allocation> list(AllocationListFilter filter, long after, int limit) {
+        Specification<Allocation> spec = AllocationSpecifications.listing(tenantService.current(), filter, after);
+        return allocationRepository.findBy(spec, query -> query
+                .sortBy(Sort.by("id"))
+                .limit(pageSize(limit))
+                .all());
+    }
+
+    /**
+     * The current tenant's allocations matching a partial loan number,
+     * customer name or phone, best match first.
+     */
+    public List<AllocationSearchHit> search(String text, int limit) {
+        Tenant tenant = tenantService.current();
+        AllocationSearchTerm search = AllocationSearchTerm.of(text);
+        int n = AllocationSearchTerm.limit(limit);
+        return tenant.select(
+                () -> allocationRepository.search(search.term(), search.pattern(), n),
+                bankId -> allocationRepository.searchByBankId(bankId, search.term(), search.pattern(), n),
+                vendorId -> allocationRepository.searchByVendorId(vendorId, search.term(), search.pattern(), n));
+    }
+
+    public static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
 }
\ No newline at end of file
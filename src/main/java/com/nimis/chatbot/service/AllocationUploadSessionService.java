@@ -0,0 +1,282 @@
+package com.nimis.chatbot.service;
+
+import com.nimis.chatbot.dto.request.CreateUploadSessionRequest;
+import com.nimis.chatbot.dto.response.AllocationUploadSessionResponse;
+import com.nimis.chatbot.model.entity.AllocationUploadJob;
+import com.nimis.chatbot.model.entity.AllocationUploadPart;
+import com.nimis.chatbot.model.entity.AllocationUploadSession;
+import com.nimis.chatbot.model.enums.AllocationLoadEngine;
+import com.nimis.chatbot.repository.AllocationUploadPartRepository;
+import com.nimis.chatbot.repository.AllocationUploadSessionRepository;
+import com.nimis.chatbot.security.Tenant;
+import com.nimis.chatbot.utility.FileUploadValidator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resumable, chunked allocation uploads.
+ *
+ * The client opens a session with the file's size, then PUTs each part as
+ * a raw request body. Parts are streamed straight to their offset in a
+ * spool file through a small buffer while their SHA-256 is computed, so
+ * heap use does not depend on file or part size. A part is only recorded
+ * once its checksum matches; any part can be re-sent. Completing the
+ * session hands the spool file to {@link AllocationUploadJobService}.
+ *
+ * Nothing here holds a transaction while bytes are in flight: a part can
+ * take minutes on a slow link.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AllocationUploadSessionService {
+
+    public static final String OPEN = "OPEN";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String ABORTED = "ABORTED";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MIN_PART_SIZE = 1024 * 1024;
+
+    private final AllocationUploadSessionRepository sessionRepository;
+    private final AllocationUploadPartRepository partRepository;
+    private final AllocationUploadJobService uploadJobService;
+    private final TenantService tenantService;
+
+    @Value("${allocation.upload.spool-dir:uploads/allocations}")
+    private String spoolDir;
+
+    @Value("${allocation.upload.part-size:8MB}")
+    private DataSize defaultPartSize;
+
+    @Value("${allocation.upload.max-file-size:2GB}")
+    private DataSize maxFileSize;
+
+    public AllocationUploadSessionResponse create(CreateUploadSessionRequest request, String uploadedBy) throws IOException {
+        FileUploadValidator.validateFileName(request.getFileName());
+        if (request.getTotalSize() > maxFileSize.toBytes()) {
+            throw new IllegalArgumentException("File size exceeds " + maxFileSize.toMegabytes() + "MB limit");
+        }
+        String sha256 = request.getSha256() != null ? request.getSha256().trim().toLowerCase() : null;
+        if (sha256 != null && !isSha256(sha256)) {
+            throw new IllegalArgumentException("sha256 must be 64 hex characters");
+        }
+
+        long partSize = request.getPartSize() != null ? request.getPartSize() : defaultPartSize.toBytes();
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("partSize must be at least " + MIN_PART_SIZE + " bytes");
+        }
+        int partCount = (int) Math.max(1, (request.getTotalSize() + partSize - 1) / partSize);
+
+        String id = UUID.randomUUID().toString();
+        Path dir = Path.of(spoolDir);
+        Files.createDirectories(dir);
+        Path spool = dir.resolve("session-" + id + ".part").toAbsolutePath();
+        Files.createFile(spool);
+
+        Tenant owner = tenantService.forUser(uploadedBy);
+        AllocationUploadSession session = sessionRepository.save(AllocationUploadSession.builder()
+                .id(id)
+                .fileName(request.getFileName())
+                .uploadedBy(uploadedBy)
+                .bankId(owner.bankId())
+                .vendorId(owner.vendorId())
+                .totalSize(request.getTotalSize())
+                .partSize(partSize)
+                .partCount(partCount)
+                .sha256(sha256)
+                .status(OPEN)
+                .spoolPath(spool.toString())
+                .build());
+
+        log.info("Opened upload session {} for {} ({} bytes in {} parts)",
+                id, request.getFileName(), request.getTotalSize(), partCount);
+        return toResponse(session, List.of());
+    }
+
+    /**
+     * Stream one part to its offset in the spool. The part is recorded only
+     * if its length is right and, when given, its SHA-256 matches.
+     */
+    public AllocationUploadSessionResponse writePart(String sessionId,
+                                                     int partNumber,
+                                                     String expectedSha256,
+                                                     InputStream body) throws IOException {
+        AllocationUploadSession session = getOpenSession(sessionId);
+        if (partNumber < 1 || partNumber > session.getPartCount()) {
+            throw new IllegalArgumentException("partNumber must be between 1 and " + session.getPartCount());
+        }
+
+        // A re-sent part overwrites the same bytes, so it is not complete until it verifies again
+        partRepository.findBySessionIdAndPartNumber(sessionId, partNumber).ifPresent(partRepository::delete);
+
+        long offset = (partNumber - 1) * session.getPartSize();
+        long expectedSize = Math.min(session.getPartSize(), session.getTotalSize() - offset);
+
+        MessageDigest digest = sha256();
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(Path.of(session.getSpoolPath()), StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (written + read > expectedSize) {
+                    throw new IllegalArgumentException("Part " + partNumber + " is larger than " + expectedSize + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    written += channel.write(chunk, offset + written);
+                }
+            }
+            channel.force(false);
+        }
+
+        if (written != expectedSize) {
+            throw new IllegalArgumentException("Part " + partNumber + " has " + written
+                    + " bytes, expected " + expectedSize);
+        }
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (expectedSha256 != null && !expectedSha256.trim().equalsIgnoreCase(actual)) {
+            throw new IllegalArgumentException("Checksum mismatch for part " + partNumber);
+        }
+
+        partRepository.save(AllocationUploadPart.builder()
+                .sessionId(sessionId)
+                .partNumber(partNumber)
+                .size(written)
+                .sha256(actual)
+                .receivedAt(LocalDateTime.now())
+                .build());
+
+        return toResponse(session, partRepository.findBySessionIdOrderByPartNumberAsc(sessionId));
+    }
+
+    @Transactional(readOnly = true)
+    public AllocationUploadSessionResponse getSession(String sessionId) {
+        AllocationUploadSession session = getOwnedSession(sessionId);
+        return toResponse(session, partRepository.findBySessionIdOrderByPartNumberAsc(sessionId));
+    }
+
+    /**
+     * Verify every part arrived (and the whole-file checksum, if one was
+     * declared), then queue the assembled file for ingestion.
+     *
+     * @throws IllegalStateException when the upload queue is full
+     */
+    public AllocationUploadJob complete(String sessionId, AllocationLoadEngine engine) throws IOException {
+        AllocationUploadSession session = getOpenSession(sessionId);
+        List<AllocationUploadPart> parts = partRepository.findBySessionIdOrderByPartNumberAsc(sessionId);
+        if (parts.size() != session.getPartCount()) {
+            throw new IllegalArgumentException("Upload incomplete: " + parts.size() + " of "
+                    + session.getPartCount() + " parts received");
+        }
+
+        Path spool = Path.of(session.getSpoolPath());
+        if (session.getSha256() != null) {
+            String actual = fileSha256(spool);
+            if (!actual.equals(session.getSha256())) {
+                throw new IllegalArgumentException("Checksum mismatch for assembled file");
+            }
+        }
+
+        AllocationUploadJob job = uploadJobService.submit(spool, session.getFileName(), session.getUploadedBy(), engine);
+        session.setStatus(COMPLETED);
+        session.setJobId(job.getId());
+        session.setSpoolPath(job.getSpoolPath());
+        sessionRepository.save(session);
+        partRepository.deleteBySessionId(sessionId);
+
+        log.info("Upload session {} completed as job {}", sessionId, job.getId());
+        return job;
+    }
+
+    public void abort(String sessionId) throws IOException {
+        AllocationUploadSession session = getOpenSession(sessionId);
+        Files.deleteIfExists(Path.of(session.getSpoolPath()));
+        session.setStatus(ABORTED);
+        sessionRepository.save(session);
+        partRepository.deleteBySessionId(sessionId);
+        log.info("Upload session {} aborted", sessionId);
+    }
+
+    private AllocationUploadSession getOpenSession(String sessionId) {
+        AllocationUploadSession session = getOwnedSession(sessionId);
+        if (!OPEN.equals(session.getStatus())) {
+            throw new IllegalArgumentException("Upload session is " + session.getStatus());
+        }
+        return session;
+    }
+
+    /**
+     * Another tenant's session is reported as missing rather than forbidden.
+     */
+    private AllocationUploadSession getOwnedSession(String sessionId) {
+        Tenant tenant = tenantService.current();
+        return sessionRepository.findById(sessionId)
+                .filter(session -> tenant.owns(session.getBankId(), session.getVendorId()))
+                .orElseThrow(() -> new RuntimeException("Upload session not found: " + sessionId));
+    }
+
+    private static String fileSha256(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isSha256(String value) {
+        if (value.length() != 64) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    private AllocationUploadSessionResponse toResponse(AllocationUploadSession session, List<AllocationUploadPart> parts) {
+        return AllocationUploadSessionResponse.builder()
+                .sessionId(session.getId())
+                .fileName(session.getFileName())
+                .status(session.getStatus())
+                .totalSize(session.getTotalSize())
+                .partSize(session.getPartSize())
+                .partCount(session.getPartCount())
+                .receivedParts(parts.stream().map(AllocationUploadPart::getPartNumber).toList())
+                .receivedBytes(parts.stream().mapToLong(AllocationUploadPart::getSize).sum())
+                .jobId(session.getJobId())
+                .createdAt(session.getCreatedAt())
+                .updatedAt(session.getUpdatedAt())
+                .build();
+    }
+}
@@ -1,7 +1,6 @@
 package com.nimis.chatbot.service;
 
 import com.nimis.chatbot.dto.response.BankAdminDashboardResponse;
-import com.nimis.chatbot.model.entity.Allocation;
 import com.nimis.chatbot.model.entity.VisitLog;
 import com.nimis.chatbot.repository.AllocationRepository;
 import com.nimis.chatbot.repository.VisitLogRepository;
@@ -20,6 +19,7 @@ public class BankAdminService {
 
     private final AllocationRepository allocationRepository;
     private final VisitLogRepository visitLogRepository;
+    private final TenantService tenantService;
 
     /**
      * Get Bank Admin Dashboard Stats
@@ -28,11 +28,11 @@ public class BankAdminService {
         log.info("=== Calculating Bank Admin Dashboard Stats ===");
 
         try {
-            List<Allocation> allocations = allocationRepository.findAll();
-            log.info("Found {} allocations", allocations.size());
-
-            // Total Case Value = SUM of POS from allocationData JSON
-            BigDecimal totalCaseValue = calculateTotalCaseValue(allocations);
+            // Total Case Value = SUM of POS over the bank's allocations
+            BigDecimal totalCaseValue = tenantService.current().select(
+                    allocationRepository::sumPosAmount,
+                    allocationRepository::sumPosAmountByBankId,
+                    allocationRepository::sumPosAmountByVendorId);
             log.info("Total Case Value (POS): {}", totalCaseValue);
 
             LocalDate today = LocalDate.now();
@@ -68,53 +68,6 @@ public class BankAdminService {
         }
     }
 
-    /**
-     * Total Case Value = SUM of POS from allocationData JSON
-     * Extracts POS_IN_CR, POS (IN CR), or POS from the JSON map
-     */
-    private BigDecimal calculateTotalCaseValue(List<Allocation> allocations) {
-        BigDecimal total = allocations.stream()
-                .map(this::extractPosFromJson)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        log.info("Total Case Value calculated: {}", total);
-        return total;
-    }
-
-    /**
-     * Extract POS value from allocationData JSON (case-insensitive)
-     * Tries: POS_IN_CR, POS (IN CR), POS
-     */
-    private BigDecimal extractPosFromJson(Allocation allocation) {
-        if (allocation == null || allocation.getAllocationData() == null) {
-            return null;
-        }
-
-        Map<String, Object> data = allocation.getAllocationData();
-
-        // Try exact matches first
-        String[] possibleKeys = {"POS_Amt", "POS Amt", "POS", "pos_amt", "pos Amt", "Amt"};
-
-        for (String key : possibleKeys) {
-            if (data.containsKey(key)) {
-                return convertToBigDecimal(data.get(key));
-            }
-        }
-
-        // Try case-insensitive match
-        for (Map.Entry<String, Object> entry : data.entrySet()) {
-            if (entry.getKey() != null &&
-                    (entry.getKey().equalsIgnoreCase("POS_Amt") ||
-                            entry.getKey().equalsIgnoreCase("POS Amt")
-                    )) {
-                return convertToBigDecimal(entry.getValue());
-            }
-        }
-
-        return null;
-    }
-
     /**
      * Today's Collection = APPROVED visit logs from today only
      */
@@ -163,40 +116,6 @@ public class BankAdminService {
         return total;
     }
 
-    /**
-     * Convert value to BigDecimal safely
-     */
-    private BigDecimal convertToBigDecimal(Object value) {
-        if (value == null) {
-            return null;
-        }
-        try {
-            if (value instanceof BigDecimal) {
-                return (BigDecimal) value;
-            }
-            if (value instanceof Integer) {
-                return new BigDecimal((Integer) value);
-            }
-            if (value instanceof Long) {
-                return new BigDecimal((Long) value);
-            }
-            if (value instanceof Double) {
-                return new BigDecimal((Double) value);
-            }
-            if (value instanceof Float) {
-                return new BigDecimal((Float) value);
-            }
-            String strValue = value.toString().trim();
-            if (strValue.isEmpty()) {
-                return null;
-            }
-            return new BigDecimal(strValue);
-        } catch (Exception e) {
-            log.warn("Could not convert value to BigDecimal: {}", value);
-            return null;
-        }
-    }
-
     /**
      * Get default stats
      */
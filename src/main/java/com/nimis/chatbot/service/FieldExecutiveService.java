@@ -3,19 +3,31 @@ package com.nimis.chatbot.service;
 import com.nimis.chatbot.dto.response.FieldExecutiveCaseResponse;
 import com.nimis.chatbot.dto.response.FieldExecutiveDashboardCaseResponse;
 import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.repository.AddressRepository;
+import com.nimis.chatbot.repository.AllocationChangeRepository;
 import com.nimis.chatbot.repository.AllocationRepository;
+import com.nimis.chatbot.repository.AllocationSearchTerm;
+import com.nimis.chatbot.repository.projection.AllocationAssignee;
+import com.nimis.chatbot.repository.projection.AllocationCaseRow;
+import com.nimis.chatbot.repository.projection.AllocationCaseSummary;
+import com.nimis.chatbot.repository.projection.AllocationSearchHit;
+import com.nimis.chatbot.utility.AllocationCaseMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
 
 import java.util.*;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FieldExecutiveService {
 
     private final AllocationRepository allocationRepository;
+    private final AddressRepository addressRepository;
+    private final AllocationChangeRepository changeRepository;
 
     private static final Set<String> ALLOWED_STATUSES = Set.of(
             "ASSIGNED",
@@ -25,6 +37,16 @@ public class FieldExecutiveService {
             "NOT_REACHABLE"
     );
 
+    /**
+     * Changes whenever any of the FO's cases is uploaded again, assigned to
+     * them or taken off them: the newest change log seq under their id.
+     * The log is appended in commit order, so it never goes backwards.
+     */
+    public long getCasesVersion(Long userId) {
+        Long seq = changeRepository.findLastSeqByFieldExecutiveId(userId);
+        return seq != null ? seq : 0L;
+    }
+
     public Map<String, Long> getDashboardStats(Long userId) {
         if (userId == null) {
             throw new IllegalArgumentException("userId is required");
@@ -48,29 +70,16 @@ public class FieldExecutiveService {
             throw new IllegalArgumentException("userId is required");
         }
 
-        System.out.println("Getting cases for userId: " + userId);
+        log.debug("Getting cases for userId: {}", userId);
 
-        List<Allocation> allocations = allocationRepository.findByFieldExecutiveIdAndStatusIn(
+        List<AllocationCaseSummary> cases = allocationRepository.findCaseSummaries(
                 userId,
                 List.of("ASSIGNED", "VISITED", "PROMISE_TO_PAY")
         );
-        System.out.println("Found cases: " + allocations.size());
-
-        return allocations.stream()
-                .map(a -> {
-                    Map<String, Object> d = a.getAllocationData();
-
-                    return FieldExecutiveDashboardCaseResponse.builder()
-                            .caseId("CASE" + a.getId())
-                            .loanNumber(a.getLoanNumber())
-                            .borrowerName(getString(d, "CUSTOMER NAME"))
-                            .loanAmount(getString(d, "POS Amt"))
-                            .status(a.getStatus())
-                            .phone(getString(d, "phone_1"))
-                            .location(getString(d, "LOCATION"))
-                            .address(getString(d, "address_priority_1"))
-                            .build();
-                })
+        log.debug("Found cases: {}", cases.size());
+
+        return cases.stream()
+                .map(AllocationCaseMapper::toDashboardCase)
                 .toList();
     }
 
@@ -80,67 +89,28 @@ public class FieldExecutiveService {
             throw new IllegalArgumentException("userId is required");
         }
 
-        List<Allocation> allocations =
-                allocationRepository.findByFieldExecutiveIdAndStatusIn(
-                        userId,
-                        List.of("ASSIGNED", "VISITED", "PROMISE_TO_PAY")
-                );
-
-        return allocations.stream()
-                .map(a -> {
-                    Map<String, Object> d = a.getAllocationData();
-
-                    return FieldExecutiveCaseResponse.builder()
-                            .segment(getString(d, "SEGMENT"))
-                            .location(getString(d, "LOCATION"))
-                            .loanNumber(a.getLoanNumber())
-                            .customerName(getString(d, "CUSTOMER NAME"))
-                            .posInCr(getDouble(d, "POS (IN CR)"))
-                            .posAmount(getDouble(d, "POS Amt"))
-                            .emi(getInt(d, "EMI"))
-                            .emiOverdue(getInt(d, "Emi Overdue"))
-                            .mobile(getString(d, "phone_1"))
-                            .emiDueCount(getInt(d, "Count Of Emi Due NOV"))
-                            .bktTag(getString(d, "BKT TAG"))
-                            .openingBucket(getString(d, "OPENING BKT"))
-                            .securitization(getString(d, "SECURITIZATION"))
-                            .ashvDaPtc(getString(d, "ASHV DA/PTC"))
-                            .warrant(getString(d, "Warrant"))
-                            .coApplicant1Name(getString(d, "Co_Applicant1_Name"))
-                            .coApplicant1Mobile(getString(d, "Co_Applicant1_Mobile_No"))
-                            .addressPriority1(getString(d, "address_priority_1"))
-                            .addressPriority2(getString(d, "address_priority_2"))
-                            .addressPriority3(getString(d, "address_priority_3"))
-                            .addressPriority4(getString(d, "address_priority_4"))
-                            .build();
-                })
+        List<AllocationCaseRow> cases = allocationRepository.findCaseRows(
+                userId,
+                List.of("ASSIGNED", "VISITED", "PROMISE_TO_PAY")
+        );
+
+        return cases.stream()
+                .map(AllocationCaseMapper::toCase)
                 .toList();
     }
 
+    // The FO's own cases matching a partial loan number, customer name or phone, best first
+    public List<AllocationSearchHit> searchMyCases(Long userId, String text, int limit) {
 
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
 
-    /* ---------- SAFE MAP READERS ---------- */
-
-    private String getString(Map<String, Object> map, String key) {
-        Object v = map.get(key);
-        return v == null ? null : v.toString();
-    }
-
-    private Integer getInt(Map<String, Object> map, String key) {
-        Object v = map.get(key);
-        if (v instanceof Number n) return n.intValue();
-        try { return v == null ? null : Integer.parseInt(v.toString()); }
-        catch (Exception e) { return null; }
-    }
-
-    private Double getDouble(Map<String, Object> map, String key) {
-        Object v = map.get(key);
-        if (v instanceof Number n) return n.doubleValue();
-        try { return v == null ? null : Double.parseDouble(v.toString()); }
-        catch (Exception e) { return null; }
+        AllocationSearchTerm search = AllocationSearchTerm.of(text);
+        return allocationRepository.searchByFieldExecutiveId(
+                userId, search.term(), search.pattern(), AllocationSearchTerm.limit(limit));
     }
 
-
     public List<String> getVisitAddresses(Long userId, String loanNumber) {
 
         if (userId == null) {
@@ -151,36 +121,22 @@ public class FieldExecutiveService {
             throw new IllegalArgumentException("loanNumber is required");
         }
 
-        Allocation allocation = allocationRepository.findByLoanNumber(loanNumber)
+        AllocationAssignee allocation = allocationRepository.findAssigneeByLoanNumber(loanNumber)
                 .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
 
         if (!Objects.equals(allocation.getFieldExecutiveId(), userId)) {
             throw new AccessDeniedException("Unauthorized access");
         }
 
-        Map<String, Object> data = allocation.getAllocationData();
-        if (data == null || data.isEmpty()) {
-            return List.of();
+        // Projected addresses row first; allocations uploaded before it existed fall back to allocation_data
+        List<String> addresses = addressRepository.findAddressValues(allocation.getId());
+        if (addresses.isEmpty()) {
+            addresses = allocationRepository.findJsonAddressValues(allocation.getId());
         }
 
-        return data.entrySet().stream()
-                // pick only address fields (18 address columns)
-                .filter(e -> e.getKey().toLowerCase().startsWith("address"))
-                .map(Map.Entry::getValue)
+        return addresses.stream()
                 .filter(Objects::nonNull)
 
-                // normalize values (fix 560064.0, numeric values)
-                .map(value -> {
-                    if (value instanceof Number num) {
-                        long longVal = num.longValue();
-                        if (num.doubleValue() == longVal) {
-                            return String.valueOf(longVal); // removes .0
-                        }
-                        return num.toString();
-                    }
-                    return value.toString();
-                })
-
                 // remove "0-9. " prefix like "3. Registered Address"
                 .map(s -> s.replaceFirst("^\\d+\\.\\s*", "").trim())
 
@@ -0,0 +1,88 @@
+package com.nimis.chatbot.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.model.entity.VisitLog;
+import com.nimis.chatbot.repository.AllocationRepository;
+import com.nimis.chatbot.repository.VisitLogRepository;
+import com.nimis.chatbot.security.Tenant;
+import com.nimis.chatbot.utility.VisitLogMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes full lists as one JSON array straight off a database cursor, so
+ * memory stays flat whatever the row count. Rows arrive a fetch at a time
+ * (the stream* repository methods), are mapped and written one by one,
+ * and are dropped from the persistence context after every fetch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JsonExportService {
+
+    // Same as the fetch size on the stream* repository methods
+    private static final int BATCH = 500;
+
+    private final AllocationRepository allocationRepository;
+    private final VisitLogRepository visitLogRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The tenant's allocations with allocation_data, in id order.
+     */
+    @Transactional(readOnly = true)
+    public long writeAllocations(Tenant tenant, OutputStream out) throws IOException {
+        try (Stream<Allocation> rows = tenant.select(
+                allocationRepository::streamAllByOrderById,
+                allocationRepository::streamByBankIdOrderById,
+                allocationRepository::streamByVendorIdOrderById)) {
+            long count = write(rows, Function.identity(), out);
+            log.info("Exported {} allocations for bank {} vendor {}", count, tenant.bankId(), tenant.vendorId());
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long writeVisitLogs(OutputStream out) throws IOException {
+        try (Stream<VisitLog> rows = visitLogRepository.streamAllByOrderById()) {
+            long count = write(rows, VisitLogMapper::toResponse, out);
+            log.info("Exported {} visit logs", count);
+            return count;
+        }
+    }
+
+    private <T> long write(Stream<T> rows, Function<T, ?> mapper, OutputStream out) throws IOException {
+        // Flushed by hand: after the first row, so the response starts at once, then once per fetch
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                writer.writeValue(json, mapper.apply(it.next()));
+                if (++count % BATCH == 0) {
+                    entityManager.clear();
+                }
+                if (count == 1 || count % BATCH == 0) {
+                    json.flush();
+                }
+            }
+            json.writeEndArray();
+        }
+        return count;
+    }
+}
@@ -1,7 +1,10 @@
 package com.nimis.chatbot.service;
 
 import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.model.enums.AllocationChangeType;
 import com.nimis.chatbot.repository.AllocationRepository;
+import com.nimis.chatbot.security.Tenant;
+import com.nimis.chatbot.service.ingestion.AllocationChangeLog;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,6 +14,8 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +23,8 @@ import java.util.Map;
 public class ManagerAssignmentService {
 
     private final AllocationRepository allocationRepository;
+    private final AllocationChangeLog changeLog;
+    private final TenantService tenantService;
 
     /**
      * Assign multiple allocations to a field executive
@@ -34,13 +41,22 @@ public class ManagerAssignmentService {
     public void assignToUser(Long userId, List<Long> allocationIds) {
         log.info("Assigning {} allocations to user {}", allocationIds.size(), userId);
 
-        List<Allocation> allocations = allocationRepository.findAllById(allocationIds);
+        // Ids outside the caller's bank or vendor are ignored like unknown ones
+        Tenant tenant = tenantService.current();
+        List<Allocation> allocations = allocationRepository.findAllById(allocationIds).stream()
+                .filter(tenant::owns)
+                .toList();
 
         if (allocations.isEmpty()) {
             log.warn("No allocations found for IDs: {}", allocationIds);
             return;
         }
 
+        // Cases moved off another field executive are logged as leaving them too
+        Map<Long, List<Allocation>> taken = allocations.stream()
+                .filter(a -> a.getFieldExecutiveId() != null && !a.getFieldExecutiveId().equals(userId))
+                .collect(Collectors.groupingBy(Allocation::getFieldExecutiveId));
+
         for (Allocation allocation : allocations) {
             allocation.setFieldExecutiveId(userId);
             allocation.setStatus("ASSIGNED");
@@ -49,6 +65,8 @@ public class ManagerAssignmentService {
         }
 
         allocationRepository.saveAll(allocations);
+        taken.forEach((previous, moved) -> changeLog.recordUnassigned(moved, previous));
+        changeLog.record(allocations, AllocationChangeType.ASSIGNED);
         log.info("Successfully assigned {} allocations to user {}", allocations.size(), userId);
     }
 
@@ -64,13 +82,19 @@ public class ManagerAssignmentService {
      */
     @Transactional
     public void unassignAllocation(Long allocationId) {
+        unassign(tenantService.current(), allocationId);
+    }
+
+    private void unassign(Tenant tenant, Long allocationId) {
         log.info("Unassigning allocation {}", allocationId);
 
-        allocationRepository.findById(allocationId).ifPresent(allocation -> {
+        allocationRepository.findById(allocationId).filter(tenant::owns).ifPresent(allocation -> {
+            Long oldUserId = allocation.getFieldExecutiveId();
             allocation.setFieldExecutiveId(null);
             allocation.setStatus("UNASSIGNED");
             allocation.setAssignedAt(null);
             allocationRepository.save(allocation);
+            changeLog.recordUnassigned(List.of(allocation), oldUserId);
             log.info("Successfully unassigned allocation {}", allocationId);
         });
     }
@@ -90,12 +114,16 @@ public class ManagerAssignmentService {
     public void reassignAllocation(Long allocationId, Long newUserId) {
         log.info("Reassigning allocation {} to user {}", allocationId, newUserId);
 
-        allocationRepository.findById(allocationId).ifPresent(allocation -> {
+        allocationRepository.findById(allocationId).filter(tenantService.current()::owns).ifPresent(allocation -> {
             Long oldUserId = allocation.getFieldExecutiveId();
             allocation.setFieldExecutiveId(newUserId);
             allocation.setStatus("ASSIGNED");
             allocation.setAssignedAt(LocalDateTime.now());
             allocationRepository.save(allocation);
+            if (oldUserId != null && !Objects.equals(oldUserId, newUserId)) {
+                changeLog.recordUnassigned(List.of(allocation), oldUserId);
+            }
+            changeLog.record(List.of(allocation), AllocationChangeType.ASSIGNED);
             log.info("Successfully reassigned allocation {} from user {} to user {}",
                     allocationId, oldUserId, newUserId);
         });
@@ -110,8 +138,9 @@ public class ManagerAssignmentService {
     public void unassignBulk(List<Long> allocationIds) {
         log.info("Bulk unassigning {} allocations", allocationIds.size());
 
+        Tenant tenant = tenantService.current();
         for (Long allocationId : allocationIds) {
-            unassignAllocation(allocationId);
+            unassign(tenant, allocationId);
         }
 
         log.info("Completed bulk unassignment of {} allocations", allocationIds.size());
@@ -131,12 +160,17 @@ public class ManagerAssignmentService {
     public Map<String, Object> getAssignmentSummary() {
         log.info("Fetching assignment summary");
 
-        List<Allocation> allAllocations = allocationRepository.findAll();
-        long totalCount = allAllocations.size();
-        long assignedCount = allAllocations.stream()
-                .filter(a -> a.getFieldExecutiveId() != null)
-                .count();
-        long unassignedCount = totalCount - assignedCount;
+        // Counted in the database rather than by loading every allocation
+        Tenant tenant = tenantService.current();
+        long totalCount = tenant.select(
+                allocationRepository::count,
+                allocationRepository::countByBankId,
+                allocationRepository::countByVendorId);
+        long unassignedCount = tenant.select(
+                allocationRepository::countByFieldExecutiveIdIsNull,
+                allocationRepository::countByBankIdAndFieldExecutiveIdIsNull,
+                allocationRepository::countByVendorIdAndFieldExecutiveIdIsNull);
+        long assignedCount = totalCount - unassignedCount;
         double assignmentPercentage = totalCount > 0 ? (assignedCount * 100.0) / totalCount : 0;
 
         Map<String, Object> summary = new HashMap<>();
@@ -160,7 +194,10 @@ public class ManagerAssignmentService {
      */
     public List<Allocation> getAllocationsByUser(Long userId) {
         log.info("Fetching allocations for user {}", userId);
-        return allocationRepository.findByFieldExecutiveId(userId);
+        return tenantService.current().select(
+                () -> allocationRepository.findByFieldExecutiveId(userId),
+                bankId -> allocationRepository.findByBankIdAndFieldExecutiveId(bankId, userId),
+                vendorId -> allocationRepository.findByVendorIdAndFieldExecutiveId(vendorId, userId));
     }
 
     /**
@@ -170,7 +207,10 @@ public class ManagerAssignmentService {
      */
     public List<Allocation> getUnassignedAllocations() {
         log.info("Fetching unassigned allocations");
-        return allocationRepository.findByFieldExecutiveIdIsNull();
+        return tenantService.current().select(
+                allocationRepository::findByFieldExecutiveIdIsNull,
+                allocationRepository::findByBankIdAndFieldExecutiveIdIsNull,
+                allocationRepository::findByVendorIdAndFieldExecutiveIdIsNull);
     }
 
     /**
@@ -179,7 +219,10 @@ public class ManagerAssignmentService {
      * @return Count of unassigned allocations
      */
     public long getUnassignedCount() {
-        return allocationRepository.countByFieldExecutiveIdIsNull();
+        return tenantService.current().select(
+                allocationRepository::countByFieldExecutiveIdIsNull,
+                allocationRepository::countByBankIdAndFieldExecutiveIdIsNull,
+                allocationRepository::countByVendorIdAndFieldExecutiveIdIsNull);
     }
 
     /**
@@ -189,7 +232,10 @@ public class ManagerAssignmentService {
      * @return Count of allocations assigned to the user
      */
     public long getCountByUser(Long userId) {
-        return allocationRepository.countByFieldExecutiveId(userId);
+        return tenantService.current().select(
+                () -> allocationRepository.countByFieldExecutiveId(userId),
+                bankId -> allocationRepository.countByBankIdAndFieldExecutiveId(bankId, userId),
+                vendorId -> allocationRepository.countByVendorIdAndFieldExecutiveId(vendorId, userId));
     }
 
     /**
@@ -200,6 +246,7 @@ public class ManagerAssignmentService {
      */
     public boolean isAllocated(Long allocationId) {
         return allocationRepository.findById(allocationId)
+                .filter(tenantService.current()::owns)
                 .map(a -> a.getFieldExecutiveId() != null)
                 .orElse(false);
     }
@@ -212,6 +259,7 @@ public class ManagerAssignmentService {
      */
     public Long getAssignedUserId(Long allocationId) {
         return allocationRepository.findById(allocationId)
+                .filter(tenantService.current()::owns)
                 .map(Allocation::getFieldExecutiveId)
                 .orElse(null);
     }
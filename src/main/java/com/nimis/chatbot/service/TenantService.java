@@ -0,0 +1,65 @@
+package com.nimis.chatbot.service;
+
+import com.nimis.chatbot.model.entity.UserEntity;
+import com.nimis.chatbot.repository.UserRepository;
+import com.nimis.chatbot.security.Tenant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Resolves users to the bank and vendor they act for. The principal is a
+ * cached UserEntity whose bank and vendor are detached proxies, so the
+ * user is re-read here inside a transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class TenantService {
+
+    private final UserRepository userRepository;
+
+    /**
+     * The user's bank (their own, else their vendor's) and vendor.
+     * Neither for users outside any bank, such as super admins.
+     */
+    @Transactional(readOnly = true)
+    public Tenant forUser(String email) {
+        if (email == null) {
+            return Tenant.ALL;
+        }
+        return userRepository.findByEmail(email.trim().toLowerCase())
+                .map(TenantService::tenantOf)
+                .orElse(Tenant.ALL);
+    }
+
+    /**
+     * Scope for the authenticated user's reads. Only super admins see
+     * every tenant; anyone else without a bank or vendor sees nothing.
+     */
+    @Transactional(readOnly = true)
+    public Tenant current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new AccessDeniedException("No authenticated user");
+        }
+        if (auth.getAuthorities().stream().anyMatch(a -> "ROLE_SUPER_ADMIN".equals(a.getAuthority()))) {
+            return Tenant.ALL;
+        }
+        Tenant tenant = forUser(auth.getName());
+        if (tenant.isAll()) {
+            throw new AccessDeniedException("No bank or vendor linked to this account");
+        }
+        return tenant;
+    }
+
+    private static Tenant tenantOf(UserEntity user) {
+        Long vendorId = user.getVendor() != null ? user.getVendor().getId() : null;
+        Long bankId = user.getBank() != null ? user.getBank().getId()
+                : user.getVendor() != null && user.getVendor().getBank() != null ? user.getVendor().getBank().getId()
+                : null;
+        return new Tenant(bankId, vendorId);
+    }
+}
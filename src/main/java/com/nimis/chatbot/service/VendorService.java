@@ -11,8 +11,13 @@ import com.nimis.chatbot.model.entity.UserEntity;
 import com.nimis.chatbot.repository.AllocationRepository;
 import com.nimis.chatbot.repository.VisitLogRepository;
 import com.nimis.chatbot.repository.UserRepository;
+import com.nimis.chatbot.repository.projection.AllocationCaseRow;
+import com.nimis.chatbot.repository.projection.AllocationCaseSummary;
+import com.nimis.chatbot.security.Tenant;
+import com.nimis.chatbot.utility.AllocationCaseMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -28,6 +33,9 @@ public class VendorService {
     private final VisitLogRepository visitLogRepository;
     private final AllocationRepository allocationRepository;
     private final UserRepository userRepository;
+    private final TenantService tenantService;
+
+    private static final List<String> OPEN_STATUSES = List.of("ASSIGNED", "VISITED", "PROMISE_TO_PAY");
 
     /**
      * Get dashboard cases (same as FieldExecutive format)
@@ -36,26 +44,15 @@ public class VendorService {
     public List<FieldExecutiveDashboardCaseResponse> getDashboardCases() {
         log.info("Getting dashboard cases for vendor");
 
-        List<Allocation> allocations = allocationRepository.findByStatusIn(
-                List.of("ASSIGNED", "VISITED", "PROMISE_TO_PAY")
+        List<AllocationCaseSummary> cases = tenantService.current().select(
+                () -> allocationRepository.findCaseSummariesByStatusIn(OPEN_STATUSES),
+                bankId -> allocationRepository.findCaseSummariesByBankIdAndStatusIn(bankId, OPEN_STATUSES),
+                vendorId -> allocationRepository.findCaseSummariesByVendorIdAndStatusIn(vendorId, OPEN_STATUSES)
         );
-        log.info("Found cases: {}", allocations.size());
+        log.info("Found cases: {}", cases.size());
 
-        return allocations.stream()
-                .map(a -> {
-                    Map<String, Object> d = a.getAllocationData();
-
-                    return FieldExecutiveDashboardCaseResponse.builder()
-                            .caseId("CASE" + a.getId())
-                            .loanNumber(a.getLoanNumber())
-                            .borrowerName(getString(d, "CUSTOMER NAME"))
-                            .loanAmount(getString(d, "POS Amt"))
-                            .status(a.getStatus())
-                            .phone(getString(d, "phone_1"))
-                            .location(getString(d, "LOCATION"))
-                            .address(getString(d, "address_priority_1"))
-                            .build();
-                })
+        return cases.stream()
+                .map(AllocationCaseMapper::toDashboardCase)
                 .toList();
     }
 
@@ -66,38 +63,14 @@ public class VendorService {
     public List<FieldExecutiveCaseResponse> getMyCases() {
         log.info("Getting my cases for vendor");
 
-        List<Allocation> allocations = allocationRepository.findByStatusIn(
-                List.of("ASSIGNED", "VISITED", "PROMISE_TO_PAY")
+        List<AllocationCaseRow> cases = tenantService.current().select(
+                () -> allocationRepository.findCaseRowsByStatusIn(OPEN_STATUSES),
+                bankId -> allocationRepository.findCaseRowsByBankIdAndStatusIn(bankId, OPEN_STATUSES),
+                vendorId -> allocationRepository.findCaseRowsByVendorIdAndStatusIn(vendorId, OPEN_STATUSES)
         );
 
-        return allocations.stream()
-                .map(a -> {
-                    Map<String, Object> d = a.getAllocationData();
-
-                    return FieldExecutiveCaseResponse.builder()
-                            .segment(getString(d, "SEGMENT"))
-                            .location(getString(d, "LOCATION"))
-                            .loanNumber(a.getLoanNumber())
-                            .customerName(getString(d, "CUSTOMER NAME"))
-                            .posInCr(getDouble(d, "POS (IN CR)"))
-                            .posAmount(getDouble(d, "POS Amt"))
-                            .emi(getInt(d, "EMI"))
-                            .emiOverdue(getInt(d, "Emi Overdue"))
-                            .mobile(getString(d, "phone_1"))
-                            .emiDueCount(getInt(d, "Count Of Emi Due NOV"))
-                            .bktTag(getString(d, "BKT TAG"))
-                            .openingBucket(getString(d, "OPENING BKT"))
-                            .securitization(getString(d, "SECURITIZATION"))
-                            .ashvDaPtc(getString(d, "ASHV DA/PTC"))
-                            .warrant(getString(d, "Warrant"))
-                            .coApplicant1Name(getString(d, "Co_Applicant1_Name"))
-                            .coApplicant1Mobile(getString(d, "Co_Applicant1_Mobile_No"))
-                            .addressPriority1(getString(d, "address_priority_1"))
-                            .addressPriority2(getString(d, "address_priority_2"))
-                            .addressPriority3(getString(d, "address_priority_3"))
-                            .addressPriority4(getString(d, "address_priority_4"))
-                            .build();
-                })
+        return cases.stream()
+                .map(AllocationCaseMapper::toCase)
                 .toList();
     }
 
@@ -119,7 +92,11 @@ public class VendorService {
                 .map(VisitLog::getAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        long totalActiveCases = allocationRepository.countByStatus("ASSIGNED");
+        Tenant tenant = tenantService.current();
+        long totalActiveCases = tenant.select(
+                () -> allocationRepository.countByStatus("ASSIGNED"),
+                bankId -> allocationRepository.countByBankIdAndStatus(bankId, "ASSIGNED"),
+                vendorId -> allocationRepository.countByVendorIdAndStatus(vendorId, "ASSIGNED"));
 
         long assignedCases = totalActiveCases;
         long visitsPendingToday = assignedCases - visitsCompletedToday;
@@ -208,7 +185,12 @@ public class VendorService {
 
         LocalDate today = LocalDate.now();
 
-        List<UserEntity> fieldOfficers = userRepository.findAll().stream()
+        Tenant tenant = tenantService.current();
+        List<UserEntity> fieldOfficers = tenant.select(
+                        userRepository::findAll,
+                        userRepository::findAllByBank_Id,
+                        vendorId -> userRepository.findAllByVendor_IdAndBank_Id(vendorId, tenant.bankId()))
+                .stream()
                 .filter(user -> user.getRoles().stream()
                         .anyMatch(role -> "ROLE_FO".equals(role.getName())))
                 .collect(Collectors.toList());
@@ -245,10 +227,12 @@ public class VendorService {
     public List<AllocationDTO> getRecentAllocations(int limit) {
         log.info("Fetching recent {} ASSIGNED allocations", limit);
 
-        List<Allocation> allocations = allocationRepository.findByStatus("ASSIGNED");
+        Limit top = Limit.of(limit);
+        List<Allocation> allocations = tenantService.current().select(
+                () -> allocationRepository.findByStatusOrderByCreatedAtDesc("ASSIGNED", top),
+                bankId -> allocationRepository.findByBankIdAndStatusOrderByCreatedAtDesc(bankId, "ASSIGNED", top),
+                vendorId -> allocationRepository.findByVendorIdAndStatusOrderByCreatedAtDesc(vendorId, "ASSIGNED", top));
         return allocations.stream()
-                .sorted(Comparator.comparing(Allocation::getCreatedAt).reversed())
-                .limit(limit)
                 .map(this::buildAllocationDTO)
                 .collect(Collectors.toList());
     }
@@ -263,7 +247,10 @@ public class VendorService {
                 ? statuses
                 : List.of("ASSIGNED");
 
-        List<Allocation> allocations = allocationRepository.findByStatusIn(statusFilter);
+        List<Allocation> allocations = tenantService.current().select(
+                () -> allocationRepository.findByStatusIn(statusFilter),
+                bankId -> allocationRepository.findByBankIdAndStatusIn(bankId, statusFilter),
+                vendorId -> allocationRepository.findByVendorIdAndStatusIn(vendorId, statusFilter));
         return allocations.stream()
                 .map(this::buildAllocationDTO)
                 .collect(Collectors.toList());
@@ -344,7 +331,9 @@ public class VendorService {
             throw new IllegalArgumentException("loanNumber is required");
         }
 
-        Allocation allocation = allocationRepository.findByLoanNumber(loanNumber)
+        Tenant tenant = tenantService.current();
+        Allocation allocation = allocationRepository.findWithPayloadByLoanNumber(loanNumber)
+                .filter(tenant::owns)
                 .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
 
         Map<String, Object> data = allocation.getAllocationData();
@@ -376,25 +365,6 @@ public class VendorService {
 
     // ========== Helper Methods ==========
 
-    private String getString(Map<String, Object> map, String key) {
-        Object v = map.get(key);
-        return v == null ? null : v.toString();
-    }
-
-    private Integer getInt(Map<String, Object> map, String key) {
-        Object v = map.get(key);
-        if (v instanceof Number n) return n.intValue();
-        try { return v == null ? null : Integer.parseInt(v.toString()); }
-        catch (Exception e) { return null; }
-    }
-
-    private Double getDouble(Map<String, Object> map, String key) {
-        Object v = map.get(key);
-        if (v instanceof Number n) return n.doubleValue();
-        try { return v == null ? null : Double.parseDouble(v.toString()); }
-        catch (Exception e) { return null; }
-    }
-
     private FieldOfficerDTO buildFieldOfficerDTOWithUserDetails(
             UserEntity user,
             List<Allocation> userAllocations,
@@ -3,6 +3,7 @@ package com.nimis.chatbot.service;
 import com.nimis.chatbot.dto.request.VisitLogRequestDTO;
 import com.nimis.chatbot.dto.response.VisitLogResponseDTO;
 import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.model.entity.AllocationView;
 import com.nimis.chatbot.model.entity.VisitLog;
 import com.nimis.chatbot.repository.VisitLogRepository;
 import com.nimis.chatbot.utility.VisitLogMapper;
@@ -20,7 +21,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -71,32 +71,24 @@ public class VisitLogService {
                 } else {
                     log.info("Allocation found, ID: {}", allocation.getId());
 
-                    Map<String, Object> data = allocation.getAllocationData();
+                    // Keys were canonicalized at upload, so each field is one lookup
+                    AllocationView data = AllocationView.of(allocation);
 
-                    if (data == null) {
-                        log.error("AllocationData is NULL");
-                    } else {
-                        log.info("AllocationData keys: {}", data.keySet());
+                    resolvedAllocationId = allocation.getId();
+                    loanNumber = allocation.getLoanNumber();
 
-                        resolvedAllocationId = allocation.getId();
-                        loanNumber = allocation.getLoanNumber();
+                    segment = data.getSegment();
+                    product = data.getProduct();
+                    state = data.getState();
+                    branch = data.getBranch();
+                    location = data.getLocation();
+                    customerName = data.getCustomerName();
+                    bkt = data.getOpeningBucket();
+                    posInCr = data.getPosInCr();
+                    emi = data.getEmi();
 
-                        // Case-insensitive key matching
-                        segment = getValueByKeyIgnoreCase(data, "SEGMENT");
-                        product = getValueByKeyIgnoreCase(data, "PRODUCT");
-                        state = getValueByKeyIgnoreCase(data, "STATE");
-                        branch = getValueByKeyIgnoreCase(data, "BRANCH");
-                        location = getValueByKeyIgnoreCase(data, "LOCATION");
-                        customerName = getValueByKeyIgnoreCase(data, "CUSTOMER NAME");
-                        bkt = getValueByKeyIgnoreCase(data, "OPENING BKT");
-
-                        log.info("Extracted - segment: {}, product: {}, state: {}, branch: {}", segment, product, state, branch);
-
-                        posInCr = getBigDecimalByKeyIgnoreCase(data, "POS", "POS (IN CR)", "POS_IN_CR");
-                        emi = getBigDecimalByKeyIgnoreCase(data, "EMI");
-
-                        log.info("Extracted - posInCr: {}, emi: {}", posInCr, emi);
-                    }
+                    log.info("Extracted - segment: {}, product: {}, state: {}, branch: {}, posInCr: {}, emi: {}",
+                            segment, product, state, branch, posInCr, emi);
                 }
             } catch (Exception e) {
                 log.error("ERROR: Could not fetch allocation for loan {}: {}", request.getLoanNumber(), e.getMessage());
@@ -154,94 +146,6 @@ public class VisitLogService {
         return VisitLogMapper.toResponse(saved);
     }
 
-    /**
-     * Case-insensitive key lookup for String values
-     */
-    private String getValueByKeyIgnoreCase(Map<String, Object> data, String... possibleKeys) {
-        if (data == null) return null;
-
-        for (String key : possibleKeys) {
-            // Try exact match first
-            if (data.containsKey(key)) {
-                Object value = data.get(key);
-                if (value != null) {
-                    String result = value.toString().trim();
-                    return result.isEmpty() ? null : result;
-                }
-            }
-
-            // Try case-insensitive match
-            for (Map.Entry<String, Object> entry : data.entrySet()) {
-                if (entry.getKey().equalsIgnoreCase(key)) {
-                    Object value = entry.getValue();
-                    if (value != null) {
-                        String result = value.toString().trim();
-                        return result.isEmpty() ? null : result;
-                    }
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Case-insensitive BigDecimal lookup with multiple key variants
-     */
-    private BigDecimal getBigDecimalByKeyIgnoreCase(Map<String, Object> data, String... possibleKeys) {
-        if (data == null) return null;
-
-        for (String key : possibleKeys) {
-            // Try exact match first
-            if (data.containsKey(key)) {
-                Object value = data.get(key);
-                return convertToBigDecimal(value, key);
-            }
-
-            // Try case-insensitive match
-            for (Map.Entry<String, Object> entry : data.entrySet()) {
-                if (entry.getKey().equalsIgnoreCase(key)) {
-                    return convertToBigDecimal(entry.getValue(), key);
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Convert any value to BigDecimal safely
-     */
-    private BigDecimal convertToBigDecimal(Object value, String key) {
-        if (value == null) {
-            return null;
-        }
-        try {
-            if (value instanceof BigDecimal) {
-                return (BigDecimal) value;
-            }
-            if (value instanceof Integer) {
-                return new BigDecimal((Integer) value);
-            }
-            if (value instanceof Long) {
-                return new BigDecimal((Long) value);
-            }
-            if (value instanceof Double) {
-                return new BigDecimal((Double) value);
-            }
-            if (value instanceof Float) {
-                return new BigDecimal((Float) value);
-            }
-            String strValue = value.toString().trim();
-            if (strValue.isEmpty()) {
-                return null;
-            }
-            return new BigDecimal(strValue);
-        } catch (Exception e) {
-            log.warn("Could not convert '{}' (value: {}) to BigDecimal: {}",
-                    key, value, e.getMessage());
-            return null;
-        }
-    }
-
     public List<VisitLogResponseDTO> getByAllocationId(Long allocationId) {
         log.info("Fetching visit logs for allocationId: {}", allocationId);
         return visitLogRepository.findByAllocationId(allocationId)
@@ -250,16 +154,6 @@ public class VisitLogService {
                 .collect(Collectors.toList());
     }
 
-    public List<VisitLogResponseDTO> getAll() {
-        log.info("Fetching all visit logs");
-        List<VisitLogResponseDTO> result = visitLogRepository.findAll()
-                .stream()
-                .map(VisitLogMapper::toResponse)
-                .collect(Collectors.toList());
-        log.info("Found {} visit logs", result.size());
-        return result;
-    }
-
     private String saveVisitImage(MultipartFile image, Long allocationId) {
         try {
             String baseDir = System.getProperty("user.dir") + "/uploads/visit";
@@ -0,0 +1,273 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+import com.nimis.chatbot.security.Tenant;
+import com.nimis.chatbot.service.ingestion.AllocationContentEncoder.Content;
+import com.nimis.chatbot.service.ingestion.AllocationIngestionMetrics.Phase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Writes allocation rows to loan_allocation in set-based chunks.
+ *
+ * Each chunk costs two round-trips: one lookup of the content hashes of
+ * the loan numbers that already exist and one JDBC batch of INSERT ...
+ * ON CONFLICT upserts, committed in its own transaction. The upsert also
+ * refreshes the {@link AllocationHotColumns}. Rows whose hash
+ * matches the stored one are counted as unchanged and not written at all,
+ * so re-sending the same file does not rewrite JSONB or bump updated_at.
+ * Rows that were written are projected into the normalized tables and
+ * logged to the {@link AllocationChangeLog} in the same transaction.
+ *
+ * Rows are stamped with the uploading tenant. A loan number another bank
+ * already owns is rejected rather than overwritten; unowned rows from
+ * before tenancy are claimed by the first bank that re-uploads them, and
+ * a vendor re-uploading its bank's rows takes them over even when the
+ * content is unchanged.
+ *
+ * If the batch fails, the chunk is retried row by row so one bad row does
+ * not take the rest of the chunk down with it.
+ */
+@Slf4j
+@Component
+public class AllocationBatchWriter {
+
+    // Shared with AllocationCopyWriter's merge. The bank is kept once set;
+    // the vendor follows the latest vendor upload within that bank.
+    static final String OWNER_ASSIGNMENTS = """
+            bank_id = coalesce(loan_allocation.bank_id, EXCLUDED.bank_id),
+                vendor_id = coalesce(EXCLUDED.vendor_id, loan_allocation.vendor_id)""";
+
+    // Never another bank's row; otherwise only when the content changed or
+    // an unowned row is being claimed, by the bank or by one of its vendors
+    static final String UPSERT_CONDITION = """
+            (loan_allocation.bank_id IS NULL OR EXCLUDED.bank_id IS NULL OR loan_allocation.bank_id = EXCLUDED.bank_id)
+              AND (loan_allocation.content_hash IS DISTINCT FROM EXCLUDED.content_hash
+                   OR loan_allocation.bank_id IS NULL AND EXCLUDED.bank_id IS NOT NULL
+                   OR EXCLUDED.vendor_id IS NOT NULL AND loan_allocation.vendor_id IS DISTINCT FROM EXCLUDED.vendor_id)""";
+
+    private static final String EXISTING_SQL =
+            "SELECT loan_number, content_hash, bank_id, vendor_id FROM loan_allocation WHERE loan_number = ANY(?)";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO loan_allocation (loan_number, allocation_data, content_hash, %s, bank_id, vendor_id, status, visit_count, created_at, updated_at)
+            SELECT v.loan_number, v.data, v.hash, %s, v.bank_id, v.vendor_id, 'UNASSIGNED', 0, v.created_at, v.updated_at
+            FROM (VALUES (?, ?::jsonb, ?, ?::bigint, ?::bigint, ?::timestamp, ?::timestamp))
+                 AS v (loan_number, data, hash, bank_id, vendor_id, created_at, updated_at)
+            ON CONFLICT (loan_number) DO UPDATE
+            SET allocation_data = EXCLUDED.allocation_data,
+                content_hash = EXCLUDED.content_hash,
+                %s,
+                %s,
+                updated_at = EXCLUDED.updated_at
+            WHERE %s
+            """.formatted(AllocationHotColumns.columns(),
+                          AllocationHotColumns.select("v.data"),
+                          AllocationHotColumns.excludedAssignments(),
+                          OWNER_ASSIGNMENTS, UPSERT_CONDITION);
+
+    static final String FOREIGN_LOAN = "Loan number belongs to another bank";
+
+    private static final int LOGGED_FAILURES = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AllocationContentEncoder encoder;
+    private final AllocationProjectionWriter projectionWriter;
+    private final AllocationChangeLog changeLog;
+    private final AllocationIngestionMetrics metrics;
+
+    public AllocationBatchWriter(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 AllocationContentEncoder encoder,
+                                 AllocationProjectionWriter projectionWriter,
+                                 AllocationChangeLog changeLog,
+                                 AllocationIngestionMetrics metrics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.encoder = encoder;
+        this.projectionWriter = projectionWriter;
+        this.changeLog = changeLog;
+        this.metrics = metrics;
+    }
+
+    /**
+     * This writer with every row stamped as owned by the given tenant.
+     */
+    public AllocationChunkWriter ownedBy(Tenant owner) {
+        return (result, rows, listener) -> write(owner, result, rows, listener);
+    }
+
+    /**
+     * Upsert one chunk and fill in its counts. Loan numbers must already be
+     * unique within the chunk. An empty chunk still commits, so the listener
+     * can record a checkpoint for rows that were only skipped.
+     */
+    public AllocationChunkResult write(Tenant owner,
+                                       AllocationChunkResult result,
+                                       Collection<AllocationRow> rows,
+                                       AllocationIngestionListener listener) {
+        List<AllocationRow> chunk = new ArrayList<>(rows);
+        result.setRows(chunk.size());
+
+        try {
+            metrics.inTransaction(transactionTemplate, status -> {
+                if (!chunk.isEmpty()) {
+                    List<Content> contents = metrics.time(Phase.CONVERT,
+                            () -> chunk.stream().map(encoder::encode).toList());
+                    Map<String, Stored> existing = metrics.time(Phase.LOOKUP, () -> findExisting(contents));
+                    List<Content> changed = new ArrayList<>(contents.size());
+                    List<String> inserted = new ArrayList<>();
+                    List<String> updated = new ArrayList<>();
+                    List<AllocationRow> foreign = new ArrayList<>();
+                    for (Content content : contents) {
+                        String loanNumber = content.row().loanNumber();
+                        switch (classify(owner, content, existing.get(loanNumber))) {
+                            case INSERT -> {
+                                inserted.add(loanNumber);
+                                changed.add(content);
+                            }
+                            case UPDATE -> {
+                                updated.add(loanNumber);
+                                changed.add(content);
+                            }
+                            case UNCHANGED -> result.setUnchanged(result.getUnchanged() + 1);
+                            case FOREIGN -> foreign.add(content.row());
+                        }
+                    }
+                    result.setInserted(result.getInserted() + inserted.size());
+                    result.setUpdated(result.getUpdated() + updated.size());
+                    metrics.time(Phase.WRITE, () -> {
+                        upsert(owner, changed);
+                        changeLog.recordUpserts(inserted, updated);
+                    });
+                    // Reported last, so a batch that fails and is retried row by row does not report them twice
+                    for (AllocationRow row : foreign) {
+                        result.setFailed(result.getFailed() + 1);
+                        listener.onRowRejected(row.rowNumber(), row.loanNumber(), FOREIGN_LOAN);
+                    }
+                }
+                listener.onChunkCommitted(result);
+            });
+        } catch (Exception e) {
+            log.warn("Chunk {} failed as a batch ({}), retrying row by row", result.getChunk(), e.getMessage());
+            result.setInserted(0);
+            result.setUpdated(0);
+            result.setUnchanged(0);
+            result.setFailed(0);
+            writeRowByRow(owner, chunk, result, listener);
+            transactionTemplate.executeWithoutResult(status -> listener.onChunkCommitted(result));
+        }
+
+        return result;
+    }
+
+    private void writeRowByRow(Tenant owner,
+                               List<AllocationRow> chunk,
+                               AllocationChunkResult result,
+                               AllocationIngestionListener listener) {
+        long start = System.nanoTime();
+        for (AllocationRow row : chunk) {
+            try {
+                Content content = encoder.encode(row);
+                Outcome outcome = transactionTemplate.execute(status -> {
+                    Outcome o = classify(owner, content, findExisting(List.of(content)).get(row.loanNumber()));
+                    if (o == Outcome.INSERT || o == Outcome.UPDATE) {
+                        upsert(owner, List.of(content));
+                        changeLog.recordUpserts(
+                                o == Outcome.INSERT ? List.of(row.loanNumber()) : List.of(),
+                                o == Outcome.UPDATE ? List.of(row.loanNumber()) : List.of());
+                    }
+                    return o;
+                });
+                switch (outcome) {
+                    case INSERT -> result.setInserted(result.getInserted() + 1);
+                    case UPDATE -> result.setUpdated(result.getUpdated() + 1);
+                    case UNCHANGED -> result.setUnchanged(result.getUnchanged() + 1);
+                    case FOREIGN -> {
+                        result.setFailed(result.getFailed() + 1);
+                        listener.onRowRejected(row.rowNumber(), row.loanNumber(), FOREIGN_LOAN);
+                    }
+                }
+            } catch (Exception e) {
+                result.setFailed(result.getFailed() + 1);
+                if (result.getFailed() <= LOGGED_FAILURES) {
+                    log.error("Failed to save allocation {} (row {}): {}",
+                            row.loanNumber(), row.rowNumber(), e.getMessage());
+                }
+                listener.onRowRejected(row.rowNumber(), row.loanNumber(), "Save failed: " + rootMessage(e));
+            }
+        }
+        metrics.record(Phase.WRITE, System.nanoTime() - start);
+        if (result.getFailed() > LOGGED_FAILURES) {
+            log.error("Chunk {}: {} rows failed to save (first {} logged, all in the job report)",
+                    result.getChunk(), result.getFailed(), LOGGED_FAILURES);
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    enum Outcome { INSERT, UPDATE, UNCHANGED, FOREIGN }
+
+    /**
+     * Content hash (null for rows written before hashing), owning bank and vendor of a stored row.
+     */
+    record Stored(String hash, Long bankId, Long vendorId) { }
+
+    static Outcome classify(Tenant owner, Content content, Stored stored) {
+        if (stored == null) {
+            return Outcome.INSERT;
+        }
+        if (stored.bankId() != null && owner.bankId() != null && !stored.bankId().equals(owner.bankId())) {
+            return Outcome.FOREIGN;
+        }
+        boolean claim = stored.bankId() == null && owner.bankId() != null
+                || owner.vendorId() != null && !owner.vendorId().equals(stored.vendorId());
+        return !claim && content.hash().equals(stored.hash()) ? Outcome.UNCHANGED : Outcome.UPDATE;
+    }
+
+    private Map<String, Stored> findExisting(List<Content> contents) {
+        String[] loanNumbers = contents.stream().map(c -> c.row().loanNumber()).toArray(String[]::new);
+        Map<String, Stored> found = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXISTING_SQL);
+            Array array = con.createArrayOf("varchar", loanNumbers);
+            ps.setArray(1, array);
+            return ps;
+        }, rs -> {
+            found.put(rs.getString(1), new Stored(rs.getString(2), rs.getObject(3, Long.class), rs.getObject(4, Long.class)));
+        });
+        return found;
+    }
+
+    private void upsert(Tenant owner, List<Content> contents) {
+        if (contents.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, contents, contents.size(), (ps, content) -> {
+            ps.setString(1, content.row().loanNumber());
+            ps.setString(2, content.json());
+            ps.setString(3, content.hash());
+            ps.setObject(4, owner.bankId(), Types.BIGINT);
+            ps.setObject(5, owner.vendorId(), Types.BIGINT);
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+        projectionWriter.project(contents.stream().map(Content::row).toList());
+    }
+}
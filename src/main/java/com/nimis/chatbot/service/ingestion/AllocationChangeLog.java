@@ -0,0 +1,119 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.model.enums.AllocationChangeType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Appends to allocation_change inside the caller's transaction, so an
+ * entry exists exactly when the allocation change it describes commits.
+ *
+ * Writers take a transaction-scoped advisory lock before appending. That
+ * makes seq order match commit order: a reader that has seen seq N can
+ * never later find a smaller seq commit, so "everything after N" is a
+ * safe cursor. Only the tail of each writing transaction is serialized,
+ * the upsert work before it still runs in parallel.
+ */
+@Component
+public class AllocationChangeLog {
+
+    // Arbitrary, just has to be unique among the application's advisory locks
+    private static final long LOCK_KEY = 0x616c6c6f63L;
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+
+    private static final String UPSERTS_SQL = """
+            INSERT INTO allocation_change (allocation_id, loan_number, change_type, status, field_executive_id,
+                                           bank_id, vendor_id, changed_at)
+            SELECT a.id, a.loan_number,
+                   CASE WHEN a.loan_number = ANY(?) THEN 'CREATED' ELSE 'UPDATED' END,
+                   a.status, a.field_executive_id, a.bank_id, a.vendor_id, now()
+            FROM loan_allocation a
+            WHERE a.loan_number = ANY(?)
+            ORDER BY a.id
+            """;
+
+    private static final String CHANGES_SQL = """
+            INSERT INTO allocation_change (allocation_id, loan_number, change_type, status, field_executive_id,
+                                           bank_id, vendor_id, changed_at)
+            SELECT v.id, v.loan_number, ?, v.status, v.field_executive_id, v.bank_id, v.vendor_id, now()
+            FROM unnest(?::bigint[], ?::varchar[], ?::varchar[], ?::bigint[], ?::bigint[], ?::bigint[])
+                 AS v (id, loan_number, status, field_executive_id, bank_id, vendor_id)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AllocationChangeLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Log rows an upload chunk just inserted or updated, by loan number.
+     */
+    public void recordUpserts(Collection<String> inserted, Collection<String> updated) {
+        if (inserted.isEmpty() && updated.isEmpty()) return;
+        lock();
+        String[] created = inserted.toArray(String[]::new);
+        String[] all = new String[created.length + updated.size()];
+        System.arraycopy(created, 0, all, 0, created.length);
+        int i = created.length;
+        for (String loanNumber : updated) {
+            all[i++] = loanNumber;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERTS_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", created));
+            ps.setArray(2, con.createArrayOf("varchar", all));
+            return ps;
+        });
+    }
+
+    /**
+     * Log a change made through JPA. Takes the values from the entities,
+     * so it does not matter whether they have been flushed yet.
+     */
+    public void record(Collection<Allocation> allocations, AllocationChangeType type) {
+        append(allocations, type, Allocation::getFieldExecutiveId);
+    }
+
+    /**
+     * Log allocations taken off a field executive under that field
+     * executive, so a consumer following them sees the cases leave.
+     */
+    public void recordUnassigned(Collection<Allocation> allocations, Long fieldExecutiveId) {
+        append(allocations, AllocationChangeType.UNASSIGNED, a -> fieldExecutiveId);
+    }
+
+    private void append(Collection<Allocation> allocations, AllocationChangeType type,
+                        Function<Allocation, Long> fieldExecutive) {
+        if (allocations.isEmpty()) return;
+        lock();
+        Long[] ids = allocations.stream().map(Allocation::getId).toArray(Long[]::new);
+        String[] loanNumbers = allocations.stream().map(Allocation::getLoanNumber).toArray(String[]::new);
+        String[] statuses = allocations.stream().map(Allocation::getStatus).toArray(String[]::new);
+        Long[] fieldExecutives = allocations.stream().map(fieldExecutive).toArray(Long[]::new);
+        Long[] banks = allocations.stream().map(Allocation::getBankId).toArray(Long[]::new);
+        Long[] vendors = allocations.stream().map(Allocation::getVendorId).toArray(Long[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(CHANGES_SQL);
+            ps.setString(1, type.name());
+            ps.setArray(2, con.createArrayOf("bigint", ids));
+            ps.setArray(3, con.createArrayOf("varchar", loanNumbers));
+            ps.setArray(4, con.createArrayOf("varchar", statuses));
+            ps.setArray(5, con.createArrayOf("bigint", fieldExecutives));
+            ps.setArray(6, con.createArrayOf("bigint", banks));
+            ps.setArray(7, con.createArrayOf("bigint", vendors));
+            return ps;
+        });
+    }
+
+    private void lock() {
+        jdbcTemplate.query(LOCK_SQL, (RowCallbackHandler) rs -> { }, LOCK_KEY);
+    }
+}
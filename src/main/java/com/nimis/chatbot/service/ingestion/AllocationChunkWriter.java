@@ -0,0 +1,18 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+
+import java.util.Collection;
+
+/**
+ * Final stage of the ingestion pipeline: takes one chunk of rows with
+ * unique loan numbers, fills in its counts and calls
+ * {@link AllocationIngestionListener#onChunkCommitted} once it is done.
+ * Called concurrently from the pipeline's lanes.
+ */
+public interface AllocationChunkWriter {
+
+    AllocationChunkResult write(AllocationChunkResult result,
+                                Collection<AllocationRow> rows,
+                                AllocationIngestionListener listener);
+}
@@ -0,0 +1,279 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.model.enums.ColumnType;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Column types for one upload, compiled once from a sample of its rows.
+ *
+ * Every value is then normalized in place to its column's type, so the
+ * same key always holds the same JSON type: whole numbers become Long,
+ * other numbers Double, dates ISO LocalDate, and text columns get numbers
+ * in plain notation (9876543210, not 9.87654321E9). Strings are classified
+ * by scanning their characters; nothing here throws per cell or uses regex.
+ *
+ * A value that does not fit its column is left as read, and the column is
+ * saved widened just enough to hold it: INTEGER to DECIMAL for a fractional
+ * number, TEXT only for values of another kind.
+ */
+public class AllocationColumnSchema {
+
+    // Longest digit run treated as a number; longer ones are identifiers
+    private static final int MAX_DIGITS = 15;
+
+    private final Map<String, Integer> index;
+    private final String[] names;
+    private final ColumnType[] types;
+    private final AtomicIntegerArray mismatches;
+    // Widest type among each column's misfits, null while they all fit
+    private final AtomicReferenceArray<ColumnType> misfitTypes;
+
+    private AllocationColumnSchema(Map<String, ColumnType> columns) {
+        this.names = new String[columns.size()];
+        this.types = new ColumnType[columns.size()];
+        this.index = new HashMap<>(columns.size() * 2);
+        int i = 0;
+        for (Map.Entry<String, ColumnType> column : columns.entrySet()) {
+            names[i] = column.getKey();
+            types[i] = column.getValue();
+            index.put(column.getKey(), i++);
+        }
+        this.mismatches = new AtomicIntegerArray(names.length);
+        this.misfitTypes = new AtomicReferenceArray<>(names.length);
+    }
+
+    /**
+     * Infer a type for every key seen in the sample. Known types (from
+     * earlier uploads) are widened with what the sample shows, so a key
+     * keeps one type across files.
+     */
+    public static AllocationColumnSchema infer(List<Map<String, Object>> sample, Map<String, ColumnType> known) {
+        Map<String, ColumnType> columns = new LinkedHashMap<>();
+        for (Map<String, Object> row : sample) {
+            for (Map.Entry<String, Object> cell : row.entrySet()) {
+                ColumnType type = classify(cell.getValue());
+                if (type != null) {
+                    columns.merge(cell.getKey(), type, ColumnType::widen);
+                } else {
+                    columns.putIfAbsent(cell.getKey(), null);
+                }
+            }
+        }
+        columns.replaceAll((name, type) -> {
+            ColumnType previous = known.get(name);
+            if (type == null) return previous != null ? previous : ColumnType.TEXT;
+            return type.widen(previous);
+        });
+        return new AllocationColumnSchema(columns);
+    }
+
+    /**
+     * Convert the row's values to their column types, reusing the map.
+     * Keys outside the schema are normalized as TEXT.
+     *
+     * @return the first column whose value did not fit, or null
+     */
+    public String normalize(Map<String, Object> row) {
+        String misfit = null;
+        for (Map.Entry<String, Object> cell : row.entrySet()) {
+            Object value = cell.getValue();
+            if (value == null) continue;
+
+            Integer column = index.get(cell.getKey());
+            ColumnType type = column != null ? types[column] : ColumnType.TEXT;
+            Object converted = convert(value, type);
+            if (converted == null) {
+                if (column != null) {
+                    mismatches.incrementAndGet(column);
+                    ColumnType actual = classify(value);
+                    if (actual != null) {
+                        misfitTypes.accumulateAndGet(column, actual, (seen, next) -> next.widen(seen));
+                    }
+                }
+                if (misfit == null) misfit = cell.getKey();
+                continue;
+            }
+            if (converted != value) {
+                cell.setValue(converted);
+            }
+        }
+        return misfit;
+    }
+
+    /**
+     * Types as they should be persisted: columns with values that did not
+     * fit are widened to the narrowest type that also holds those values.
+     */
+    public Map<String, ColumnType> columnTypes() {
+        Map<String, ColumnType> result = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            result.put(names[i], types[i].widen(misfitTypes.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Column names in file order.
+     */
+    public List<String> columnNames() {
+        return List.of(names);
+    }
+
+    /**
+     * Values seen so far that did not fit the column's type.
+     */
+    public int mismatchCount(String name) {
+        Integer column = index.get(name);
+        return column != null ? mismatches.get(column) : 0;
+    }
+
+    public ColumnType typeOf(String name) {
+        Integer column = index.get(name);
+        return column != null ? types[column] : null;
+    }
+
+    /**
+     * Narrowest type for a single value, or null for blanks.
+     */
+    static ColumnType classify(Object value) {
+        if (value == null) return null;
+        if (value instanceof Boolean) return ColumnType.BOOLEAN;
+        if (value instanceof LocalDate) return ColumnType.DATE;
+        if (value instanceof Number n) {
+            double d = n.doubleValue();
+            return isWhole(d) ? ColumnType.INTEGER : ColumnType.DECIMAL;
+        }
+
+        String s = value.toString();
+        if (s.isEmpty()) return null;
+        if (isInteger(s)) return ColumnType.INTEGER;
+        if (isDecimal(s)) return ColumnType.DECIMAL;
+        if (parseDate(s) != null) return ColumnType.DATE;
+        if (s.equalsIgnoreCase("true") || s.equalsIgnoreCase("false")) return ColumnType.BOOLEAN;
+        return ColumnType.TEXT;
+    }
+
+    /**
+     * The value as the given type; the same instance when it already is,
+     * null when it does not fit.
+     */
+    static Object convert(Object value, ColumnType type) {
+        switch (type) {
+            case INTEGER -> {
+                if (value instanceof Long) return value;
+                if (value instanceof Number n) {
+                    double d = n.doubleValue();
+                    return isWhole(d) ? (Object) (long) d : null;
+                }
+                String s = value.toString();
+                return isInteger(s) ? (Object) Long.parseLong(s) : null;
+            }
+            case DECIMAL -> {
+                if (value instanceof Double) return value;
+                if (value instanceof Number n) return n.doubleValue();
+                String s = value.toString();
+                return isInteger(s) || isDecimal(s) ? (Object) Double.parseDouble(s) : null;
+            }
+            case DATE -> {
+                if (value instanceof LocalDate) return value;
+                return value instanceof String s ? parseDate(s) : null;
+            }
+            case BOOLEAN -> {
+                if (value instanceof Boolean) return value;
+                String s = value.toString();
+                if (s.equalsIgnoreCase("true")) return Boolean.TRUE;
+                if (s.equalsIgnoreCase("false")) return Boolean.FALSE;
+                return null;
+            }
+            default -> {
+                if (value instanceof String) return value;
+                if (value instanceof Number n) return plain(n);
+                return value.toString();
+            }
+        }
+    }
+
+    private static boolean isWhole(double d) {
+        return d == Math.rint(d) && Math.abs(d) < 1e15;
+    }
+
+    private static String plain(Number n) {
+        double d = n.doubleValue();
+        if (isWhole(d)) return Long.toString((long) d);
+        return BigDecimal.valueOf(d).toPlainString();
+    }
+
+    /**
+     * Optional minus, then digits with no leading zero (leading zeros mark
+     * codes such as pincodes or account numbers, which stay text).
+     */
+    private static boolean isInteger(String s) {
+        if (s.isEmpty()) return false;
+        int start = s.charAt(0) == '-' ? 1 : 0;
+        int digits = s.length() - start;
+        if (digits == 0 || digits > MAX_DIGITS) return false;
+        if (s.charAt(start) == '0' && digits > 1) return false;
+        for (int i = start; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Optional minus, digits, one point, digits; no exponent.
+     */
+    private static boolean isDecimal(String s) {
+        if (s.isEmpty()) return false;
+        int start = s.charAt(0) == '-' ? 1 : 0;
+        int point = -1;
+        for (int i = start; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                if (point >= 0) return false;
+                point = i;
+            } else if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        int length = s.length() - start;
+        if (point < 0 || length < 2 || length > MAX_DIGITS + 2) return false;
+        // "0.5" and "12.5" but not "012.5"
+        return !(s.charAt(start) == '0' && point > start + 1);
+    }
+
+    /**
+     * yyyy-MM-dd, dd-MM-yyyy or dd/MM/yyyy.
+     */
+    static LocalDate parseDate(String s) {
+        if (s.length() != 10) return null;
+        try {
+            if (s.charAt(4) == '-' && s.charAt(7) == '-') {
+                return LocalDate.of(digits(s, 0, 4), digits(s, 5, 7), digits(s, 8, 10));
+            }
+            char sep = s.charAt(2);
+            if ((sep == '-' || sep == '/') && s.charAt(5) == sep) {
+                return LocalDate.of(digits(s, 6, 10), digits(s, 3, 5), digits(s, 0, 2));
+            }
+        } catch (DateTimeException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') throw new DateTimeException(s);
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
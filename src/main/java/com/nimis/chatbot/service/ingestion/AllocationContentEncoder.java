@@ -0,0 +1,42 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Serializes a row's allocation_data the way every writer stores it:
+ * canonical JSON with keys sorted, plus the SHA-256 used to detect
+ * unchanged rows on re-upload.
+ */
+@Component
+public class AllocationContentEncoder {
+
+    private final ObjectWriter canonicalWriter;
+
+    public AllocationContentEncoder(ObjectMapper objectMapper) {
+        this.canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    public Content encode(AllocationRow row) {
+        try {
+            String json = canonicalWriter.writeValueAsString(row.data());
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return new Content(row, json, HexFormat.of().formatHex(digest));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Row data is not serializable: " + e.getMessage(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Content(AllocationRow row, String json, String hash) {
+    }
+}
@@ -0,0 +1,232 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+import com.nimis.chatbot.security.Tenant;
+import com.nimis.chatbot.service.ingestion.AllocationContentEncoder.Content;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk-load writer built on PostgreSQL COPY.
+ *
+ * Each chunk is streamed through the pgJDBC CopyManager into the unlogged
+ * allocation_staging table (see V2 migration) under its own batch id, merged into
+ * loan_allocation with a single INSERT ... SELECT ... ON CONFLICT, and
+ * removed from staging, all in one transaction. The merge's RETURNING
+ * clause tells inserts (xmax = 0) from updates; rows whose content hash
+ * matched are neither and count as unchanged. Inserted and updated rows
+ * are then projected into the normalized tables and logged to the
+ * {@link AllocationChangeLog}.
+ *
+ * Ownership works as in {@link AllocationBatchWriter}: the merge leaves
+ * other banks' rows alone, and only when some rows were not written is
+ * a second lookup made to tell those apart from unchanged ones.
+ *
+ * If a chunk fails here it is handed to {@link AllocationBatchWriter},
+ * which isolates the bad rows.
+ */
+@Slf4j
+@Component
+public class AllocationCopyWriter {
+
+    private static final String COPY_SQL =
+            "COPY allocation_staging (batch_id, loan_number, allocation_data, content_hash) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_SQL = """
+            WITH merged AS (
+                INSERT INTO loan_allocation (loan_number, allocation_data, content_hash, %s, bank_id, vendor_id, status, visit_count, created_at, updated_at)
+                SELECT loan_number, allocation_data, content_hash, %s, ?::bigint, ?::bigint, 'UNASSIGNED', 0, ?, ?
+                FROM allocation_staging
+                WHERE batch_id = ?
+                ON CONFLICT (loan_number) DO UPDATE
+                SET allocation_data = EXCLUDED.allocation_data,
+                    content_hash = EXCLUDED.content_hash,
+                    %s,
+                    %s,
+                    updated_at = EXCLUDED.updated_at
+                WHERE %s
+                RETURNING id, loan_number, (xmax = 0) AS inserted
+            )
+            SELECT id, loan_number, inserted FROM merged
+            """.formatted(AllocationHotColumns.columns(),
+                          AllocationHotColumns.select("allocation_data"),
+                          AllocationHotColumns.excludedAssignments(),
+                          AllocationBatchWriter.OWNER_ASSIGNMENTS, AllocationBatchWriter.UPSERT_CONDITION);
+
+    private static final String FOREIGN_SQL =
+            "SELECT loan_number FROM loan_allocation WHERE loan_number = ANY(?) AND bank_id <> ?";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AllocationContentEncoder encoder;
+    private final AllocationBatchWriter fallback;
+    private final AllocationProjectionWriter projectionWriter;
+    private final AllocationChangeLog changeLog;
+    private final AllocationIngestionMetrics metrics;
+
+    public AllocationCopyWriter(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                AllocationContentEncoder encoder,
+                                AllocationBatchWriter fallback,
+                                AllocationProjectionWriter projectionWriter,
+                                AllocationChangeLog changeLog,
+                                AllocationIngestionMetrics metrics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.encoder = encoder;
+        this.fallback = fallback;
+        this.projectionWriter = projectionWriter;
+        this.changeLog = changeLog;
+        this.metrics = metrics;
+    }
+
+    /**
+     * This writer with every row stamped as owned by the given tenant.
+     */
+    public AllocationChunkWriter ownedBy(Tenant owner) {
+        return (result, rows, listener) -> write(owner, result, rows, listener);
+    }
+
+    public AllocationChunkResult write(Tenant owner,
+                                       AllocationChunkResult result,
+                                       Collection<AllocationRow> rows,
+                                       AllocationIngestionListener listener) {
+        List<AllocationRow> chunk = new ArrayList<>(rows);
+        result.setRows(chunk.size());
+        if (chunk.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> listener.onChunkCommitted(result));
+            return result;
+        }
+
+        try {
+            metrics.inTransaction(transactionTemplate, status -> {
+                long writeStart = System.nanoTime();
+                long batchId = jdbcTemplate.queryForObject("SELECT nextval('allocation_staging_batch_seq')", Long.class);
+                copy(batchId, chunk);
+
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                Map<String, Long> written = new HashMap<>();
+                List<String> inserted = new ArrayList<>();
+                List<String> updated = new ArrayList<>();
+                jdbcTemplate.query(MERGE_SQL, rs -> {
+                    written.put(rs.getString(2), rs.getLong(1));
+                    (rs.getBoolean(3) ? inserted : updated).add(rs.getString(2));
+                }, owner.bankId(), owner.vendorId(), now, now, batchId);
+                List<AllocationRow> foreign = written.size() < chunk.size()
+                        ? findForeign(owner, chunk, written) : List.of();
+                result.setInserted(inserted.size());
+                result.setUpdated(updated.size());
+                result.setUnchanged(chunk.size() - written.size() - foreign.size());
+
+                jdbcTemplate.update("DELETE FROM allocation_staging WHERE batch_id = ?", batchId);
+                projectionWriter.project(
+                        chunk.stream().filter(row -> written.containsKey(row.loanNumber())).toList(), written);
+                changeLog.recordUpserts(inserted, updated);
+                metrics.record(AllocationIngestionMetrics.Phase.WRITE, System.nanoTime() - writeStart);
+                for (AllocationRow row : foreign) {
+                    result.setFailed(result.getFailed() + 1);
+                    listener.onRowRejected(row.rowNumber(), row.loanNumber(), AllocationBatchWriter.FOREIGN_LOAN);
+                }
+                listener.onChunkCommitted(result);
+            });
+            return result;
+
+        } catch (Exception e) {
+            log.warn("Chunk {} failed to COPY ({}), falling back to batch upsert", result.getChunk(), e.getMessage());
+            result.setInserted(0);
+            result.setUpdated(0);
+            result.setUnchanged(0);
+            result.setFailed(0);
+            return fallback.write(owner, result, chunk, listener);
+        }
+    }
+
+    /**
+     * Rows the merge skipped because another bank owns their loan number.
+     */
+    private List<AllocationRow> findForeign(Tenant owner, List<AllocationRow> chunk, Map<String, Long> written) {
+        if (owner.bankId() == null) {
+            return List.of();
+        }
+        String[] skipped = chunk.stream()
+                .map(AllocationRow::loanNumber)
+                .filter(loanNumber -> !written.containsKey(loanNumber))
+                .toArray(String[]::new);
+        Set<String> foreign = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(FOREIGN_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", skipped));
+            ps.setLong(2, owner.bankId());
+            return ps;
+        }, rs -> {
+            foreign.add(rs.getString(1));
+        });
+        return chunk.stream().filter(row -> foreign.contains(row.loanNumber())).toList();
+    }
+
+    /**
+     * Stream the chunk as CSV into staging on the transaction's connection.
+     */
+    private void copy(long batchId, List<AllocationRow> chunk) {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            PGConnection pg = connection.unwrap(PGConnection.class);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pg, COPY_SQL, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                for (AllocationRow row : chunk) {
+                    Content content = encoder.encode(row);
+                    out.write(Long.toString(batchId));
+                    out.write(',');
+                    writeQuoted(out, content.row().loanNumber());
+                    out.write(',');
+                    writeQuoted(out, content.json());
+                    out.write(',');
+                    out.write(content.hash());
+                    out.write('\n');
+                }
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("COPY into allocation_staging failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void writeQuoted(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,79 @@
+package com.nimis.chatbot.service.ingestion;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The allocation_data keys every case list reads, kept as typed columns
+ * on loan_allocation so lists can be served without the JSONB.
+ *
+ * Values are derived in SQL from the jsonb being written, so the batch
+ * upsert and the COPY merge share one definition. V15 backfilled older
+ * rows with a copy of it.
+ * Numbers that do not parse and over-long text become NULL or are cut,
+ * never an error.
+ */
+public final class AllocationHotColumns {
+
+    private enum Kind { TEXT, NUMBER }
+
+    private record HotColumn(String column, String key, Kind kind, int maxLength) {
+
+        String expression(String json) {
+            String text = json + " ->> '" + key.replace("'", "''") + "'";
+            if (kind == Kind.NUMBER) {
+                return "CASE WHEN " + text + " ~ '^\\s*-?[0-9]{1,15}(\\.[0-9]+)?\\s*$' THEN trim(" + text + ")::numeric END";
+            }
+            return maxLength > 0 ? "left(" + text + ", " + maxLength + ")" : text;
+        }
+    }
+
+    private static final List<HotColumn> HOT_COLUMNS = List.of(
+            new HotColumn("customer_name", "CUSTOMER NAME", Kind.TEXT, 255),
+            new HotColumn("pos_amount", "POS Amt", Kind.NUMBER, 0),
+            new HotColumn("location", "LOCATION", Kind.TEXT, 255),
+            new HotColumn("phone_1", "phone_1", Kind.TEXT, 50),
+            new HotColumn("address_priority_1", "address_priority_1", Kind.TEXT, 0),
+            new HotColumn("address_priority_2", "address_priority_2", Kind.TEXT, 0),
+            new HotColumn("address_priority_3", "address_priority_3", Kind.TEXT, 0),
+            new HotColumn("address_priority_4", "address_priority_4", Kind.TEXT, 0),
+            new HotColumn("segment", "SEGMENT", Kind.TEXT, 100),
+            new HotColumn("emi", "EMI", Kind.NUMBER, 0),
+            new HotColumn("opening_bkt", "OPENING BKT", Kind.TEXT, 50)
+    );
+
+    private AllocationHotColumns() {
+    }
+
+    /**
+     * "customer_name, pos_amount, ..." for an INSERT column list.
+     */
+    public static String columns() {
+        return HOT_COLUMNS.stream().map(HotColumn::column).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * The hot values derived from a jsonb expression, in {@link #columns()} order.
+     */
+    public static String select(String json) {
+        return HOT_COLUMNS.stream().map(c -> c.expression(json)).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * "customer_name = EXCLUDED.customer_name, ..." for ON CONFLICT DO UPDATE.
+     */
+    public static String excludedAssignments() {
+        return HOT_COLUMNS.stream()
+                .map(c -> c.column() + " = EXCLUDED." + c.column())
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * "customer_name = ..., ..." recomputing every hot column from a jsonb expression.
+     */
+    public static String assignments(String json) {
+        return HOT_COLUMNS.stream()
+                .map(c -> c.column() + " = " + c.expression(json))
+                .collect(Collectors.joining(", "));
+    }
+}
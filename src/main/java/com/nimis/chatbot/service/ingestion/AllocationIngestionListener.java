@@ -0,0 +1,42 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+
+/**
+ * Observes an ingestion run. All methods are optional.
+ */
+public interface AllocationIngestionListener {
+
+    AllocationIngestionListener NONE = new AllocationIngestionListener() { };
+
+    /**
+     * The reader knows the file's last row number up front.
+     */
+    default void onLastRow(int lastRow) {
+    }
+
+    /**
+     * A row was skipped or could not be written.
+     */
+    default void onRowRejected(int rowNumber, String loanNumber, String reason) {
+    }
+
+    /**
+     * The loan number already appeared earlier in the file; the later row wins.
+     */
+    default void onDuplicateLoanNumber(int rowNumber, String loanNumber) {
+    }
+
+    /**
+     * A value does not fit the type inferred for its column and was kept as read.
+     */
+    default void onValueMismatch(int rowNumber, String loanNumber, String column, Object value) {
+    }
+
+    /**
+     * Runs inside the chunk's transaction, so anything written here
+     * commits atomically with the chunk.
+     */
+    default void onChunkCommitted(AllocationChunkResult chunk) {
+    }
+}
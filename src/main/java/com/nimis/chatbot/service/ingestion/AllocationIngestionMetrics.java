@@ -0,0 +1,183 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for allocation ingestion, served at
+ * /actuator/metrics/allocation.ingest.*.
+ *
+ * Phase timers are recorded once per chunk, not per row:
+ * parse (reader time, on the reader thread), convert (schema
+ * normalization and JSON/hash encoding), lookup (existing hashes),
+ * write (upserts, COPY and merge, projections) and commit. COPY streams
+ * its encoding, so for that engine encoding counts as write.
+ * Each upload also gets a {@link Run} that feeds the rows/sec gauge and
+ * tracks the heap high-water mark, sampled whenever a chunk is dispatched
+ * or committed.
+ */
+@Component
+public class AllocationIngestionMetrics {
+
+    public enum Phase { PARSE, CONVERT, LOOKUP, WRITE, COMMIT }
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+    private final Counter inserted;
+    private final Counter updated;
+    private final Counter unchanged;
+    private final Counter failed;
+    private final Counter skipped;
+    private final Counter chunks;
+    private final DistributionSummary heapPeak;
+    private final Set<Run> active = ConcurrentHashMap.newKeySet();
+
+    public AllocationIngestionMetrics(MeterRegistry registry) {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, Timer.builder("allocation.ingest.phase")
+                    .description("Time spent per ingestion phase, recorded per chunk")
+                    .tag("phase", phase.name().toLowerCase())
+                    .register(registry));
+        }
+        this.inserted = rows(registry, "inserted");
+        this.updated = rows(registry, "updated");
+        this.unchanged = rows(registry, "unchanged");
+        this.failed = rows(registry, "failed");
+        this.skipped = rows(registry, "skipped");
+        this.chunks = Counter.builder("allocation.ingest.chunks")
+                .description("Chunks committed")
+                .register(registry);
+        this.heapPeak = DistributionSummary.builder("allocation.ingest.heap.peak")
+                .description("Highest heap use seen during each upload")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("allocation.ingest.rows.per.second", this, AllocationIngestionMetrics::rowsPerSecond)
+                .description("Rows committed per second across running uploads")
+                .register(registry);
+        Gauge.builder("allocation.ingest.active", active, Set::size)
+                .description("Uploads being ingested")
+                .register(registry);
+    }
+
+    /**
+     * Meters that go nowhere, for dry runs and tests.
+     */
+    public static AllocationIngestionMetrics noop() {
+        return new AllocationIngestionMetrics(new SimpleMeterRegistry());
+    }
+
+    private static Counter rows(MeterRegistry registry, String outcome) {
+        return Counter.builder("allocation.ingest.rows")
+                .description("Rows by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public void record(Phase phase, long nanos) {
+        phases.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> T time(Phase phase, Supplier<T> work) {
+        return phases.get(phase).record(work);
+    }
+
+    public void time(Phase phase, Runnable work) {
+        phases.get(phase).record(work);
+    }
+
+    /**
+     * Run the body in a transaction and time what follows it, the commit.
+     * The body times its own phases.
+     */
+    public void inTransaction(TransactionTemplate transactionTemplate, Consumer<TransactionStatus> body) {
+        long[] bodyEnd = new long[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            body.accept(status);
+            bodyEnd[0] = System.nanoTime();
+        });
+        record(Phase.COMMIT, System.nanoTime() - bodyEnd[0]);
+    }
+
+    public Run start() {
+        Run run = new Run();
+        active.add(run);
+        return run;
+    }
+
+    private double rowsPerSecond() {
+        double total = 0;
+        for (Run run : active) {
+            total += run.rowsPerSecond();
+        }
+        return total;
+    }
+
+    /**
+     * Throughput and heap high-water mark of one upload.
+     */
+    public class Run implements AutoCloseable {
+
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong peakHeap = new AtomicLong(MEMORY.getHeapMemoryUsage().getUsed());
+
+        public void record(Phase phase, long nanos) {
+            AllocationIngestionMetrics.this.record(phase, nanos);
+        }
+
+        public void sampleHeap() {
+            peakHeap.accumulateAndGet(MEMORY.getHeapMemoryUsage().getUsed(), Math::max);
+        }
+
+        public void chunkCommitted(AllocationChunkResult chunk) {
+            inserted.increment(chunk.getInserted());
+            updated.increment(chunk.getUpdated());
+            unchanged.increment(chunk.getUnchanged());
+            failed.increment(chunk.getFailed());
+            skipped.increment(chunk.getSkipped());
+            chunks.increment();
+            rows.addAndGet(chunk.getRows() + chunk.getSkipped());
+            sampleHeap();
+        }
+
+        public long rowsCommitted() {
+            return rows.get();
+        }
+
+        public double rowsPerSecond() {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            return seconds > 0 ? rows.get() / seconds : 0;
+        }
+
+        public long peakHeapBytes() {
+            return peakHeap.get();
+        }
+
+        @Override
+        public void close() {
+            if (active.remove(this)) {
+                heapPeak.record(peakHeap.get());
+            }
+        }
+    }
+}
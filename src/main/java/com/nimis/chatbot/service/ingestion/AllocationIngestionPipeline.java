@@ -0,0 +1,420 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+import com.nimis.chatbot.dto.response.AllocationUploadResult;
+import com.nimis.chatbot.model.enums.ColumnType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reader-to-writer pipeline for one allocation file.
+ *
+ * The reader thread routes every row to one of N lanes by a hash of its
+ * loan number. Each lane is drained by its own virtual thread, which
+ * serializes the lane's chunks and writes them in their own transactions.
+ * A loan number always lands in the same lane and a lane writes its chunks
+ * in order, so when a loan number repeats in the file the last occurrence
+ * wins no matter how the lanes interleave. Lane queues are bounded: a slow
+ * database blocks the reader instead of buffering the file in heap.
+ *
+ * The first sampleSize rows are held back to compile the file's
+ * {@link AllocationColumnSchema}; workers normalize each chunk with it
+ * before writing.
+ *
+ * Phase timings, committed rows and heap samples go to the run's
+ * {@link AllocationIngestionMetrics.Run}. Per-row problems are logged for
+ * the first few rows only and summarized at the end.
+ *
+ * The lastRow stamped on each committed chunk is a watermark: every row up
+ * to it belongs to a chunk that has already committed or commits together
+ * with this one. The listener is called from the worker threads and must
+ * be thread safe.
+ */
+@Slf4j
+public class AllocationIngestionPipeline implements AllocationRowHandler, AutoCloseable {
+
+    private static final Batch POISON = new Batch(null, List.of(), 0);
+    private static final int LOGGED_ROWS = 10;
+
+    private final AllocationChunkWriter writer;
+    private final AllocationIngestionListener listener;
+    private final int chunkSize;
+    private final int resumeAfterRow;
+    private final int sampleSize;
+    private final Map<String, ColumnType> knownTypes;
+    private final AllocationIngestionMetrics.Run metrics;
+
+    private final Lane[] lanes;
+    private final ExecutorService workers;
+
+    // Guards pending, result and lastRead
+    private final ReentrantLock lock = new ReentrantLock();
+    // First row of every chunk not yet committed (open, queued or in flight) -> count
+    private final TreeMap<Integer, Integer> pending = new TreeMap<>();
+    private final AllocationUploadResult result = AllocationUploadResult.builder().build();
+    private int lastRead;
+
+    // Reader-thread state
+    private final List<AllocationRow> sample = new ArrayList<>();
+    private volatile AllocationColumnSchema schema;
+    private final Set<String> seen = new HashSet<>();
+    private int rowsRead;
+    private int duplicateLoanNumbers;
+    private int pendingSkipped;
+    private int firstSkippedRow;
+    private int chunkCount;
+    private int missingLoanNumbers;
+    private long parseNanos;
+    private long lastRowReturned;
+    private boolean finished;
+
+    private volatile Exception failure;
+
+    public AllocationIngestionPipeline(AllocationChunkWriter writer,
+                                       AllocationIngestionListener listener,
+                                       int chunkSize,
+                                       int parallelism,
+                                       int queueDepth,
+                                       int sampleSize,
+                                       Map<String, ColumnType> knownTypes,
+                                       int resumeAfterRow) {
+        this(writer, listener, chunkSize, parallelism, queueDepth, sampleSize, knownTypes, resumeAfterRow,
+                AllocationIngestionMetrics.noop().start());
+    }
+
+    public AllocationIngestionPipeline(AllocationChunkWriter writer,
+                                       AllocationIngestionListener listener,
+                                       int chunkSize,
+                                       int parallelism,
+                                       int queueDepth,
+                                       int sampleSize,
+                                       Map<String, ColumnType> knownTypes,
+                                       int resumeAfterRow,
+                                       AllocationIngestionMetrics.Run metrics) {
+        this.writer = writer;
+        this.listener = listener;
+        this.chunkSize = chunkSize;
+        this.resumeAfterRow = resumeAfterRow;
+        this.sampleSize = Math.max(sampleSize, 1);
+        this.knownTypes = knownTypes;
+        this.lastRead = resumeAfterRow;
+        this.metrics = metrics;
+        this.lastRowReturned = System.nanoTime();
+
+        this.workers = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("allocation-ingest-", 0).factory());
+        this.lanes = new Lane[Math.max(parallelism, 1)];
+        for (int i = 0; i < lanes.length; i++) {
+            Lane lane = new Lane(Math.max(queueDepth, 1));
+            lanes[i] = lane;
+            workers.execute(() -> drain(lane));
+        }
+    }
+
+    @Override
+    public void onLastRow(int lastRow) {
+        listener.onLastRow(lastRow);
+    }
+
+    @Override
+    public void onRow(int rowNumber, Map<String, Object> rowData) throws Exception {
+        // Time since the previous row was handed back is the reader's parse time
+        parseNanos += System.nanoTime() - lastRowReturned;
+        try {
+            if (rowNumber <= resumeAfterRow) {
+                return;
+            }
+            checkFailure();
+
+            if (schema == null) {
+                sample.add(new AllocationRow(rowNumber, null, rowData));
+                if (sample.size() >= sampleSize) {
+                    compileSchema();
+                }
+                return;
+            }
+            route(rowNumber, rowData);
+        } finally {
+            lastRowReturned = System.nanoTime();
+        }
+    }
+
+    /**
+     * Schema compiled for this file, or null while still sampling.
+     */
+    public AllocationColumnSchema schema() {
+        return schema;
+    }
+
+    private void compileSchema() throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>(sample.size());
+        for (AllocationRow row : sample) {
+            rows.add(row.data());
+        }
+        schema = AllocationColumnSchema.infer(rows, knownTypes);
+        log.info("Compiled column schema from {} sample rows: {}", rows.size(), schema.columnTypes());
+
+        for (AllocationRow row : sample) {
+            route(row.rowNumber(), row.data());
+        }
+        sample.clear();
+    }
+
+    private void route(int rowNumber, Map<String, Object> rowData) throws Exception {
+        rowsRead++;
+
+        String loanNumber = extractLoanNumber(rowData);
+        if (loanNumber == null || loanNumber.isBlank()) {
+            if (missingLoanNumbers++ < LOGGED_ROWS) {
+                log.warn("Row {} has no loan number, skipping", rowNumber);
+            }
+            if (pendingSkipped++ == 0) {
+                firstSkippedRow = rowNumber;
+                markPending(rowNumber);
+            }
+            listener.onRowRejected(rowNumber, null, "Missing LOANNUMBER");
+            markRead(rowNumber);
+            return;
+        }
+
+        if (!seen.add(loanNumber)) {
+            duplicateLoanNumbers++;
+            listener.onDuplicateLoanNumber(rowNumber, loanNumber);
+        }
+
+        Lane lane = lanes[Math.floorMod(loanNumber.hashCode(), lanes.length)];
+        if (lane.buffer.isEmpty()) {
+            lane.firstRow = rowNumber;
+            markPending(rowNumber);
+        }
+        // Re-putting moves a repeated loan to the end of the chunk
+        lane.buffer.remove(loanNumber);
+        lane.buffer.put(loanNumber, new AllocationRow(rowNumber, loanNumber, rowData));
+        markRead(rowNumber);
+
+        if (lane.buffer.size() >= chunkSize) {
+            dispatch(lane);
+        }
+    }
+
+    /**
+     * Flush every lane, wait for the workers and return the totals.
+     */
+    public AllocationUploadResult finish() throws Exception {
+        checkFailure();
+        if (schema == null) {
+            compileSchema();
+        }
+        for (Lane lane : lanes) {
+            if (!lane.buffer.isEmpty()) {
+                dispatch(lane);
+            }
+        }
+        if (pendingSkipped > 0) {
+            dispatch(lanes[0]);
+        }
+        finished = true;
+        metrics.record(AllocationIngestionMetrics.Phase.PARSE, parseNanos);
+        parseNanos = 0;
+        shutdown();
+        checkFailure();
+        if (missingLoanNumbers > LOGGED_ROWS) {
+            log.warn("{} rows had no loan number and were skipped (first {} logged)", missingLoanNumbers, LOGGED_ROWS);
+        }
+
+        lock.lock();
+        try {
+            result.setRowsRead(rowsRead);
+            result.setDuplicateLoanNumbers(duplicateLoanNumbers);
+            result.setLastRow(lastRead);
+            result.getChunks().sort(Comparator.comparingInt(AllocationChunkResult::getChunk));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the workers if the reader failed before {@link #finish()}.
+     * Queued chunks are dropped; committed ones stay committed.
+     */
+    @Override
+    public void close() throws Exception {
+        if (!finished) {
+            if (failure == null) {
+                failure = new CancellationException("Ingestion aborted");
+            }
+            shutdown();
+        }
+    }
+
+    private void dispatch(Lane lane) throws InterruptedException {
+        int firstRow = lane.buffer.isEmpty() ? Integer.MAX_VALUE : lane.firstRow;
+        AllocationChunkResult chunk = AllocationChunkResult.builder()
+                .chunk(++chunkCount)
+                .skipped(pendingSkipped)
+                .build();
+
+        // Rows skipped by the reader ride along with the next chunk
+        if (pendingSkipped > 0) {
+            lock.lock();
+            try {
+                unmarkPending(firstRow);
+                unmarkPending(firstSkippedRow);
+                firstRow = Math.min(firstRow, firstSkippedRow);
+                markPending(firstRow);
+            } finally {
+                lock.unlock();
+            }
+            pendingSkipped = 0;
+        }
+
+        Batch batch = new Batch(chunk, new ArrayList<>(lane.buffer.values()), firstRow);
+        lane.buffer.clear();
+        metrics.record(AllocationIngestionMetrics.Phase.PARSE, parseNanos);
+        parseNanos = 0;
+        metrics.sampleHeap();
+        lane.queue.put(batch);
+    }
+
+    private void drain(Lane lane) {
+        while (true) {
+            Batch batch;
+            try {
+                batch = lane.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == POISON) {
+                return;
+            }
+            if (failure != null) {
+                continue;
+            }
+
+            try {
+                long convertStart = System.nanoTime();
+                for (AllocationRow row : batch.rows) {
+                    String misfit = schema.normalize(row.data());
+                    if (misfit != null) {
+                        listener.onValueMismatch(row.rowNumber(), row.loanNumber(), misfit, row.data().get(misfit));
+                    }
+                }
+                metrics.record(AllocationIngestionMetrics.Phase.CONVERT, System.nanoTime() - convertStart);
+                AllocationChunkResult committed = writer.write(batch.chunk, batch.rows, new AllocationIngestionListener() {
+                    @Override
+                    public void onRowRejected(int rowNumber, String loanNumber, String reason) {
+                        listener.onRowRejected(rowNumber, loanNumber, reason);
+                    }
+
+                    @Override
+                    public void onChunkCommitted(AllocationChunkResult chunk) {
+                        chunk.setLastRow(watermarkExcluding(batch.firstRow));
+                        listener.onChunkCommitted(chunk);
+                    }
+                });
+
+                lock.lock();
+                try {
+                    unmarkPending(batch.firstRow);
+                    result.add(committed);
+                } finally {
+                    lock.unlock();
+                }
+                metrics.chunkCommitted(committed);
+            } catch (Exception e) {
+                log.error("Chunk {} could not be written", batch.chunk.getChunk(), e);
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    private void shutdown() throws InterruptedException {
+        for (Lane lane : lanes) {
+            lane.queue.put(POISON);
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private void checkFailure() throws Exception {
+        Exception e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Highest row below every uncommitted chunk, treating the given chunk
+     * as committed since the caller is inside its transaction.
+     */
+    private int watermarkExcluding(int firstRow) {
+        lock.lock();
+        try {
+            for (Map.Entry<Integer, Integer> entry : pending.entrySet()) {
+                if (entry.getKey() == firstRow && entry.getValue() == 1) {
+                    continue;
+                }
+                return Math.min(entry.getKey() - 1, lastRead);
+            }
+            return lastRead;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void markRead(int rowNumber) {
+        lock.lock();
+        try {
+            lastRead = rowNumber;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void markPending(int row) {
+        if (row == Integer.MAX_VALUE) return;
+        lock.lock();
+        try {
+            pending.merge(row, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unmarkPending(int row) {
+        if (row == Integer.MAX_VALUE) return;
+        lock.lock();
+        try {
+            pending.computeIfPresent(row, (k, count) -> count > 1 ? count - 1 : null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static String extractLoanNumber(Map<String, Object> rowData) {
+        // Headers are canonical by now (AllocationKeyAliases)
+        Object value = rowData.get(AllocationKeyAliases.LOAN_NUMBER);
+        return value != null ? value.toString().trim() : null;
+    }
+
+    private static class Lane {
+        // Loan number -> latest row, touched only by the reader thread
+        final Map<String, AllocationRow> buffer = new LinkedHashMap<>();
+        final BlockingQueue<Batch> queue;
+        int firstRow;
+
+        Lane(int queueDepth) {
+            this.queue = new ArrayBlockingQueue<>(queueDepth);
+        }
+    }
+
+    private record Batch(AllocationChunkResult chunk, List<AllocationRow> rows, int firstRow) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.model.entity.AllocationView;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled header-to-canonical-key mapping, applied to every row as it is
+ * read so allocation_data is stored under one spelling per field and
+ * readers need a single exact lookup.
+ *
+ * The canonical keys themselves match regardless of case and spacing;
+ * registry aliases (per bank, see AllocationKeyAliasService) add the
+ * variants on top. Each distinct header is resolved once and remembered.
+ */
+public final class AllocationKeyAliases {
+
+    public static final String LOAN_NUMBER = "LOANNUMBER";
+
+    static final List<String> CANONICAL_KEYS = List.of(
+            LOAN_NUMBER,
+            AllocationView.SEGMENT, AllocationView.PRODUCT, AllocationView.STATE, AllocationView.BRANCH,
+            AllocationView.LOCATION, AllocationView.CUSTOMER_NAME, AllocationView.POS_IN_CR,
+            AllocationView.POS_AMOUNT, AllocationView.EMI, AllocationView.EMI_OVERDUE, AllocationView.MOBILE,
+            AllocationView.EMI_DUE_COUNT, AllocationView.BKT_TAG, AllocationView.OPENING_BUCKET,
+            AllocationView.SECURITIZATION, AllocationView.ASHV_DA_PTC, AllocationView.WARRANT,
+            AllocationView.CO_APPLICANT1_NAME, AllocationView.CO_APPLICANT1_MOBILE,
+            AllocationView.ADDRESS_PRIORITY_1, AllocationView.ADDRESS_PRIORITY_2,
+            AllocationView.ADDRESS_PRIORITY_3, AllocationView.ADDRESS_PRIORITY_4);
+
+    private static final AllocationKeyAliases DEFAULTS = of(Map.of());
+
+    // Normalized alias -> canonical key
+    private final Map<String, String> byAlias;
+    // Header as read -> key to store it under
+    private final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+    private AllocationKeyAliases(Map<String, String> byAlias) {
+        this.byAlias = byAlias;
+    }
+
+    /**
+     * Canonical keys plus the given aliases (normalized alias -> canonical
+     * key); later entries win.
+     */
+    public static AllocationKeyAliases of(Map<String, String> aliases) {
+        Map<String, String> byAlias = new LinkedHashMap<>();
+        for (String key : CANONICAL_KEYS) {
+            byAlias.put(normalize(key), key);
+        }
+        aliases.forEach((alias, canonical) -> byAlias.put(normalize(alias), canonical));
+        return new AllocationKeyAliases(byAlias);
+    }
+
+    public static AllocationKeyAliases defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Trimmed, inner whitespace collapsed to one space, lower case.
+     */
+    public static String normalize(String key) {
+        String trimmed = key.trim();
+        StringBuilder out = new StringBuilder(trimmed.length());
+        boolean space = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                out.append(' ');
+                space = false;
+            }
+            out.append(c);
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public String canonical(String header) {
+        return resolved.computeIfAbsent(header, h -> byAlias.getOrDefault(normalize(h), h));
+    }
+
+    /**
+     * The row with its headers renamed, or the row itself when none are.
+     * A header whose canonical key is also in the row verbatim, or was
+     * already taken by an earlier alias, keeps its own name.
+     */
+    public Map<String, Object> apply(Map<String, Object> row) {
+        boolean rename = false;
+        for (String key : row.keySet()) {
+            if (!canonical(key).equals(key)) {
+                rename = true;
+                break;
+            }
+        }
+        if (!rename) {
+            return row;
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>(row.size() * 2);
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            String key = entry.getKey();
+            String target = canonical(key);
+            if (!target.equals(key) && (row.containsKey(target) || out.containsKey(target))) {
+                target = key;
+            }
+            out.put(target, entry.getValue());
+        }
+        return out;
+    }
+
+    /**
+     * Handler that renames each row's headers before passing it on.
+     */
+    public AllocationRowHandler canonicalizing(AllocationRowHandler handler) {
+        return new AllocationRowHandler() {
+            @Override
+            public void onRow(int rowNumber, Map<String, Object> rowData) throws Exception {
+                handler.onRow(rowNumber, apply(rowData));
+            }
+
+            @Override
+            public void onLastRow(int lastRow) {
+                handler.onLastRow(lastRow);
+            }
+        };
+    }
+}
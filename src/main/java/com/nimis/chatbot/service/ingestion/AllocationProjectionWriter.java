@@ -0,0 +1,221 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.config.AllocationProjectionProperties;
+import com.nimis.chatbot.model.enums.ColumnType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Projects allocation rows into the normalized customers, addresses,
+ * phones, agency_details, bank_accounts and legal_cases tables.
+ *
+ * Runs inside the chunk's transaction, only for rows that were actually
+ * inserted or updated: their old projections are deleted and new ones
+ * batch-inserted, one statement per table. Which header feeds which
+ * column comes from {@link AllocationProjectionProperties}; mapped columns
+ * are checked against the live table once, and values are coerced to the
+ * column's type (and length) so a stray cell never fails the chunk.
+ */
+@Slf4j
+@Component
+public class AllocationProjectionWriter {
+
+    private static final String IDS_SQL =
+            "SELECT loan_number, id FROM loan_allocation WHERE loan_number = ANY(?)";
+
+    private static final String COLUMNS_SQL = """
+            SELECT column_name, data_type, character_maximum_length
+            FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AllocationProjectionProperties properties;
+    private volatile List<Projection> projections;
+
+    public AllocationProjectionWriter(JdbcTemplate jdbcTemplate, AllocationProjectionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Re-project rows whose allocation was just written, looking up their ids.
+     */
+    public void project(List<AllocationRow> rows) {
+        if (rows.isEmpty() || projections().isEmpty()) return;
+        project(rows, findIds(rows));
+    }
+
+    /**
+     * Re-project rows whose allocation ids are already known.
+     */
+    public void project(List<AllocationRow> rows, Map<String, Long> ids) {
+        if (rows.isEmpty() || projections().isEmpty()) return;
+
+        Long[] allocationIds = rows.stream()
+                .map(row -> ids.get(row.loanNumber()))
+                .filter(Objects::nonNull)
+                .toArray(Long[]::new);
+
+        for (Projection projection : projections()) {
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(projection.deleteSql());
+                ps.setArray(1, con.createArrayOf("bigint", allocationIds));
+                return ps;
+            });
+
+            List<Object[]> batch = new ArrayList<>(rows.size());
+            for (AllocationRow row : rows) {
+                Long id = ids.get(row.loanNumber());
+                Object[] values = id != null ? projection.values(id, row.data()) : null;
+                if (values != null) batch.add(values);
+            }
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(projection.insertSql(), batch);
+            }
+        }
+    }
+
+    private Map<String, Long> findIds(List<AllocationRow> rows) {
+        String[] loanNumbers = rows.stream().map(AllocationRow::loanNumber).toArray(String[]::new);
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(IDS_SQL);
+            Array array = con.createArrayOf("varchar", loanNumbers);
+            ps.setArray(1, array);
+            return ps;
+        }, rs -> {
+            ids.put(rs.getString(1), rs.getLong(2));
+        });
+        return ids;
+    }
+
+    /**
+     * Compile the configured mapping against the live tables once. Tables
+     * or columns that do not exist are logged and left out.
+     */
+    private List<Projection> projections() {
+        List<Projection> compiled = projections;
+        if (compiled != null) return compiled;
+        synchronized (this) {
+            if (projections != null) return projections;
+            compiled = new ArrayList<>();
+            if (properties.isEnabled()) {
+                for (Map.Entry<String, Map<String, String>> table : properties.getTables().entrySet()) {
+                    Projection projection = compile(snakeCase(table.getKey()), table.getValue());
+                    if (projection != null) compiled.add(projection);
+                }
+            }
+            projections = List.copyOf(compiled);
+            log.info("Allocation projection covers {} tables", projections.size());
+            return projections;
+        }
+    }
+
+    private Projection compile(String table, Map<String, String> mapping) {
+        Map<String, Target> existing = new HashMap<>();
+        jdbcTemplate.query(COLUMNS_SQL, rs -> {
+            int length = rs.getInt(3);
+            existing.put(rs.getString(1), new Target(rs.getString(1), rs.getString(2), rs.wasNull() ? 0 : length));
+        }, table);
+        if (!existing.containsKey("allocation_id")) {
+            log.warn("Skipping projection into {}: no such table with an allocation_id column", table);
+            return null;
+        }
+
+        List<Target> targets = new ArrayList<>();
+        List<String> headers = new ArrayList<>();
+        for (Map.Entry<String, String> column : mapping.entrySet()) {
+            Target target = existing.get(snakeCase(column.getKey()));
+            if (target == null) {
+                log.warn("Skipping projection of '{}': {} has no column {}",
+                        column.getValue(), table, snakeCase(column.getKey()));
+                continue;
+            }
+            targets.add(target);
+            headers.add(column.getValue());
+        }
+        return targets.isEmpty() ? null : new Projection(table, targets, headers);
+    }
+
+    private static String snakeCase(String name) {
+        return name.replace('-', '_');
+    }
+
+    /**
+     * A cell as the column's SQL type: null when it does not convert, text
+     * cut to the column's length.
+     */
+    static Object coerce(Object value, String dataType, int maxLength) {
+        if (value == null) return null;
+        switch (dataType) {
+            case "date" -> {
+                Object date = AllocationColumnSchema.convert(value, ColumnType.DATE);
+                return date != null ? Date.valueOf((LocalDate) date) : null;
+            }
+            case "numeric" -> {
+                Object number = AllocationColumnSchema.convert(value, ColumnType.DECIMAL);
+                return number != null ? BigDecimal.valueOf((Double) number) : null;
+            }
+            case "double precision", "real" -> {
+                return AllocationColumnSchema.convert(value, ColumnType.DECIMAL);
+            }
+            case "bigint", "integer", "smallint" -> {
+                return AllocationColumnSchema.convert(value, ColumnType.INTEGER);
+            }
+            case "boolean" -> {
+                return AllocationColumnSchema.convert(value, ColumnType.BOOLEAN);
+            }
+            default -> {
+                String text = (String) AllocationColumnSchema.convert(value, ColumnType.TEXT);
+                if (text.isBlank()) return null;
+                return maxLength > 0 && text.length() > maxLength ? text.substring(0, maxLength) : text;
+            }
+        }
+    }
+
+    private record Target(String column, String dataType, int maxLength) {
+    }
+
+    private record Projection(String table, List<Target> targets, List<String> headers) {
+
+        String deleteSql() {
+            return "DELETE FROM " + table + " WHERE allocation_id = ANY(?)";
+        }
+
+        String insertSql() {
+            StringJoiner columns = new StringJoiner(", ", "(allocation_id, ", ")");
+            StringJoiner params = new StringJoiner(", ", "(?, ", ")");
+            for (Target target : targets) {
+                columns.add(target.column());
+                params.add("?");
+            }
+            return "INSERT INTO " + table + " " + columns + " VALUES " + params;
+        }
+
+        /**
+         * Insert parameters for one row, or null when none of its mapped
+         * cells has a value.
+         */
+        Object[] values(long allocationId, Map<String, Object> data) {
+            Object[] values = new Object[targets.size() + 1];
+            values[0] = allocationId;
+            boolean any = false;
+            for (int i = 0; i < targets.size(); i++) {
+                Target target = targets.get(i);
+                Object value = coerce(data.get(headers.get(i)), target.dataType(), target.maxLength());
+                values[i + 1] = value;
+                any |= value != null;
+            }
+            return any ? values : null;
+        }
+    }
+}
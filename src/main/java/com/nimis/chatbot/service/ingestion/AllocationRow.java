@@ -0,0 +1,9 @@
+package com.nimis.chatbot.service.ingestion;
+
+import java.util.Map;
+
+/**
+ * One parsed data row, keyed by its loan number.
+ */
+public record AllocationRow(int rowNumber, String loanNumber, Map<String, Object> data) {
+}
@@ -0,0 +1,23 @@
+package com.nimis.chatbot.service.ingestion;
+
+import java.util.Map;
+
+/**
+ * Callback invoked by an {@link AllocationRowReader} for every data row.
+ *
+ * rowNumber is the 1-based sheet row as shown in Excel (the header is row 1).
+ * rowData maps trimmed header names to cell values, in column order.
+ */
+@FunctionalInterface
+public interface AllocationRowHandler {
+
+    void onRow(int rowNumber, Map<String, Object> rowData) throws Exception;
+
+    /**
+     * Called before the first row when the reader knows the last row number.
+     * Readers that can only estimate it (CSV) may call this again as the
+     * estimate improves.
+     */
+    default void onLastRow(int lastRow) {
+    }
+}
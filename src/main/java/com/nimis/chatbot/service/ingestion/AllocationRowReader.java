@@ -0,0 +1,15 @@
+package com.nimis.chatbot.service.ingestion;
+
+import java.nio.file.Path;
+
+/**
+ * Reads an allocation file and hands each data row to a handler.
+ *
+ * Implementations map header names to cell values the same way:
+ * strings are trimmed, numbers are Double, date-formatted numbers are
+ * LocalDate, booleans are Boolean and blank cells are null.
+ */
+public interface AllocationRowReader {
+
+    void read(Path file, AllocationRowHandler handler) throws Exception;
+}
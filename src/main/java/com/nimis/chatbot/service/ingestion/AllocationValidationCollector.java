@@ -0,0 +1,111 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+import com.nimis.chatbot.dto.response.AllocationUploadResult;
+import com.nimis.chatbot.dto.response.AllocationValidationReport;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chunk writer for dry runs: instead of touching the database it counts
+ * non-null values per column and collects rejected rows, duplicate loan
+ * numbers and values that do not fit their column. Lanes call it
+ * concurrently, so all state is thread safe.
+ */
+public class AllocationValidationCollector implements AllocationChunkWriter, AllocationIngestionListener {
+
+    private static final int MAX_INVALID_ROWS = 1000;
+    private static final int MAX_DUPLICATES = 100;
+
+    private final Map<String, LongAdder> nonNull = new ConcurrentHashMap<>();
+    private final AtomicInteger rowsWritten = new AtomicInteger();
+    private final AtomicInteger invalidRowCount = new AtomicInteger();
+    private final List<AllocationValidationReport.InvalidRow> invalidRows = new ArrayList<>();
+    private final Set<String> duplicateLoanNumbers = new LinkedHashSet<>();
+
+    @Override
+    public AllocationChunkResult write(AllocationChunkResult result,
+                                       Collection<AllocationRow> rows,
+                                       AllocationIngestionListener listener) {
+        for (AllocationRow row : rows) {
+            for (Map.Entry<String, Object> cell : row.data().entrySet()) {
+                if (cell.getValue() != null) {
+                    nonNull.computeIfAbsent(cell.getKey(), k -> new LongAdder()).increment();
+                }
+            }
+        }
+        rowsWritten.addAndGet(rows.size());
+        result.setRows(rows.size());
+        listener.onChunkCommitted(result);
+        return result;
+    }
+
+    @Override
+    public void onRowRejected(int rowNumber, String loanNumber, String reason) {
+        addInvalid(rowNumber, loanNumber, reason);
+    }
+
+    @Override
+    public void onValueMismatch(int rowNumber, String loanNumber, String column, Object value) {
+        addInvalid(rowNumber, loanNumber, "Column '" + column + "' has unexpected value '" + value + "'");
+    }
+
+    @Override
+    public synchronized void onDuplicateLoanNumber(int rowNumber, String loanNumber) {
+        if (duplicateLoanNumbers.size() < MAX_DUPLICATES) {
+            duplicateLoanNumbers.add(loanNumber);
+        }
+    }
+
+    private void addInvalid(int rowNumber, String loanNumber, String reason) {
+        invalidRowCount.incrementAndGet();
+        synchronized (this) {
+            if (invalidRows.size() < MAX_INVALID_ROWS) {
+                invalidRows.add(AllocationValidationReport.InvalidRow.builder()
+                        .row(rowNumber)
+                        .loanNumber(loanNumber)
+                        .reason(reason)
+                        .build());
+            }
+        }
+    }
+
+    public synchronized AllocationValidationReport report(String fileName,
+                                                          AllocationUploadResult result,
+                                                          AllocationColumnSchema schema,
+                                                          long elapsedMs) {
+        int rows = rowsWritten.get();
+        List<AllocationValidationReport.ColumnStats> columns = new ArrayList<>();
+        if (schema != null) {
+            for (String name : schema.columnNames()) {
+                LongAdder count = nonNull.get(name);
+                long present = count != null ? count.sum() : 0;
+                columns.add(AllocationValidationReport.ColumnStats.builder()
+                        .name(name)
+                        .type(schema.typeOf(name).name())
+                        .nonNull(present)
+                        .nulls(rows - present)
+                        .mismatches(schema.mismatchCount(name))
+                        .build());
+            }
+        }
+
+        List<AllocationValidationReport.InvalidRow> sortedInvalid = new ArrayList<>(invalidRows);
+        sortedInvalid.sort(Comparator.comparingInt(AllocationValidationReport.InvalidRow::getRow));
+
+        return AllocationValidationReport.builder()
+                .fileName(fileName)
+                .rowsRead(result.getRowsRead())
+                .validRows(rows)
+                .invalidRowCount(invalidRowCount.get())
+                .duplicateLoanNumberCount(result.getDuplicateLoanNumbers())
+                .elapsedMs(elapsedMs)
+                .columns(columns)
+                .duplicateLoanNumbers(new ArrayList<>(duplicateLoanNumbers))
+                .invalidRows(sortedInvalid)
+                .build();
+    }
+}
@@ -0,0 +1,227 @@
+package com.nimis.chatbot.service.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming CSV reader (RFC 4180).
+ *
+ * Decodes the file through a fixed-size FileChannel buffer and keeps only
+ * the current record in memory, so any file size runs in constant heap.
+ * Quoted fields may contain delimiters, doubled quotes and line breaks.
+ * The delimiter (comma, semicolon or tab) is picked from the header line.
+ *
+ * Values are trimmed strings and empty fields are null. Row numbers count
+ * records, not physical lines, with the header as record 1.
+ */
+@Slf4j
+@Component
+public class CsvAllocationReader implements AllocationRowReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int ESTIMATE_EVERY = 10_000;
+
+    @Override
+    public void read(Path file, AllocationRowHandler handler) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            RecordParser parser = new RecordParser(channel);
+
+            List<String> header = parser.next();
+            if (header == null) {
+                throw new IllegalArgumentException("No header row found");
+            }
+            String[] columns = header.stream()
+                    .map(h -> h.trim().intern())
+                    .toArray(String[]::new);
+
+            int rowNumber = 1;
+            List<String> record;
+            while ((record = parser.next()) != null) {
+                rowNumber++;
+                if (record.size() == 1 && record.get(0).isEmpty()) {
+                    continue; // blank line
+                }
+
+                Map<String, Object> rowData = new LinkedHashMap<>();
+                for (int c = 0; c < record.size() && c < columns.length; c++) {
+                    String columnName = columns[c];
+                    if (columnName != null && !columnName.isBlank()) {
+                        String value = record.get(c).trim();
+                        rowData.put(columnName, value.isEmpty() ? null : value);
+                    }
+                }
+
+                handler.onRow(rowNumber, rowData);
+
+                if ((rowNumber - 1) % ESTIMATE_EVERY == 0) {
+                    handler.onLastRow(parser.estimateRecords(rowNumber));
+                }
+            }
+
+            log.info("Streamed {} CSV records", rowNumber - 1);
+        }
+    }
+
+    /**
+     * Incremental record parser over a byte channel.
+     */
+    private static class RecordParser {
+
+        private final FileChannel channel;
+        private final long size;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        private final StringBuilder field = new StringBuilder();
+        private boolean endOfInput;
+        private boolean firstChunk = true;
+        private char delimiter;
+
+        RecordParser(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            chars.flip();
+        }
+
+        /**
+         * Records per byte seen so far, projected over the whole file.
+         */
+        int estimateRecords(int recordsRead) throws IOException {
+            long consumed = channel.position() - bytes.position() - chars.remaining();
+            if (consumed <= 0) return recordsRead;
+            return (int) Math.min(Integer.MAX_VALUE, recordsRead * size / consumed);
+        }
+
+        /**
+         * Next record's fields, or null at end of input.
+         */
+        List<String> next() throws IOException {
+            if (!fill()) {
+                return null;
+            }
+            if (delimiter == 0) {
+                delimiter = detectDelimiter();
+            }
+
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean afterQuote = false;
+
+            while (fill()) {
+                char c = chars.get();
+
+                if (quoted) {
+                    if (c == '"') {
+                        if (!fill()) {
+                            quoted = false;
+                            break;
+                        }
+                        if (chars.get(chars.position()) == '"') {
+                            chars.get();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            afterQuote = true;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                    continue;
+                }
+
+                if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    afterQuote = false;
+                } else if (c == '\n') {
+                    break;
+                } else if (c == '\r') {
+                    if (fill() && chars.get(chars.position()) == '\n') {
+                        chars.get();
+                    }
+                    break;
+                } else if (c == '"' && field.isEmpty() && !afterQuote) {
+                    quoted = true;
+                } else {
+                    field.append(c);
+                }
+            }
+
+            fields.add(field.toString());
+            return fields;
+        }
+
+        /**
+         * Make at least one char available; false once the file is exhausted.
+         */
+        private boolean fill() throws IOException {
+            while (!chars.hasRemaining()) {
+                if (endOfInput && bytes.position() == 0) {
+                    return false;
+                }
+
+                chars.clear();
+                if (!endOfInput) {
+                    endOfInput = channel.read(bytes) < 0;
+                }
+                bytes.flip();
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                if (endOfInput && !bytes.hasRemaining()) {
+                    decoder.flush(chars);
+                }
+                bytes.compact();
+                chars.flip();
+
+                if (firstChunk && chars.hasRemaining()) {
+                    firstChunk = false;
+                    if (chars.get(chars.position()) == '\uFEFF') {
+                        chars.get(); // UTF-8 byte order mark
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Most frequent of comma, semicolon and tab on the header line,
+         * ignoring anything inside quotes. Falls back to comma.
+         */
+        private char detectDelimiter() {
+            int commas = 0, semicolons = 0, tabs = 0;
+            boolean quoted = false;
+            for (int i = chars.position(); i < chars.limit(); i++) {
+                char c = chars.get(i);
+                if (c == '"') quoted = !quoted;
+                if (quoted) continue;
+                if (c == '\n' || c == '\r') break;
+                if (c == ',') commas++;
+                else if (c == ';') semicolons++;
+                else if (c == '\t') tabs++;
+            }
+            if (semicolons > commas && semicolons >= tabs) return ';';
+            if (tabs > commas && tabs > semicolons) return '\t';
+            return ',';
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.nimis.chatbot.service.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * SAX reader for .xlsx files.
+ *
+ * Walks the first sheet's XML one row at a time instead of building the
+ * POI DOM, so heap stays bounded by a single row plus the shared strings
+ * table regardless of how many rows the sheet has. Formula cells yield
+ * their cached result.
+ */
+@Slf4j
+@Component
+public class StreamingXlsxAllocationReader implements AllocationRowReader {
+
+    private static final int LOGGED_CELL_ERRORS = 10;
+
+    @Override
+    public void read(Path file, AllocationRowHandler handler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IllegalArgumentException("No sheet found in workbook");
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                SheetHandler sheetHandler = new SheetHandler(strings, styles, handler);
+                parser.setContentHandler(sheetHandler);
+                try {
+                    parser.parse(new InputSource(sheet));
+                } catch (RowHandlerException e) {
+                    throw e.getCause();
+                }
+
+                if (!sheetHandler.headerSeen) {
+                    throw new IllegalArgumentException("No header row found");
+                }
+                log.info("Streamed {} data rows", sheetHandler.dataRows);
+                if (sheetHandler.cellErrors > LOGGED_CELL_ERRORS) {
+                    log.warn("{} cells could not be read and were left blank (first {} logged)",
+                            sheetHandler.cellErrors, LOGGED_CELL_ERRORS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Carries a handler failure through the SAX parser untouched.
+     */
+    private static class RowHandlerException extends SAXException {
+        private final Exception cause;
+
+        RowHandlerException(Exception cause) {
+            super(cause);
+            this.cause = cause;
+        }
+
+        @Override
+        public Exception getCause() {
+            return cause;
+        }
+    }
+
+    private static class SheetHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable strings;
+        private final StylesTable styles;
+        private final AllocationRowHandler handler;
+        private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+
+        private final List<String> headers = new ArrayList<>();
+        private boolean headerSeen;
+        private int dataRows;
+        private int cellErrors;
+
+        private int rowNumber;
+        private Map<String, Object> rowData;
+
+        private int column;
+        private String cellType;
+        private int cellStyle;
+        private boolean inValue;
+        private final StringBuilder value = new StringBuilder();
+        private boolean hasValue;
+
+        SheetHandler(ReadOnlySharedStringsTable strings, StylesTable styles, AllocationRowHandler handler) {
+            this.strings = strings;
+            this.styles = styles;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) {
+            switch (localName) {
+                case "dimension" -> reportLastRow(attrs.getValue("ref"));
+                case "row" -> {
+                    String r = attrs.getValue("r");
+                    rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                    rowData = new LinkedHashMap<>();
+                    column = -1;
+                }
+                case "c" -> {
+                    String ref = attrs.getValue("r");
+                    column = ref != null ? columnIndex(ref) : column + 1;
+                    cellType = attrs.getValue("t");
+                    String s = attrs.getValue("s");
+                    cellStyle = s != null ? Integer.parseInt(s) : -1;
+                    value.setLength(0);
+                    hasValue = false;
+                }
+                case "v", "t" -> {
+                    inValue = true;
+                    hasValue = true;
+                }
+                default -> { }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v", "t" -> inValue = false;
+                case "c" -> endCell();
+                case "row" -> endRow();
+                default -> { }
+            }
+        }
+
+        private void endCell() {
+            if (!headerSeen) {
+                if (rowNumber == 1) {
+                    while (headers.size() <= column) headers.add(null);
+                    String name = isStringCell() && hasValue ? cellValueAsString() : null;
+                    headers.set(column, name != null ? name.intern() : null);
+                }
+                return;
+            }
+
+            String columnName = column < headers.size() ? headers.get(column) : null;
+            if (columnName != null && !columnName.isBlank()) {
+                rowData.put(columnName, hasValue ? cellValue() : null);
+            }
+        }
+
+        private void endRow() throws SAXException {
+            if (!headerSeen) {
+                if (rowNumber != 1) {
+                    throw new IllegalArgumentException("No header row found");
+                }
+                headerSeen = true;
+                return;
+            }
+
+            dataRows++;
+            try {
+                handler.onRow(rowNumber, rowData);
+            } catch (Exception e) {
+                throw new RowHandlerException(e);
+            }
+        }
+
+        /**
+         * The optional dimension element (e.g. ref="A1:BH150001") precedes
+         * sheetData and gives the last row without reading ahead.
+         */
+        private void reportLastRow(String ref) {
+            if (ref == null) return;
+            String last = ref.substring(ref.indexOf(':') + 1);
+            int digits = 0;
+            while (digits < last.length() && !Character.isDigit(last.charAt(digits))) digits++;
+            if (digits < last.length()) {
+                handler.onLastRow(Integer.parseInt(last.substring(digits)));
+            }
+        }
+
+        private boolean isStringCell() {
+            return "s".equals(cellType) || "inlineStr".equals(cellType) || "str".equals(cellType);
+        }
+
+        private String cellValueAsString() {
+            String raw = "s".equals(cellType)
+                    ? strings.getItemAt(Integer.parseInt(value.toString().trim())).getString()
+                    : value.toString();
+            return raw != null ? raw.trim() : null;
+        }
+
+        private Object cellValue() {
+            try {
+                if (cellType == null || "n".equals(cellType)) {
+                    String raw = value.toString().trim();
+                    if (raw.isEmpty()) return null;
+                    double d = Double.parseDouble(raw);
+                    if (isDateStyle(cellStyle) && DateUtil.isValidExcelDate(d)) {
+                        return DateUtil.getLocalDateTime(d).toLocalDate();
+                    }
+                    return d;
+                }
+                return switch (cellType) {
+                    case "s", "inlineStr", "str" -> cellValueAsString();
+                    case "b" -> "1".equals(value.toString().trim());
+                    default -> null;
+                };
+            } catch (Exception e) {
+                if (cellErrors++ < LOGGED_CELL_ERRORS) {
+                    log.warn("Error reading cell at row {} column {}: {}", rowNumber, column, e.getMessage());
+                }
+                return null;
+            }
+        }
+
+        private boolean isDateStyle(int styleIndex) {
+            if (styleIndex < 0 || styles == null) return false;
+            return dateStyles.computeIfAbsent(styleIndex, idx -> {
+                XSSFCellStyle style = styles.getStyleAt(idx);
+                if (style == null) return false;
+                short formatIndex = style.getDataFormat();
+                String format = style.getDataFormatString();
+                if (format == null) format = BuiltinFormats.getBuiltinFormat(formatIndex);
+                return DateUtil.isADateFormat(formatIndex, format);
+            });
+        }
+
+        private static int columnIndex(String cellRef) {
+            int index = 0;
+            for (int i = 0; i < cellRef.length(); i++) {
+                char c = cellRef.charAt(i);
+                if (c < 'A' || c > 'Z') break;
+                index = index * 26 + (c - 'A' + 1);
+            }
+            return index - 1;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.nimis.chatbot.service.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.*;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DOM reader built on WorkbookFactory.
+ *
+ * Loads the whole workbook in heap, so it is only used for legacy .xls
+ * files, which are capped at 65k rows by the format itself.
+ */
+@Slf4j
+@Component
+public class WorkbookAllocationReader implements AllocationRowReader {
+
+    private static final int LOGGED_CELL_ERRORS = 10;
+
+    @Override
+    public void read(Path file, AllocationRowHandler handler) throws Exception {
+        try (Workbook workbook = WorkbookFactory.create(file.toFile(), null, true)) {
+
+            Sheet sheet = workbook.getSheetAt(0);
+            if (sheet == null) {
+                throw new IllegalArgumentException("No sheet found in workbook");
+            }
+
+            Row headerRow = sheet.getRow(0);
+            if (headerRow == null) {
+                throw new IllegalArgumentException("No header row found");
+            }
+
+            // Header names are read once, not per data cell
+            String[] columns = new String[Math.max(headerRow.getLastCellNum(), 0)];
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = getHeaderName(headerRow, c);
+            }
+
+            log.info("Processing {} rows", sheet.getLastRowNum());
+            handler.onLastRow(sheet.getLastRowNum() + 1);
+
+            int cellErrors = 0;
+            for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+                Row row = sheet.getRow(r);
+                if (row == null) continue;
+
+                Map<String, Object> rowData = new LinkedHashMap<>();
+                for (Cell cell : row) {
+                    int c = cell.getColumnIndex();
+                    String columnName = c < columns.length ? columns[c] : null;
+                    if (columnName != null && !columnName.isBlank()) {
+                        Object value;
+                        try {
+                            value = readCell(cell);
+                        } catch (Exception e) {
+                            if (cellErrors++ < LOGGED_CELL_ERRORS) {
+                                log.warn("Error reading cell at row {} column {}: {}", r + 1, c, e.getMessage());
+                            }
+                            value = null;
+                        }
+                        rowData.put(columnName, value);
+                    }
+                }
+
+                handler.onRow(r + 1, rowData);
+            }
+            if (cellErrors > LOGGED_CELL_ERRORS) {
+                log.warn("{} cells could not be read and were left blank (first {} logged)",
+                        cellErrors, LOGGED_CELL_ERRORS);
+            }
+        }
+    }
+
+    private String getHeaderName(Row headerRow, int columnIndex) {
+        try {
+            Cell cell = headerRow.getCell(columnIndex);
+            if (cell != null) {
+                String value = cell.getStringCellValue();
+                return value != null ? value.trim().intern() : null;
+            }
+        } catch (Exception e) {
+            log.warn("Error reading header at column {}: {}", columnIndex, e.getMessage());
+        }
+        return null;
+    }
+
+    private Object readCell(Cell cell) {
+        if (cell == null) return null;
+
+        switch (cell.getCellType()) {
+            case STRING:
+                String str = cell.getStringCellValue();
+                return str != null ? str.trim() : null;
+
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return cell.getLocalDateTimeCellValue().toLocalDate();
+                } else {
+                    return cell.getNumericCellValue();
+                }
+
+            case BOOLEAN:
+                return cell.getBooleanCellValue();
+
+            case BLANK:
+                return null;
+
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.nimis.chatbot.utility;
+
+import com.nimis.chatbot.dto.response.FieldExecutiveCaseResponse;
+import com.nimis.chatbot.dto.response.FieldExecutiveDashboardCaseResponse;
+import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.model.entity.AllocationView;
+import com.nimis.chatbot.repository.projection.AllocationCaseRow;
+import com.nimis.chatbot.repository.projection.AllocationCaseSummary;
+
+import java.math.BigDecimal;
+
+public class AllocationCaseMapper {
+
+    // Dashboard card from the typed columns (no allocation_data)
+    public static FieldExecutiveDashboardCaseResponse toDashboardCase(AllocationCaseSummary c) {
+        return FieldExecutiveDashboardCaseResponse.builder()
+                .caseId("CASE" + c.getId())
+                .loanNumber(c.getLoanNumber())
+                .borrowerName(c.getCustomerName())
+                .loanAmount(c.getPosAmount() != null ? c.getPosAmount().stripTrailingZeros().toPlainString() : null)
+                .status(c.getStatus())
+                .phone(c.getPhone1())
+                .location(c.getLocation())
+                .address(c.getAddressPriority1())
+                .build();
+    }
+
+    // Case list row from the projection; text keys decoded as AllocationView does
+    public static FieldExecutiveCaseResponse toCase(AllocationCaseRow c) {
+        return FieldExecutiveCaseResponse.builder()
+                .segment(c.getSegment())
+                .location(c.getLocation())
+                .loanNumber(c.getLoanNumber())
+                .customerName(c.getCustomerName())
+                .posInCr(toDouble(AllocationView.decimal(c.getPosInCr())))
+                .posAmount(toDouble(c.getPosAmount()))
+                .emi(c.getEmi() != null ? c.getEmi().intValue() : null)
+                .emiOverdue(AllocationView.integer(c.getEmiOverdue()))
+                .mobile(c.getPhone1())
+                .emiDueCount(AllocationView.integer(c.getEmiDueCount()))
+                .bktTag(c.getBktTag())
+                .openingBucket(c.getOpeningBkt())
+                .securitization(c.getSecuritization())
+                .ashvDaPtc(c.getAshvDaPtc())
+                .warrant(c.getWarrant())
+                .coApplicant1Name(c.getCoApplicant1Name())
+                .coApplicant1Mobile(c.getCoApplicant1Mobile())
+                .addressPriority1(c.getAddressPriority1())
+                .addressPriority2(c.getAddressPriority2())
+                .addressPriority3(c.getAddressPriority3())
+                .addressPriority4(c.getAddressPriority4())
+                .build();
+    }
+
+    // Case detail, decoded once through AllocationView
+    public static FieldExecutiveCaseResponse toCase(Allocation a) {
+        AllocationView v = AllocationView.of(a);
+        return FieldExecutiveCaseResponse.builder()
+                .segment(v.getSegment())
+                .location(v.getLocation())
+                .loanNumber(a.getLoanNumber())
+                .customerName(v.getCustomerName())
+                .posInCr(toDouble(v.getPosInCr()))
+                .posAmount(toDouble(v.getPosAmount()))
+                .emi(v.getEmi() != null ? v.getEmi().intValue() : null)
+                .emiOverdue(v.getEmiOverdue())
+                .mobile(v.getMobile())
+                .emiDueCount(v.getEmiDueCount())
+                .bktTag(v.getBktTag())
+                .openingBucket(v.getOpeningBucket())
+                .securitization(v.getSecuritization())
+                .ashvDaPtc(v.getAshvDaPtc())
+                .warrant(v.getWarrant())
+                .coApplicant1Name(v.getCoApplicant1Name())
+                .coApplicant1Mobile(v.getCoApplicant1Mobile())
+                .addressPriority1(v.getAddressPriority1())
+                .addressPriority2(v.getAddressPriority2())
+                .addressPriority3(v.getAddressPriority3())
+                .addressPriority4(v.getAddressPriority4())
+                .build();
+    }
+
+    private static Double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : null;
+    }
+}
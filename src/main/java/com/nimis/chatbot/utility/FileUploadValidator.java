@@ -17,8 +17,14 @@ public class FileUploadValidator {
             throw new IllegalArgumentException("File size exceeds 10MB limit");
         }
 
-        // Check file extension
-        String filename = file.getOriginalFilename();
+        validateFileName(file.getOriginalFilename());
+    }
+
+    /**
+     * Extension check on its own, for chunked uploads that never arrive
+     * as a single MultipartFile.
+     */
+    public static void validateFileName(String filename) throws IllegalArgumentException {
         if (filename == null || filename.isEmpty()) {
             throw new IllegalArgumentException("Invalid filename");
         }
@@ -2,9 +2,8 @@ package com.nimis.chatbot.utility;
 
 import com.nimis.chatbot.dto.response.VisitLogResponseDTO;
 import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.model.entity.AllocationView;
 import com.nimis.chatbot.model.entity.VisitLog;
-import java.math.BigDecimal;
-import java.util.Map;
 
 public class VisitLogMapper {
 
@@ -73,7 +72,7 @@ public class VisitLogMapper {
             VisitLog visitLog,
             Allocation allocation
     ) {
-        Map<String, Object> data = allocation.getAllocationData();
+        AllocationView data = AllocationView.of(allocation);
 
         return VisitLogResponseDTO.builder()
                 .id(visitLog.getId())
@@ -81,19 +80,15 @@ public class VisitLogMapper {
                 // Loan Info from Allocation JSON
                 .allocationId(allocation.getId())
                 .loanNumber(allocation.getLoanNumber())
-                .segment((String) data.get("SEGMENT"))
-                .product((String) data.get("PRODUCT"))
-                .state((String) data.get("STATE"))
-                .branch((String) data.get("BRANCH"))
-                .location((String) data.get("LOCATION"))
-                .customerName((String) data.get("CUSTOMER NAME"))
-                .posInCr(data.get("POS (IN CR)") != null
-                        ? new BigDecimal(data.get("POS (IN CR)").toString())
-                        : null)
-                .emi(data.get("EMI") != null
-                        ? new BigDecimal(data.get("EMI").toString())
-                        : null)
-                .bkt((String) data.get("OPENING BKT"))
+                .segment(data.getSegment())
+                .product(data.getProduct())
+                .state(data.getState())
+                .branch(data.getBranch())
+                .location(data.getLocation())
+                .customerName(data.getCustomerName())
+                .posInCr(data.getPosInCr())
+                .emi(data.getEmi())
+                .bkt(data.getOpeningBucket())
 
                 // Visit Assessment
                 .disp(visitLog.getDisp())
@@ -0,0 +1,6 @@
+-- Trigram matching for allocation search (AllocationRepository.SEARCH).
+-- Its own script so the CONCURRENTLY index builds in V11 can run outside
+-- a transaction. pg_trgm is a trusted extension, so the database owner
+-- can create it.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,13 @@
+-- Trigram indexes behind allocation search: substring (ILIKE '%term%') and
+-- word-similarity (<%) matches on these columns become bitmap index scans
+-- instead of a scan of every row. customer_name and phone_1 are the hot
+-- columns ingestion extracts from allocation_data.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_loan_number_trgm
+    ON loan_allocation USING gin (loan_number gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_customer_name_trgm
+    ON loan_allocation USING gin (customer_name gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_phone_1_trgm
+    ON loan_allocation USING gin (phone_1 gin_trgm_ops);
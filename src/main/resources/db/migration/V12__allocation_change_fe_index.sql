@@ -0,0 +1,7 @@
+-- Version stamp behind conditional GETs of the FO case lists
+-- (AllocationChangeRepository.findLastSeqByFieldExecutiveId): the newest
+-- seq logged for a field executive is one backward step into this index
+-- rather than a scan of their cases.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_allocation_change_fe_seq
+    ON allocation_change (field_executive_id, seq);
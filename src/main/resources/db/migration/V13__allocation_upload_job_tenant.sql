@@ -0,0 +1,7 @@
+-- Upload jobs carry the uploader's bank and vendor so that progress and
+-- error reports are only served back to that tenant. Earlier jobs stay
+-- unowned and are visible to super admins only.
+
+ALTER TABLE allocation_upload_job
+    ADD COLUMN IF NOT EXISTS bank_id bigint,
+    ADD COLUMN IF NOT EXISTS vendor_id bigint;
@@ -0,0 +1,7 @@
+-- Chunked upload sessions carry the uploader's bank and vendor, like the
+-- jobs they hand off to (V13), so other tenants cannot read, append to,
+-- complete or abort them.
+
+ALTER TABLE allocation_upload_session
+    ADD COLUMN IF NOT EXISTS bank_id bigint,
+    ADD COLUMN IF NOT EXISTS vendor_id bigint;
@@ -0,0 +1,27 @@
+-- One-off fill of the typed hot columns (AllocationHotColumns) for
+-- allocations uploaded before ingestion wrote them. Later uploads derive
+-- them on every write. Only rows that have none of the hot values yet but
+-- carry at least one hot key are rewritten, so rows without any of those
+-- keys are left alone. The expressions match AllocationHotColumns as of
+-- this version.
+
+UPDATE loan_allocation
+SET customer_name = left(allocation_data ->> 'CUSTOMER NAME', 255),
+    pos_amount = CASE WHEN allocation_data ->> 'POS Amt' ~ '^\s*-?[0-9]{1,15}(\.[0-9]+)?\s*$'
+                      THEN trim(allocation_data ->> 'POS Amt')::numeric END,
+    location = left(allocation_data ->> 'LOCATION', 255),
+    phone_1 = left(allocation_data ->> 'phone_1', 50),
+    address_priority_1 = allocation_data ->> 'address_priority_1',
+    address_priority_2 = allocation_data ->> 'address_priority_2',
+    address_priority_3 = allocation_data ->> 'address_priority_3',
+    address_priority_4 = allocation_data ->> 'address_priority_4',
+    segment = left(allocation_data ->> 'SEGMENT', 100),
+    emi = CASE WHEN allocation_data ->> 'EMI' ~ '^\s*-?[0-9]{1,15}(\.[0-9]+)?\s*$'
+               THEN trim(allocation_data ->> 'EMI')::numeric END,
+    opening_bkt = left(allocation_data ->> 'OPENING BKT', 50)
+WHERE jsonb_typeof(allocation_data) = 'object'
+  AND customer_name IS NULL AND pos_amount IS NULL AND location IS NULL
+  AND phone_1 IS NULL AND segment IS NULL
+  AND allocation_data ?| ARRAY['CUSTOMER NAME', 'POS Amt', 'LOCATION', 'phone_1',
+                               'address_priority_1', 'address_priority_2', 'address_priority_3',
+                               'address_priority_4', 'SEGMENT', 'EMI', 'OPENING BKT'];
@@ -0,0 +1,334 @@
+-- Schema as Hibernate's ddl-auto=update left it before migrations took over.
+-- Every statement is IF NOT EXISTS so databases created that way can replay it.
+
+CREATE TABLE IF NOT EXISTS banks (
+    id bigint generated by default as identity,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS roles (
+    id bigint generated by default as identity,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS vendors (
+    id bigint generated by default as identity,
+    bank_id bigint not null,
+    name varchar(255) not null,
+    primary key (id),
+    unique (bank_id, name),
+    constraint fk6fgxdqwgfytqrygya9pk2ihuq foreign key (bank_id) references banks
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id bigint generated by default as identity,
+    enabled boolean not null,
+    bank_id bigint,
+    created_at timestamp(6) with time zone not null,
+    vendor_id bigint,
+    email varchar(255) not null unique,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    location varchar(255) not null,
+    organization varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id),
+    constraint fk5bojxnnc5i21rxo5p94ddv4q1 foreign key (bank_id) references banks,
+    constraint fkp3aufrqlptl7jn77avemkbpxr foreign key (vendor_id) references vendors
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    role_id bigint not null,
+    user_id bigint not null,
+    primary key (role_id, user_id),
+    constraint fkh8ciramu9cc9q3qcqiv4ue8a6 foreign key (role_id) references roles,
+    constraint fkhfh9dx7w3ubf1co1vdev94g3f foreign key (user_id) references users
+);
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id bigint generated by default as identity,
+    broadcast boolean not null,
+    created_at timestamp(6) with time zone not null,
+    message varchar(1000) not null,
+    title varchar(255) not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS user_notifications (
+    id bigint generated by default as identity,
+    read boolean not null,
+    notification_id bigint not null,
+    read_at timestamp(6) with time zone,
+    user_id bigint not null,
+    primary key (id),
+    unique (user_id, notification_id),
+    constraint fkovvx0ab3h8s9lrm6fppuadn7d foreign key (notification_id) references notifications,
+    constraint fk9f86wonnl11hos1cuf5fibutl foreign key (user_id) references users
+);
+
+CREATE TABLE IF NOT EXISTS password_reset_otps (
+    id bigint generated by default as identity,
+    attempt_count integer not null,
+    verified boolean not null,
+    created_at timestamp(6) with time zone not null,
+    expiry_date timestamp(6) with time zone not null,
+    user_id bigint not null,
+    ip_address varchar(255),
+    otp varchar(255) not null,
+    primary key (id),
+    constraint fk9c75odu4o05pvbvhn2n9ia0tj foreign key (user_id) references users
+);
+
+CREATE TABLE IF NOT EXISTS loan_allocation (
+    id bigint generated by default as identity,
+    visit_count integer not null,
+    assigned_at timestamp(6),
+    created_at timestamp(6),
+    field_executive_id bigint,
+    last_visited_at timestamp(6),
+    updated_at timestamp(6),
+    status varchar(30),
+    loan_number varchar(255) not null unique,
+    allocation_data jsonb,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS addresses (
+    id bigint generated by default as identity,
+    allocation_id bigint,
+    address_1 varchar(255),
+    address_10 varchar(255),
+    address_2 varchar(255),
+    address_3 varchar(255),
+    address_4 varchar(255),
+    address_5 varchar(255),
+    address_6 varchar(255),
+    address_7 varchar(255),
+    address_8 varchar(255),
+    address_9 varchar(255),
+    address_priority1 varchar(255),
+    address_priority2 varchar(255),
+    address_priority3 varchar(255),
+    address_priority4 varchar(255),
+    address_priority5 varchar(255),
+    address_priority6 varchar(255),
+    address_priority7 varchar(255),
+    address_priority8 varchar(255),
+    business_pin_code varchar(255),
+    main_pin_code varchar(255),
+    residence_pin_code varchar(255),
+    primary key (id),
+    constraint fk9jj9eyn0gkp5m4nq6pqdifrn3 foreign key (allocation_id) references loan_allocation
+);
+
+CREATE TABLE IF NOT EXISTS agency_details (
+    id bigint generated by default as identity,
+    allocation_id bigint unique,
+    agency_code varchar(255),
+    agency_name varchar(255),
+    manager_emp_id varchar(255),
+    manager_name varchar(255),
+    zm_emp_id varchar(255),
+    zonal_manager varchar(255),
+    primary key (id),
+    constraint fk42uw6jry6qlscgcv8u7sv7frr foreign key (allocation_id) references loan_allocation
+);
+
+CREATE TABLE IF NOT EXISTS bank_accounts (
+    id bigint generated by default as identity,
+    allocation_id bigint,
+    account_holder1 varchar(255),
+    account_holder2 varchar(255),
+    account_holder3 varchar(255),
+    account_number1 varchar(255),
+    account_number2 varchar(255),
+    account_number3 varchar(255),
+    bank_name1 varchar(255),
+    bank_name2 varchar(255),
+    bank_name3 varchar(255),
+    ifsc_code1 varchar(255),
+    ifsc_code2 varchar(255),
+    ifsc_code3 varchar(255),
+    primary key (id),
+    constraint fka4r53g6tlm8aq4vm9ym62esr5 foreign key (allocation_id) references loan_allocation
+);
+
+CREATE TABLE IF NOT EXISTS customers (
+    id bigint generated by default as identity,
+    dob_co_app date,
+    dob_main_app date,
+    allocation_id bigint,
+    co_applicant_mobile varchar(255),
+    co_applicant_name varchar(255),
+    main_applicant_mobile varchar(255),
+    main_applicant_name varchar(255),
+    pan_co_app varchar(255),
+    pan_main_app varchar(255),
+    relation_with_main_applicant varchar(255),
+    primary key (id),
+    constraint fkb0k8fbhnnckpmyy51mm6dg3cd foreign key (allocation_id) references loan_allocation
+);
+
+CREATE TABLE IF NOT EXISTS legal_cases (
+    id bigint generated by default as identity,
+    arbitration_filing_date date,
+    arbitration_invocation_date1 date,
+    arbitration_invocation_date2 date,
+    arbitration_listing_date date,
+    bw_reissued_collection_date date,
+    bw_reissued_date date,
+    bw_warrant_post_date date,
+    case_withdrawal_date date,
+    claim_amount numeric(38,2),
+    filing_confirmation_date date,
+    filing_date date,
+    letter_to_arbitrator_date date,
+    listing_date date,
+    nodh date,
+    non_bailable_warrant_reissue_collection_date date,
+    non_bailable_warrant_reissued_date date,
+    notice_date date,
+    sec138filing_date date,
+    sec138ldoh date,
+    sec138listing_date date,
+    sec138ndoh date,
+    sec17order_date date,
+    sec25ldoh date,
+    sec25ndoh date,
+    sec420filing_date date,
+    sec420ldoh date,
+    sec420listing_date date,
+    sec420ndoh date,
+    secondary_claim_amount numeric(38,2),
+    stage1hearing_on date,
+    stage3hearing_on date,
+    stage4bailable_warrant_date date,
+    stage5attachment_issued_date date,
+    stage5non_bailable_warrant_date date,
+    stage5proclamation_issued_date date,
+    stage6non_bailable_reissue_date date,
+    stage7non_bailable_reissue_date date,
+    stage8non_bailable_reissue_date date,
+    tentative_freeze_date date,
+    tentative_reference_date date,
+    allocation_id bigint,
+    advocate_contact varchar(255),
+    advocate_name varchar(255),
+    advocate_on_record varchar(255),
+    authorized_officer varchar(255),
+    case_number varchar(255),
+    case_type varchar(255),
+    court_forum varchar(255),
+    court_location varchar(255),
+    location_filing varchar(255),
+    lrn1 varchar(255),
+    lrn2 varchar(255),
+    lrn3 varchar(255),
+    lrn_month2 varchar(255),
+    lrn_month3 varchar(255),
+    month_last_notice varchar(255),
+    month_of_notice varchar(255),
+    process_stage varchar(255),
+    relief varchar(255),
+    remarks text,
+    revised_stage varchar(255),
+    sec138filed varchar(255),
+    sec138process_stage varchar(255),
+    sec25filed varchar(255),
+    sec25process_stage varchar(255),
+    sec420process_stage varchar(255),
+    stage1verification varchar(255),
+    stage2summons_stage varchar(255),
+    stage2summons_status varchar(255),
+    stage3appearance varchar(255),
+    stage4bailable_warrant_status varchar(255),
+    stage5attachment_collected_status varchar(255),
+    stage5attachment_status varchar(255),
+    stage5non_bailable_warrant_collected_status varchar(255),
+    stage5non_bailable_warrant_status varchar(255),
+    stage5proclamation_collected_status varchar(255),
+    stage5proclamation_status varchar(255),
+    stage6non_bailable_reissue_status varchar(255),
+    stage7non_bailable_reissue_status varchar(255),
+    stage8non_bailable_reissue_status varchar(255),
+    primary key (id),
+    constraint fkhscmm8jxqjo7qvnbllgh6pxnm foreign key (allocation_id) references loan_allocation
+);
+
+CREATE TABLE IF NOT EXISTS phones (
+    id bigint generated by default as identity,
+    allocation_id bigint,
+    phone_1 varchar(255),
+    phone_10 varchar(255),
+    phone_2 varchar(255),
+    phone_3 varchar(255),
+    phone_4 varchar(255),
+    phone_5 varchar(255),
+    phone_6 varchar(255),
+    phone_7 varchar(255),
+    phone_8 varchar(255),
+    phone_9 varchar(255),
+    primary key (id),
+    constraint fkh9s9ffbg9xtly8hsukwa78pac foreign key (allocation_id) references loan_allocation
+);
+
+CREATE TABLE IF NOT EXISTS visit_log (
+    id bigint generated by default as identity,
+    amount numeric(38,2),
+    created_date date not null,
+    distance_from_expected_location double precision,
+    emi numeric(38,2),
+    gps_accuracy double precision,
+    gps_altitude double precision,
+    latitude double precision,
+    longitude double precision,
+    pos_in_cr numeric(38,2),
+    ptp_date date,
+    visit_date date not null,
+    allocation_id bigint,
+    approved_at timestamp(6),
+    deposited_at timestamp(6),
+    gps_captured_at timestamp(6),
+    submitted_at timestamp(6),
+    user_id bigint not null,
+    collection_status varchar(50),
+    visit_status varchar(50),
+    approved_by varchar(100),
+    rejection_reason varchar(500),
+    bkt varchar(255),
+    branch varchar(255),
+    classification_code varchar(255) check (classification_code in ('WORKABLE_1_INHOUSE_FIELD', 'WORKABLE_3_HARD_ACCOUNTS_LEGAL_AGGRESSIVE', 'NON_WORKABLE_NC_SKIP')),
+    contactability varchar(255) check (contactability in ('CONTACTED_AT_RESIDENCE', 'CONTACTABLE_AT_BOTH_PLACES', 'NON_CONTACTABLE', 'CONTACTED_AT_OFFICE', 'CONTACTABLE_ON_PHONE_ONLY')),
+    created_by varchar(255) not null,
+    customer_name varchar(255),
+    customer_profile varchar(255),
+    disp varchar(255) check (disp in ('PAID', 'RTP', 'NC_SKIP', 'PTP', 'FOLLOW_UP')),
+    field_update_feedback text,
+    gps_address text,
+    loan_number varchar(255),
+    location varchar(255),
+    office_status varchar(255) check (office_status in ('ADDRESS_NOT_TRACED', 'BUSINESS_CLOSED', 'ACTIVE_BUSINESS_SAME_PLACE', 'BUSINESS_RUNNING_SAME_PLACE', 'ACTIVE')),
+    product varchar(255),
+    projection varchar(255),
+    reason_for_default varchar(255) check (reason_for_default in ('BUSINESS_CLOSED', 'CUSTOMER_ABSCONDING', 'BUSINESS_SLOW_DOWN', 'TEMPORARY_FINANCIAL_PROBLEM', 'CUSTOMER_ABSCONDING_NC_SKIP', 'INTENTIONAL_DEFAULTER')),
+    residence_status varchar(255) check (residence_status in ('AVAILABLE', 'LOCKED', 'SHIFTED_NEW_ADDRESS_NOT_AVAILABLE', 'AVAILABLE_AND_RESIDING', 'RESIDING', 'ADDRESS_NOT_TRACED', 'ONLY_FAMILY_MEMBERS_RESIDING')),
+    segment varchar(255),
+    state varchar(255),
+    visit_image_path varchar(255),
+    primary key (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_otp ON password_reset_otps (otp);
+CREATE INDEX IF NOT EXISTS idx_user_id ON password_reset_otps (user_id);
+CREATE INDEX IF NOT EXISTS idx_expiry ON password_reset_otps (expiry_date);
+CREATE INDEX IF NOT EXISTS idx_users_bank_id ON users (bank_id);
+CREATE INDEX IF NOT EXISTS idx_users_vendor_id ON users (vendor_id);
+CREATE INDEX IF NOT EXISTS idx_allocation_id ON visit_log (allocation_id);
+CREATE INDEX IF NOT EXISTS idx_created_by ON visit_log (created_by);
+CREATE INDEX IF NOT EXISTS idx_visit_date ON visit_log (visit_date);
+CREATE INDEX IF NOT EXISTS idx_collection_status ON visit_log (collection_status);
+CREATE INDEX IF NOT EXISTS idx_latitude_longitude ON visit_log (latitude, longitude);
@@ -0,0 +1,106 @@
+-- Upload pipeline: content hashes and typed columns on loan_allocation,
+-- upload jobs, resumable sessions, per-row errors, the column type registry
+-- and the COPY staging table.
+
+ALTER TABLE loan_allocation
+    ADD COLUMN IF NOT EXISTS content_hash varchar(64),
+    ADD COLUMN IF NOT EXISTS customer_name varchar(255),
+    ADD COLUMN IF NOT EXISTS pos_amount numeric(38,2),
+    ADD COLUMN IF NOT EXISTS location varchar(255),
+    ADD COLUMN IF NOT EXISTS phone_1 varchar(50),
+    ADD COLUMN IF NOT EXISTS address_priority_1 text,
+    ADD COLUMN IF NOT EXISTS address_priority_2 text,
+    ADD COLUMN IF NOT EXISTS address_priority_3 text,
+    ADD COLUMN IF NOT EXISTS address_priority_4 text,
+    ADD COLUMN IF NOT EXISTS segment varchar(100),
+    ADD COLUMN IF NOT EXISTS emi numeric(38,2),
+    ADD COLUMN IF NOT EXISTS opening_bkt varchar(50);
+
+CREATE TABLE IF NOT EXISTS allocation_column (
+    name varchar(255) not null,
+    updated_at timestamp(6),
+    type varchar(20) not null check (type in ('INTEGER', 'DECIMAL', 'DATE', 'BOOLEAN', 'TEXT')),
+    primary key (name)
+);
+
+CREATE TABLE IF NOT EXISTS allocation_upload_job (
+    id bigint generated by default as identity,
+    checkpoint_row integer not null,
+    chunks_committed integer not null,
+    duplicate_loan_numbers integer,
+    failed integer,
+    inserted integer,
+    last_row integer,
+    run_start_row integer,
+    skipped integer,
+    unchanged integer,
+    updated integer,
+    created_at timestamp(6),
+    finished_at timestamp(6),
+    peak_heap_bytes bigint,
+    started_at timestamp(6),
+    updated_at timestamp(6),
+    engine varchar(10),
+    status varchar(30) not null,
+    spool_path varchar(500),
+    error_message varchar(1000),
+    file_name varchar(255),
+    uploaded_by varchar(255),
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS allocation_upload_error (
+    id bigint generated by default as identity,
+    row_number integer not null,
+    job_id bigint not null,
+    reason varchar(500),
+    loan_number varchar(255),
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS allocation_upload_session (
+    id varchar(36) not null,
+    part_count integer not null,
+    created_at timestamp(6),
+    job_id bigint,
+    part_size bigint not null,
+    total_size bigint not null,
+    updated_at timestamp(6),
+    status varchar(30) not null,
+    sha256 varchar(64),
+    spool_path varchar(500),
+    file_name varchar(255),
+    uploaded_by varchar(255),
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS allocation_upload_part (
+    id bigint generated by default as identity,
+    part_number integer not null,
+    received_at timestamp(6),
+    size bigint not null,
+    session_id varchar(36) not null,
+    sha256 varchar(64) not null,
+    primary key (id),
+    constraint uk_upload_part_session_part unique (session_id, part_number)
+);
+
+CREATE INDEX IF NOT EXISTS idx_addresses_allocation ON addresses (allocation_id);
+CREATE INDEX IF NOT EXISTS idx_upload_error_job_row ON allocation_upload_error (job_id, row_number);
+CREATE INDEX IF NOT EXISTS idx_upload_job_status ON allocation_upload_job (status);
+CREATE INDEX IF NOT EXISTS idx_bank_accounts_allocation ON bank_accounts (allocation_id);
+CREATE INDEX IF NOT EXISTS idx_customers_allocation ON customers (allocation_id);
+CREATE INDEX IF NOT EXISTS idx_legal_cases_allocation ON legal_cases (allocation_id);
+CREATE INDEX IF NOT EXISTS idx_phones_allocation ON phones (allocation_id);
+
+-- Work table for the COPY load engine; rows live only inside one chunk's transaction
+CREATE UNLOGGED TABLE IF NOT EXISTS allocation_staging (
+    batch_id bigint not null,
+    loan_number varchar(255) not null,
+    allocation_data jsonb,
+    content_hash varchar(64)
+);
+
+CREATE INDEX IF NOT EXISTS idx_allocation_staging_batch ON allocation_staging (batch_id);
+
+CREATE SEQUENCE IF NOT EXISTS allocation_staging_batch_seq;
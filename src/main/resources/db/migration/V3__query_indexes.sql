@@ -0,0 +1,46 @@
+-- Indexes matched to the repository methods behind the dashboards.
+-- Built CONCURRENTLY so they don't block uploads on a live database; Flyway
+-- runs a script made only of these outside a transaction. Every later
+-- index script is built the same way and kept apart from schema changes.
+
+-- AllocationRepository.findByFieldExecutiveIdAndStatusIn / findCaseSummaries /
+-- findByFieldExecutiveIdAndStatus / countByFieldExecutiveId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_fe_status
+    ON loan_allocation (field_executive_id, status);
+
+-- FO and vendor dashboards: the open statuses only
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_fe_open
+    ON loan_allocation (field_executive_id)
+    WHERE status IN ('ASSIGNED', 'VISITED', 'PROMISE_TO_PAY');
+
+-- AllocationRepository.findByStatusIn / findCaseSummariesByStatusIn / countByStatus
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_status
+    ON loan_allocation (status);
+
+-- AllocationRepository.findByFieldExecutiveIdIsNull / countByFieldExecutiveIdIsNull
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_unassigned
+    ON loan_allocation (id)
+    WHERE field_executive_id IS NULL;
+
+-- Containment filters on arbitrary upload keys: allocation_data @> '{"KEY": "value"}'.
+-- Keys read on every request are typed columns instead (see AllocationHotColumns).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_data
+    ON loan_allocation USING gin (allocation_data jsonb_path_ops);
+
+-- VisitLogRepository.findByUserId / findByUserIdAndCollectionStatusIn
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_visit_log_user_status
+    ON visit_log (user_id, collection_status);
+
+-- VisitLogRepository.findUserVisitsWithGPS
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_visit_log_user_gps
+    ON visit_log (user_id, gps_captured_at DESC)
+    WHERE latitude IS NOT NULL AND longitude IS NOT NULL;
+
+-- BankAdminService: findByCollectionStatus("PENDING_APPROVAL")
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_visit_log_pending_approval
+    ON visit_log (created_date)
+    WHERE collection_status = 'PENDING_APPROVAL';
+
+-- VisitLogRepository.findSubmittedVisitsBetween
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_visit_log_submitted_at
+    ON visit_log (submitted_at);
@@ -0,0 +1,76 @@
+-- Upload header alias registry, seeded with the variants readers used to
+-- probe for, and a one-off rename of stored allocation_data keys to the
+-- canonical spelling so readers can drop their case-insensitive scans.
+
+CREATE TABLE IF NOT EXISTS allocation_key_alias (
+    id bigint generated by default as identity,
+    bank_id bigint,
+    alias varchar(255) not null,
+    canonical_key varchar(255) not null,
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_allocation_key_alias_bank_alias unique (bank_id, alias)
+);
+
+-- Shared aliases (bank_id NULL), stored normalized: trimmed, single spaces, lower case
+INSERT INTO allocation_key_alias (bank_id, alias, canonical_key, updated_at)
+SELECT NULL, v.alias, v.canonical_key, now()
+FROM (VALUES
+    ('loan number', 'LOANNUMBER'),
+    ('loan_number', 'LOANNUMBER'),
+    ('loan no', 'LOANNUMBER'),
+    ('pos_in_cr', 'POS (IN CR)'),
+    ('pos in cr', 'POS (IN CR)'),
+    ('pos_amt', 'POS Amt'),
+    ('pos', 'POS Amt')
+) AS v(alias, canonical_key)
+WHERE NOT EXISTS (
+    SELECT 1 FROM allocation_key_alias a WHERE a.bank_id IS NULL AND a.alias = v.alias
+);
+
+-- Normalized spelling -> canonical key: the canonical keys themselves plus the shared aliases
+CREATE TEMPORARY TABLE allocation_key_map ON COMMIT DROP AS
+SELECT lower(k) AS alias, k AS canonical_key
+FROM unnest(ARRAY[
+    'LOANNUMBER', 'SEGMENT', 'PRODUCT', 'STATE', 'BRANCH', 'LOCATION', 'CUSTOMER NAME',
+    'POS (IN CR)', 'POS Amt', 'EMI', 'Emi Overdue', 'phone_1', 'Count Of Emi Due NOV',
+    'BKT TAG', 'OPENING BKT', 'SECURITIZATION', 'ASHV DA/PTC', 'Warrant',
+    'Co_Applicant1_Name', 'Co_Applicant1_Mobile_No',
+    'address_priority_1', 'address_priority_2', 'address_priority_3', 'address_priority_4'
+]) AS k
+UNION ALL
+SELECT alias, canonical_key FROM allocation_key_alias WHERE bank_id IS NULL;
+
+-- A key is renamed only when its canonical key is not already in the row;
+-- the typed hot columns are re-derived from the renamed data
+UPDATE loan_allocation la
+SET allocation_data = renamed.data,
+    customer_name = left(renamed.data ->> 'CUSTOMER NAME', 255),
+    pos_amount = CASE WHEN renamed.data ->> 'POS Amt' ~ '^\s*-?[0-9]{1,15}(\.[0-9]+)?\s*$'
+                      THEN trim(renamed.data ->> 'POS Amt')::numeric END,
+    location = left(renamed.data ->> 'LOCATION', 255),
+    phone_1 = left(renamed.data ->> 'phone_1', 50),
+    address_priority_1 = renamed.data ->> 'address_priority_1',
+    address_priority_2 = renamed.data ->> 'address_priority_2',
+    address_priority_3 = renamed.data ->> 'address_priority_3',
+    address_priority_4 = renamed.data ->> 'address_priority_4',
+    segment = left(renamed.data ->> 'SEGMENT', 100),
+    emi = CASE WHEN renamed.data ->> 'EMI' ~ '^\s*-?[0-9]{1,15}(\.[0-9]+)?\s*$'
+               THEN trim(renamed.data ->> 'EMI')::numeric END,
+    opening_bkt = left(renamed.data ->> 'OPENING BKT', 50)
+FROM (
+    SELECT la2.id,
+           jsonb_object_agg(
+               CASE WHEN m.canonical_key IS NOT NULL AND NOT la2.allocation_data ? m.canonical_key
+                    THEN m.canonical_key ELSE e.key END,
+               e.value ORDER BY e.key) AS data
+    FROM loan_allocation la2
+    CROSS JOIN LATERAL jsonb_each(la2.allocation_data) e
+    LEFT JOIN allocation_key_map m
+           ON m.alias = lower(regexp_replace(btrim(e.key), '\s+', ' ', 'g'))
+          AND m.canonical_key <> e.key
+    WHERE jsonb_typeof(la2.allocation_data) = 'object'
+    GROUP BY la2.id
+    HAVING bool_or(m.canonical_key IS NOT NULL AND NOT la2.allocation_data ? m.canonical_key)
+) renamed
+WHERE la.id = renamed.id;
@@ -0,0 +1,21 @@
+-- Append-only allocation change log. Consumers read it with seq as the
+-- cursor (see AllocationChangeLog for why seq order is commit order).
+
+CREATE TABLE IF NOT EXISTS allocation_change (
+    seq bigint generated by default as identity,
+    allocation_id bigint not null,
+    loan_number varchar(255) not null,
+    change_type varchar(20) not null check (change_type in ('CREATED', 'UPDATED', 'ASSIGNED', 'UNASSIGNED')),
+    status varchar(30),
+    field_executive_id bigint,
+    changed_at timestamp(6) not null,
+    primary key (seq)
+);
+
+-- Open the log with every existing allocation, so a consumer starting
+-- from cursor 0 gets the full set
+INSERT INTO allocation_change (allocation_id, loan_number, change_type, status, field_executive_id, changed_at)
+SELECT a.id, a.loan_number, 'CREATED', a.status, a.field_executive_id, coalesce(a.updated_at, a.created_at, now())
+FROM loan_allocation a
+WHERE NOT EXISTS (SELECT 1 FROM allocation_change)
+ORDER BY a.id;
@@ -0,0 +1,25 @@
+-- Tenant ownership of allocations: the bank and vendor of the uploader,
+-- also carried on the change log so consumers can be scoped the same way.
+
+ALTER TABLE loan_allocation
+    ADD COLUMN IF NOT EXISTS bank_id bigint,
+    ADD COLUMN IF NOT EXISTS vendor_id bigint;
+
+ALTER TABLE allocation_change
+    ADD COLUMN IF NOT EXISTS bank_id bigint,
+    ADD COLUMN IF NOT EXISTS vendor_id bigint;
+
+-- Rows uploaded before ownership existed cannot be traced to an uploader.
+-- A single-bank deployment owns all of them; otherwise they stay unowned
+-- (visible to super admins only) until re-uploaded by their bank.
+UPDATE loan_allocation
+SET bank_id = (SELECT min(id) FROM banks)
+WHERE bank_id IS NULL
+  AND (SELECT count(*) FROM banks) = 1;
+
+UPDATE allocation_change c
+SET bank_id = a.bank_id
+FROM loan_allocation a
+WHERE c.allocation_id = a.id
+  AND c.bank_id IS NULL
+  AND a.bank_id IS NOT NULL;
@@ -0,0 +1,18 @@
+-- Tenant-leading indexes for the scoped repository methods.
+
+-- AllocationRepository.findCaseSummariesByBankIdAndStatusIn / findByBankIdAndStatusIn /
+-- countByBankIdAndStatus / findByBankIdAndStatusOrderByCreatedAtDesc / countByBankId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_bank_status
+    ON loan_allocation (bank_id, status);
+
+-- The same for a vendor
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_vendor_status
+    ON loan_allocation (vendor_id, status);
+
+-- AllocationChangeRepository.findByBankIdAndSeqGreaterThanOrderBySeq
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_allocation_change_bank_seq
+    ON allocation_change (bank_id, seq);
+
+-- AllocationChangeRepository.findByVendorIdAndSeqGreaterThanOrderBySeq
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_allocation_change_vendor_seq
+    ON allocation_change (vendor_id, seq);
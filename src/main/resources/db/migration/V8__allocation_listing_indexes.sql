@@ -0,0 +1,28 @@
+-- Keyset indexes for GET /api/allocations (AllocationSpecifications.listing):
+-- each ends in id, so "filters AND id > cursor ORDER BY id LIMIT n" is a
+-- range scan that starts at the cursor however deep the page is. Other
+-- filters (location, segment, bucket, POS range) are checked on the rows
+-- these indexes return.
+
+-- A bank's or vendor's allocations, unfiltered
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_bank_id
+    ON loan_allocation (bank_id, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_vendor_id
+    ON loan_allocation (vendor_id, id);
+
+-- Filtered by status. Also serves everything the V7 (tenant, status)
+-- indexes did, so those are replaced rather than kept alongside.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_bank_status_id
+    ON loan_allocation (bank_id, status, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_vendor_status_id
+    ON loan_allocation (vendor_id, status, id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_loan_allocation_bank_status;
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_loan_allocation_vendor_status;
+
+-- Filtered by field executive; their cases belong to one tenant
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_allocation_fe_id
+    ON loan_allocation (field_executive_id, id);
@@ -0,0 +1,9 @@
+-- A JSONB value as the text the application shows (AllocationView.text):
+-- strings as they are, numbers without trailing zeros, so a spreadsheet
+-- 9700000000.0 reads "9700000000". Used by the SQL case projections.
+
+CREATE OR REPLACE FUNCTION jsonb_text(value jsonb) RETURNS text
+LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS $$
+    SELECT CASE WHEN jsonb_typeof(value) = 'number' THEN trim_scale(value::numeric)::text
+                ELSE value #>> '{}' END
+$$;
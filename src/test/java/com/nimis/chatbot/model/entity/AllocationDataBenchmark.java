@@ -0,0 +1,74 @@
+package com.nimis.chatbot.model.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retained heap of allocation_data held in memory as Jackson's default
+ * LinkedHashMap against AllocationData, for rows decoded from the same
+ * JSON text Hibernate reads. Every row has the same 100 keys, as rows of
+ * one upload do.
+ *
+ * Not part of the normal build. Run with:
+ * mvn test -Dtest=AllocationDataBenchmark -Dbenchmark=true [-Dbenchmark.rows=100000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AllocationDataBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int KEYS = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void retainedHeap() throws Exception {
+        List<String> json = json();
+
+        measure("linked map", json, LinkedHashMap.class);
+        measure("compact", json, AllocationData.class);
+        measure("linked map", json, LinkedHashMap.class);
+        measure("compact", json, AllocationData.class);
+    }
+
+    private void measure(String name, List<String> json, Class<?> type) throws Exception {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        List<Object> rows = new ArrayList<>(json.size());
+        for (String row : json) {
+            rows.add(objectMapper.readValue(row, type));
+        }
+        long nanos = System.nanoTime() - start;
+        long retained = usedHeap() - before;
+        System.out.printf("%-11s rows=%,d retained=%,d KB (%,d B/row) decode=%,d ns/row (%d)%n",
+                name, rows.size(), retained / 1024, retained / rows.size(), nanos / rows.size(),
+                ((Map<?, ?>) rows.get(rows.size() - 1)).size());
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private List<String> json() throws Exception {
+        List<String> json = new ArrayList<>(ROWS);
+        for (int r = 0; r < ROWS; r++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("LOANNUMBER", "LN" + r);
+            for (int c = 1; c < KEYS; c++) {
+                data.put("COLUMN " + c, c % 3 == 0 ? (Object) (r * 10.5 + c) : c % 3 == 1 ? (Object) (r + c) : "v" + c);
+            }
+            json.add(objectMapper.writeValueAsString(data));
+        }
+        return json;
+    }
+}
@@ -0,0 +1,61 @@
+package com.nimis.chatbot.model.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationDataTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsLikeTheMapJacksonWouldBuild() throws Exception {
+        String json = """
+                {"LOANNUMBER": "LN1", "POS Amt": 125000.5, "EMI": 4500, "Warrant": null,
+                 "tags": ["a", "b"], "nested": {"x": 1}}""";
+
+        AllocationData data = objectMapper.readValue(json, AllocationData.class);
+        Map<?, ?> plain = objectMapper.readValue(json, LinkedHashMap.class);
+
+        assertEquals(plain, data);
+        assertEquals(plain.hashCode(), data.hashCode());
+        assertEquals(List.copyOf(plain.keySet()), List.copyOf(data.keySet()));
+        assertEquals(125000.5, data.get("POS Amt"));
+        assertEquals(List.of("a", "b"), data.get("tags"));
+        assertTrue(data.containsKey("Warrant"));
+        assertNull(data.get("Warrant"));
+        assertFalse(data.containsKey("SEGMENT"));
+        assertEquals(objectMapper.writeValueAsString(plain), objectMapper.writeValueAsString(data));
+    }
+
+    @Test
+    void rowsWithTheSameKeysShareASchema() throws Exception {
+        AllocationData first = objectMapper.readValue("{\"A\": 1, \"B\": \"x\"}", AllocationData.class);
+        AllocationData second = objectMapper.readValue("{\"A\": 2, \"B\": \"y\"}", AllocationData.class);
+        AllocationData reordered = objectMapper.readValue("{\"B\": \"y\", \"A\": 2}", AllocationData.class);
+
+        assertTrue(first.sharesSchemaWith(second));
+        assertFalse(first.sharesSchemaWith(reordered));
+        assertEquals(second, reordered);
+        assertEquals(2, second.get("A"));
+    }
+
+    @Test
+    void copiesAndRejectsWrites() throws Exception {
+        Map<String, Object> source = new LinkedHashMap<>();
+        source.put("A", 1);
+        source.put("B", null);
+
+        AllocationData data = AllocationData.copyOf(source);
+
+        assertEquals(source, data);
+        assertSame(data, AllocationData.copyOf(data));
+        assertTrue(objectMapper.readValue("{}", AllocationData.class).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> data.put("C", 3));
+    }
+}
@@ -0,0 +1,43 @@
+package com.nimis.chatbot.model.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationViewTest {
+
+    @Test
+    void decodesTypedAndTextValues() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("CUSTOMER NAME", "Asha");
+        data.put("POS Amt", 125000.5);
+        data.put("POS (IN CR)", " 0.0125 ");
+        data.put("EMI", "4500");
+        data.put("Emi Overdue", 3L);
+        data.put("Count Of Emi Due NOV", "-");
+        data.put("phone_1", 9876543210.0);
+
+        AllocationView view = AllocationView.of(data);
+
+        assertEquals("Asha", view.getCustomerName());
+        assertEquals(new BigDecimal("125000.5"), view.getPosAmount());
+        assertEquals(new BigDecimal("0.0125"), view.getPosInCr());
+        assertEquals(new BigDecimal("4500"), view.getEmi());
+        assertEquals(3, view.getEmiOverdue());
+        assertNull(view.getEmiDueCount());
+        assertEquals("9876543210", view.getMobile());
+        assertNull(view.getSegment());
+    }
+
+    @Test
+    void missingDataIsAnEmptyView() {
+        AllocationView view = AllocationView.of((Map<String, Object>) null);
+
+        assertNull(view.getCustomerName());
+        assertNull(view.getEmi());
+    }
+}
@@ -0,0 +1,152 @@
+package com.nimis.chatbot.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bytes transferred and heap allocated per list request, with and without
+ * allocation_data in the select list: the column set Hibernate fetched
+ * for Allocation before the payload was made lazy, against the one it
+ * fetches now. The payload is decoded into a map as Hibernate's JSON
+ * mapping does. The FO case list is measured the same way: entities
+ * with payload, as it was read before, against the AllocationCaseRow
+ * projection (AllocationRepository.CASE_ROWS). Rows use BENCH-LIST- loan
+ * numbers and are deleted afterwards.
+ *
+ * Not part of the normal build. Run with:
+ * mvn test -Dtest=AllocationListQueryBenchmark -Dbenchmark=true
+ *     -Dbenchmark.jdbcUrl=jdbc:postgresql://localhost:5432/recoverpro
+ *     -Dbenchmark.user=... -Dbenchmark.password=... [-Dbenchmark.rows=5000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AllocationListQueryBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5_000);
+    private static final int KEYS = 120;
+    private static final int ROUNDS = 20;
+
+    private static final String HEADER = """
+            id, loan_number, content_hash, customer_name, pos_amount, location, phone_1,
+            address_priority_1, address_priority_2, address_priority_3, address_priority_4,
+            segment, emi, opening_bkt, bank_id, vendor_id, field_executive_id, status,
+            assigned_at, last_visited_at, visit_count, created_at, updated_at""";
+    private static final String WHERE = " FROM loan_allocation WHERE loan_number LIKE 'BENCH-LIST-%'";
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {};
+
+    private static JdbcTemplate jdbcTemplate;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void connect() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("benchmark.jdbcUrl", "jdbc:postgresql://localhost:5432/recoverpro"),
+                System.getProperty("benchmark.user", "postgres"),
+                System.getProperty("benchmark.password", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        cleanUp();
+        jdbcTemplate.update("""
+                INSERT INTO loan_allocation (loan_number, allocation_data, customer_name, status, visit_count, created_at)
+                SELECT 'BENCH-LIST-' || g,
+                       (SELECT jsonb_object_agg('COLUMN ' || c, 'value ' || g || '-' || c) FROM generate_series(1, ?) c)
+                           || jsonb_build_object('POS (IN CR)', 0.0125, 'Emi Overdue', '2', 'Count Of Emi Due NOV', 3,
+                                  'BKT TAG', 'B1', 'SECURITIZATION', 'NO', 'ASHV DA/PTC', 'NA', 'Warrant', 'N',
+                                  'Co_Applicant1_Name', 'Co ' || g, 'Co_Applicant1_Mobile_No', 9700000000.0),
+                       'Customer ' || g, 'ASSIGNED', 0, now()
+                FROM generate_series(1, ?) g
+                """, KEYS, ROWS);
+    }
+
+    @AfterAll
+    static void cleanUp() {
+        jdbcTemplate.update("DELETE FROM allocation_change WHERE loan_number LIKE 'BENCH-LIST-%'");
+        jdbcTemplate.update("DELETE FROM loan_allocation WHERE loan_number LIKE 'BENCH-LIST-%'");
+    }
+
+    @Test
+    void listQuery() {
+        run("with payload", "SELECT " + HEADER + ", allocation_data" + WHERE, sql -> read(sql, true));
+        run("header only", "SELECT " + HEADER + WHERE, sql -> read(sql, false));
+    }
+
+    @Test
+    void caseList() {
+        run("entities", "SELECT " + HEADER + ", allocation_data" + WHERE, sql -> read(sql, true));
+        run("projection", AllocationRepository.CASE_ROWS + "WHERE a.loan_number LIKE 'BENCH-LIST-%'", this::readRows);
+    }
+
+    private void run(String name, String sql, ToLongFunction<String> reader) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytes = 0;
+        for (int i = 0; i < 3; i++) {
+            bytes = reader.applyAsLong(sql);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            reader.applyAsLong(sql);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000 / ROUNDS;
+        long heap = (threads.getCurrentThreadAllocatedBytes() - allocated) / ROUNDS;
+        System.out.printf("%-13s rows=%,d transferred=%,d KB heap=%,d KB (%,d B/row) %d ms/request%n",
+                name, ROWS, bytes / 1024, heap / 1024, heap / ROWS, millis);
+    }
+
+    /**
+     * Reads every row as the entity mapping would and returns the bytes
+     * of the column values received.
+     */
+    private long read(String sql, boolean payload) {
+        long[] bytes = {0};
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            int columns = rs.getMetaData().getColumnCount();
+            for (int c = 1; c <= columns; c++) {
+                byte[] value = rs.getBytes(c);
+                if (value != null) bytes[0] += value.length;
+            }
+            rs.getLong("id");
+            rs.getString("loan_number");
+            rs.getString("customer_name");
+            rs.getString("status");
+            rs.getTimestamp("created_at");
+            if (payload) {
+                decode(rs.getString("allocation_data"));
+            }
+        });
+        return bytes[0];
+    }
+
+    // Every column as the projection proxy reads it
+    private long readRows(String sql) {
+        long[] bytes = {0};
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            int columns = rs.getMetaData().getColumnCount();
+            for (int c = 1; c <= columns; c++) {
+                byte[] value = rs.getBytes(c);
+                if (value != null) bytes[0] += value.length;
+                rs.getObject(c);
+            }
+        });
+        return bytes[0];
+    }
+
+    private static Map<String, Object> decode(String json) throws SQLException {
+        try {
+            return objectMapper.readValue(json, MAP);
+        } catch (Exception e) {
+            throw new SQLException(e);
+        }
+    }
+}
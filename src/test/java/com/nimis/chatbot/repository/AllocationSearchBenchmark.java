@@ -0,0 +1,101 @@
+package com.nimis.chatbot.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+/**
+ * Latency of AllocationRepository.search over the trigram indexes, for the
+ * kinds of text agents type: a full loan number, its tail, phone digits, a
+ * surname, a misspelt surname and a misspelt full name. Rows get names
+ * drawn from 30 first names and 40 surnames, so a surname matches about
+ * 2.5% of them. Needs a database migrated to V11. Rows use BENCH-SEARCH-
+ * loan numbers and are deleted afterwards.
+ *
+ * Not part of the normal build. Run with:
+ * mvn test -Dtest=AllocationSearchBenchmark -Dbenchmark=true
+ *     -Dbenchmark.jdbcUrl=jdbc:postgresql://localhost:5432/recoverpro
+ *     -Dbenchmark.user=... -Dbenchmark.password=... [-Dbenchmark.rows=1000000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AllocationSearchBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int ROUNDS = 20;
+
+    private static final String SQL = "WITH scoped AS NOT MATERIALIZED (SELECT * FROM loan_allocation),"
+            + AllocationRepository.SEARCH;
+
+    private static NamedParameterJdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void connect() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("benchmark.jdbcUrl", "jdbc:postgresql://localhost:5432/recoverpro"),
+                System.getProperty("benchmark.user", "postgres"),
+                System.getProperty("benchmark.password", ""));
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        cleanUp();
+        jdbcTemplate.getJdbcTemplate().update("""
+                INSERT INTO loan_allocation (loan_number, allocation_data, customer_name, phone_1, status, visit_count, created_at)
+                SELECT 'BENCH-SEARCH-' || lpad(g::text, 8, '0'), '{}'::jsonb,
+                       (ARRAY['Ravi','Suresh','Priya','Anita','Mohammed','Lakshmi','Vijay','Deepak','Kavitha','Rahul',
+                              'Sunita','Arjun','Meena','Ganesh','Farhan','Pooja','Karthik','Divya','Ramesh','Sneha',
+                              'Imran','Geeta','Manoj','Nikhil','Rekha','Sanjay','Usha','Venkat','Zoya','Harish'])
+                           [1 + (hashint4(g) & 2147483647) % 30]
+                       || ' ' ||
+                       (ARRAY['Kumar','Sharma','Reddy','Naidu','Patel','Iyer','Khan','Singh','Gupta','Rao',
+                              'Nair','Menon','Das','Joshi','Verma','Shetty','Pillai','Yadav','Mishra','Chowdhury',
+                              'Bhat','Hegde','Kulkarni','Desai','Agarwal','Banerjee','Sinha','Pandey','Jain','Thomas',
+                              'Fernandes','Mehta','Saxena','Gowda','Murthy','Krishnan','Ali','Sheikh','Ahmed','Dutta'])
+                           [1 + (hashint4(g + 7) & 2147483647) % 40],
+                       (9000000000 + (hashint8(g) & 2147483647) % 999999999)::text || '.0',
+                       'ASSIGNED', 0, now()
+                FROM generate_series(1, ?) g
+                """, ROWS);
+        jdbcTemplate.getJdbcTemplate().execute("VACUUM ANALYZE loan_allocation");
+    }
+
+    @AfterAll
+    static void cleanUp() {
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM allocation_change WHERE loan_number LIKE 'BENCH-SEARCH-%'");
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM loan_allocation WHERE loan_number LIKE 'BENCH-SEARCH-%'");
+    }
+
+    @Test
+    void search() {
+        String phone = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT phone_1 FROM loan_allocation WHERE loan_number = 'BENCH-SEARCH-00012345'", String.class);
+        for (String text : List.of("BENCH-SEARCH-00012345", "0012345", phone.substring(0, 10), phone.substring(4, 10),
+                "sharma", "Sharmaa", "priya", "kavita nair")) {
+            run(text);
+        }
+    }
+
+    private void run(String text) {
+        AllocationSearchTerm search = AllocationSearchTerm.of(text);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("term", search.term())
+                .addValue("pattern", search.pattern())
+                .addValue("limit", AllocationSearchTerm.DEFAULT_LIMIT);
+        List<String> top = List.of();
+        for (int i = 0; i < 3; i++) {
+            top = jdbcTemplate.queryForList(SQL, params).stream()
+                    .map(row -> row.get("loanNumber") + " " + row.get("customerName") + " " + row.get("score"))
+                    .toList();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            jdbcTemplate.queryForList(SQL, params);
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / ROUNDS;
+        System.out.printf("%-22s rows=%,d %6.1f ms/search hits=%d top=%s%n",
+                text, ROWS, millis, top.size(), top.isEmpty() ? "-" : top.get(0));
+    }
+}
@@ -0,0 +1,42 @@
+package com.nimis.chatbot.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationSearchTermTest {
+
+    @Test
+    void trimsAndMatchesAsSubstring() {
+        AllocationSearchTerm search = AllocationSearchTerm.of("  Ravi   Kumar ");
+
+        assertEquals("Ravi Kumar", search.term());
+        assertEquals("%Ravi Kumar%", search.pattern());
+    }
+
+    @Test
+    void keepsOnlyTheDigitsOfPhoneNumbers() {
+        assertEquals("9876543210", AllocationSearchTerm.of("98765 43210").term());
+        assertEquals("919876543210", AllocationSearchTerm.of("+91 (98765)-43210").term());
+        assertEquals("LN-00123", AllocationSearchTerm.of("LN-00123").term());
+    }
+
+    @Test
+    void escapesLikeWildcards() {
+        assertEquals("%50\\%\\_off\\\\%", AllocationSearchTerm.of("50%_off\\").pattern());
+    }
+
+    @Test
+    void rejectsTermsTooShortToIndex() {
+        assertThrows(IllegalArgumentException.class, () -> AllocationSearchTerm.of(null));
+        assertThrows(IllegalArgumentException.class, () -> AllocationSearchTerm.of(" ab "));
+        assertThrows(IllegalArgumentException.class, () -> AllocationSearchTerm.of("1 2"));
+    }
+
+    @Test
+    void capsTheLimit() {
+        assertEquals(1, AllocationSearchTerm.limit(0));
+        assertEquals(20, AllocationSearchTerm.limit(20));
+        assertEquals(AllocationSearchTerm.MAX_LIMIT, AllocationSearchTerm.limit(10_000));
+    }
+}
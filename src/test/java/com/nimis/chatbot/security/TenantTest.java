@@ -0,0 +1,46 @@
+package com.nimis.chatbot.security;
+
+import com.nimis.chatbot.model.entity.Allocation;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantTest {
+
+    @Test
+    void selectsTheNarrowestScope() {
+        assertEquals("vendor 7", new Tenant(3L, 7L).select(() -> "all", b -> "bank " + b, v -> "vendor " + v));
+        assertEquals("bank 3", new Tenant(3L, null).select(() -> "all", b -> "bank " + b, v -> "vendor " + v));
+        assertEquals("all", Tenant.ALL.select(() -> "all", b -> "bank " + b, v -> "vendor " + v));
+    }
+
+    @Test
+    void ownsOnlyItsOwnAllocations() {
+        Allocation allocation = new Allocation();
+        allocation.setBankId(3L);
+        allocation.setVendorId(7L);
+
+        assertTrue(new Tenant(3L, null).owns(allocation));
+        assertTrue(new Tenant(3L, 7L).owns(allocation));
+        assertFalse(new Tenant(3L, 8L).owns(allocation));
+        assertFalse(new Tenant(4L, null).owns(allocation));
+        assertTrue(Tenant.ALL.owns(allocation));
+    }
+
+    @Test
+    void vendorsDoNotSeeTheirBanksRowsWithoutAVendor() {
+        Allocation bankUpload = new Allocation();
+        bankUpload.setBankId(3L);
+
+        assertTrue(new Tenant(3L, null).owns(bankUpload));
+        assertFalse(new Tenant(3L, 7L).owns(bankUpload));
+        assertTrue(Tenant.ALL.owns(bankUpload));
+    }
+
+    @Test
+    void unownedRecordsAreOnlyVisibleToAll() {
+        assertFalse(new Tenant(3L, null).owns(null, null));
+        assertFalse(new Tenant(3L, 7L).owns(3L, null));
+        assertTrue(Tenant.ALL.owns(null, null));
+    }
+}
@@ -0,0 +1,40 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.security.Tenant;
+import com.nimis.chatbot.service.ingestion.AllocationBatchWriter.Outcome;
+import com.nimis.chatbot.service.ingestion.AllocationBatchWriter.Stored;
+import com.nimis.chatbot.service.ingestion.AllocationContentEncoder.Content;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.nimis.chatbot.service.ingestion.AllocationBatchWriter.classify;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationBatchWriterTest {
+
+    private final Content content = new Content(new AllocationRow(2, "LN001", Map.of()), "{}", "abc");
+
+    @Test
+    void sameContentFromTheSameOwnerIsUnchanged() {
+        assertEquals(Outcome.INSERT, classify(new Tenant(1L, null), content, null));
+        assertEquals(Outcome.UNCHANGED, classify(new Tenant(1L, null), content, new Stored("abc", 1L, null)));
+        assertEquals(Outcome.UNCHANGED, classify(new Tenant(1L, 7L), content, new Stored("abc", 1L, 7L)));
+        assertEquals(Outcome.UPDATE, classify(new Tenant(1L, null), content, new Stored("def", 1L, null)));
+    }
+
+    @Test
+    void vendorClaimsItsBanksUnchangedRows() {
+        // bank admin uploaded the file first, then the vendor uploads the same file
+        assertEquals(Outcome.UPDATE, classify(new Tenant(1L, 7L), content, new Stored("abc", 1L, null)));
+        assertEquals(Outcome.UPDATE, classify(new Tenant(1L, 7L), content, new Stored("abc", 1L, 8L)));
+        // a bank re-upload keeps the vendor
+        assertEquals(Outcome.UNCHANGED, classify(new Tenant(1L, null), content, new Stored("abc", 1L, 7L)));
+    }
+
+    @Test
+    void otherBanksRowsAreForeign() {
+        assertEquals(Outcome.FOREIGN, classify(new Tenant(2L, 7L), content, new Stored("abc", 1L, null)));
+        assertEquals(Outcome.UPDATE, classify(new Tenant(2L, null), content, new Stored("abc", null, null)));
+    }
+}
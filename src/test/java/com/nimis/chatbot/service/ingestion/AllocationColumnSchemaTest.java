@@ -0,0 +1,60 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.model.enums.ColumnType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationColumnSchemaTest {
+
+    @Test
+    void infersOneTypePerColumnAndNormalizesValues() {
+        List<Map<String, Object>> sample = List.of(
+                row("LN001", 9876543210.0, "125000.50", "05-11-2025", "004512", 3.0, "Y"),
+                row("LN002", "9123456789", 99000.0, "2025-11-06", "110001", "4", null));
+
+        AllocationColumnSchema schema = AllocationColumnSchema.infer(sample, Map.of("REMARK", ColumnType.TEXT));
+
+        assertEquals(ColumnType.TEXT, schema.typeOf("LOANNUMBER"));
+        assertEquals(ColumnType.INTEGER, schema.typeOf("phone_1"));
+        assertEquals(ColumnType.DECIMAL, schema.typeOf("POS Amt"));
+        assertEquals(ColumnType.DATE, schema.typeOf("DUE DATE"));
+        assertEquals(ColumnType.TEXT, schema.typeOf("PINCODE"));
+        assertEquals(ColumnType.INTEGER, schema.typeOf("EMI"));
+        assertEquals(ColumnType.TEXT, schema.typeOf("REMARK"));
+
+        Map<String, Object> first = new LinkedHashMap<>(sample.get(0));
+        schema.normalize(first);
+        assertEquals(9876543210L, first.get("phone_1"));
+        assertEquals(125000.5, first.get("POS Amt"));
+        assertEquals(LocalDate.of(2025, 11, 5), first.get("DUE DATE"));
+        assertEquals("004512", first.get("PINCODE"));
+        assertEquals(3L, first.get("EMI"));
+
+        Map<String, Object> odd = row("LN003", "n/a", 1.0, null, 560034.0, "2.5", "N");
+        schema.normalize(odd);
+        assertEquals("n/a", odd.get("phone_1"));
+        assertEquals("560034", odd.get("PINCODE"));
+        assertEquals("2.5", odd.get("EMI"));
+        assertEquals(ColumnType.TEXT, schema.columnTypes().get("phone_1"));
+        assertEquals(ColumnType.DECIMAL, schema.columnTypes().get("POS Amt"));
+        // A fractional value widens an integer column within the numbers, not to TEXT
+        assertEquals(ColumnType.DECIMAL, schema.columnTypes().get("EMI"));
+    }
+
+    private static Map<String, Object> row(String loan, Object phone, Object pos, Object due,
+                                           Object pincode, Object emi, Object remark) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("LOANNUMBER", loan);
+        row.put("phone_1", phone);
+        row.put("POS Amt", pos);
+        row.put("DUE DATE", due);
+        row.put("PINCODE", pincode);
+        row.put("EMI", emi);
+        row.put("REMARK", remark);
+        return row;
+    }
+}
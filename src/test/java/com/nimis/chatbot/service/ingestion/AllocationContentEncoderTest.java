@@ -0,0 +1,38 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationContentEncoderTest {
+
+    private final AllocationContentEncoder encoder = new AllocationContentEncoder(
+            new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void contentHashIgnoresColumnOrderButNotValues() {
+        Map<String, Object> a = new LinkedHashMap<>();
+        a.put("LOANNUMBER", "LN001");
+        a.put("POS Amt", 125000.5);
+        a.put("DUE DATE", LocalDate.of(2025, 11, 5));
+
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("DUE DATE", LocalDate.of(2025, 11, 5));
+        reordered.put("POS Amt", 125000.5);
+        reordered.put("LOANNUMBER", "LN001");
+
+        Map<String, Object> changed = new LinkedHashMap<>(a);
+        changed.put("POS Amt", 120000.0);
+
+        String hash = encoder.encode(new AllocationRow(2, "LN001", a)).hash();
+        assertEquals(64, hash.length());
+        assertEquals(hash, encoder.encode(new AllocationRow(9, "LN001", reordered)).hash());
+        assertNotEquals(hash, encoder.encode(new AllocationRow(2, "LN001", changed)).hash());
+    }
+}
@@ -0,0 +1,20 @@
+package com.nimis.chatbot.service.ingestion;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationHotColumnsTest {
+
+    @Test
+    void derivesEveryColumnFromTheGivenJson() {
+        String select = AllocationHotColumns.select("v.data");
+
+        assertTrue(AllocationHotColumns.columns().startsWith("customer_name, pos_amount, location, phone_1"));
+        assertTrue(select.startsWith("left(v.data ->> 'CUSTOMER NAME', 255)"));
+        assertTrue(select.contains("THEN trim(v.data ->> 'POS Amt')::numeric END"));
+        assertTrue(AllocationHotColumns.excludedAssignments().contains("pos_amount = EXCLUDED.pos_amount"));
+        assertTrue(AllocationHotColumns.assignments("a.allocation_data")
+                .contains("opening_bkt = left(a.allocation_data ->> 'OPENING BKT', 50)"));
+    }
+}
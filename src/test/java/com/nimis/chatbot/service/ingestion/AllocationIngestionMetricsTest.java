@@ -0,0 +1,35 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationIngestionMetricsTest {
+
+    @Test
+    void countsCommittedRowsAndRecordsHeapPeakPerRun() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AllocationIngestionMetrics metrics = new AllocationIngestionMetrics(registry);
+
+        try (AllocationIngestionMetrics.Run run = metrics.start()) {
+            run.record(AllocationIngestionMetrics.Phase.PARSE, 5_000_000);
+            run.chunkCommitted(AllocationChunkResult.builder()
+                    .rows(10).inserted(6).updated(3).unchanged(1).skipped(2).build());
+            Thread.sleep(5);
+
+            assertEquals(12, run.rowsCommitted());
+            assertEquals(1.0, registry.get("allocation.ingest.active").gauge().value());
+            assertTrue(registry.get("allocation.ingest.rows.per.second").gauge().value() > 0);
+            assertTrue(run.peakHeapBytes() > 0);
+        }
+
+        assertEquals(6.0, registry.get("allocation.ingest.rows").tag("outcome", "inserted").counter().count());
+        assertEquals(1.0, registry.get("allocation.ingest.rows").tag("outcome", "unchanged").counter().count());
+        assertEquals(1.0, registry.get("allocation.ingest.chunks").counter().count());
+        assertEquals(1, registry.get("allocation.ingest.phase").tag("phase", "parse").timer().count());
+        assertEquals(1, registry.get("allocation.ingest.heap.peak").summary().count());
+        assertEquals(0.0, registry.get("allocation.ingest.active").gauge().value());
+    }
+}
@@ -0,0 +1,98 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+import com.nimis.chatbot.dto.response.AllocationUploadResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationIngestionPipelineTest {
+
+    private static final int LOANS = 50;
+
+    @Test
+    void lastOccurrenceWinsAndCheckpointsNeverPassUncommittedRows() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        List<Integer> rejected = Collections.synchronizedList(new ArrayList<>());
+        AllocationIngestionListener listener = new AllocationIngestionListener() {
+            @Override
+            public void onRowRejected(int rowNumber, String loanNumber, String reason) {
+                rejected.add(rowNumber);
+            }
+        };
+
+        // Row r (from 2) carries loan LN{r % 50}; every 37th row has no loan number
+        Map<String, Integer> lastOccurrence = new HashMap<>();
+        AllocationUploadResult result;
+        try (AllocationIngestionPipeline pipeline = new AllocationIngestionPipeline(
+                writer, listener, 3, 4, 1, 10, Map.of(), 0)) {
+            for (int row = 2; row <= 1001; row++) {
+                Map<String, Object> data = new LinkedHashMap<>();
+                if (row % 37 != 0) {
+                    String loan = "LN" + (row % LOANS);
+                    data.put("LOANNUMBER", loan);
+                    lastOccurrence.put(loan, row);
+                }
+                data.put("ROW", row);
+                pipeline.onRow(row, data);
+            }
+            result = pipeline.finish();
+        }
+
+        assertEquals(1000, result.getRowsRead());
+        assertEquals(1001, result.getLastRow());
+        assertEquals(27, result.getSkipped());
+        assertEquals(27, rejected.size());
+        assertEquals(1000 - 27 - LOANS, result.getDuplicateLoanNumbers());
+        assertEquals(lastOccurrence, writer.written);
+        assertEquals(result.getInserted(), writer.rowsWritten);
+
+        // Every checkpoint only covers rows whose final value had already been written
+        for (int[] checkpoint : writer.checkpoints) {
+            int watermark = checkpoint[0];
+            for (int row = 2; row <= watermark; row++) {
+                if (row % 37 == 0) continue;
+                String loan = "LN" + (row % LOANS);
+                assertTrue(writer.snapshots.get(checkpoint[1]).getOrDefault(loan, 0) >= row,
+                        "checkpoint " + watermark + " passed uncommitted row " + row);
+            }
+        }
+    }
+
+    /**
+     * Stands in for the JDBC writer: applies chunks to a map with random delays.
+     */
+    private static class RecordingWriter implements AllocationChunkWriter {
+
+        final Map<String, Integer> written = new HashMap<>();
+        final List<int[]> checkpoints = new ArrayList<>();
+        final List<Map<String, Integer>> snapshots = new ArrayList<>();
+        int rowsWritten;
+
+        @Override
+        public AllocationChunkResult write(AllocationChunkResult result,
+                                           Collection<AllocationRow> rows,
+                                           AllocationIngestionListener listener) {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                for (AllocationRow row : rows) {
+                    written.put(row.loanNumber(), row.rowNumber());
+                }
+                rowsWritten += rows.size();
+                result.setRows(rows.size());
+                result.setInserted(rows.size());
+                listener.onChunkCommitted(result);
+                checkpoints.add(new int[]{result.getLastRow(), snapshots.size()});
+                snapshots.add(new HashMap<>(written));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.nimis.chatbot.service.ingestion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationKeyAliasesTest {
+
+    @Test
+    void normalizesCaseAndWhitespace() {
+        assertEquals("pos (in cr)", AllocationKeyAliases.normalize("  POS \t (IN  CR) "));
+    }
+
+    @Test
+    void canonicalKeysMatchWhateverTheirCase() {
+        AllocationKeyAliases aliases = AllocationKeyAliases.defaults();
+
+        assertEquals("CUSTOMER NAME", aliases.canonical("customer  name"));
+        assertEquals("LOANNUMBER", aliases.canonical(" LoanNumber "));
+        assertEquals("Some Column", aliases.canonical("Some Column"));
+    }
+
+    @Test
+    void renamesAliasesButNeverOverwritesAVerbatimKey() {
+        AllocationKeyAliases aliases = AllocationKeyAliases.of(Map.of("POS", "POS Amt", "Amt", "POS Amt"));
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("loan number", "LN1");
+        row.put("pos", 10);
+        row.put("POS Amt", 20);
+        Map<String, Object> out = AllocationKeyAliases.of(Map.of("loan number", "LOANNUMBER")).apply(row);
+        assertEquals(Map.of("LOANNUMBER", "LN1", "pos", 10, "POS Amt", 20), out);
+
+        Map<String, Object> clash = new LinkedHashMap<>();
+        clash.put("pos", 10);
+        clash.put("AMT", 20);
+        assertEquals(Map.of("POS Amt", 10, "AMT", 20), aliases.apply(clash));
+    }
+
+    @Test
+    void returnsTheSameRowWhenNothingIsRenamed() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("LOANNUMBER", "LN1");
+        row.put("Other", "x");
+
+        assertSame(row, AllocationKeyAliases.defaults().apply(row));
+    }
+}
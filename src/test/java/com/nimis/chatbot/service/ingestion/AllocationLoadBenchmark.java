@@ -0,0 +1,112 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimis.chatbot.config.AllocationProjectionProperties;
+import com.nimis.chatbot.dto.response.AllocationChunkResult;
+import com.nimis.chatbot.security.Tenant;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares rows/sec of the batch upsert and COPY + merge engines against
+ * a real PostgreSQL database with the loan_allocation table in place.
+ * Each engine loads the same rows twice: once as fresh inserts and once
+ * with every row changed, so both the insert and the update path are
+ * timed. Rows use BENCH- loan numbers and are deleted afterwards.
+ *
+ * Not part of the normal build. Run with:
+ * mvn test -Dtest=AllocationLoadBenchmark -Dbenchmark=true
+ *     -Dbenchmark.jdbcUrl=jdbc:postgresql://localhost:5432/recoverpro
+ *     -Dbenchmark.user=... -Dbenchmark.password=... [-Dbenchmark.rows=100000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AllocationLoadBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int COLUMNS = 60;
+
+    private static JdbcTemplate jdbcTemplate;
+    private static AllocationBatchWriter batchWriter;
+    private static AllocationCopyWriter copyWriter;
+
+    @BeforeAll
+    static void connect() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("benchmark.jdbcUrl", "jdbc:postgresql://localhost:5432/recoverpro"),
+                System.getProperty("benchmark.user", "postgres"),
+                System.getProperty("benchmark.password", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        AllocationContentEncoder encoder = new AllocationContentEncoder(new ObjectMapper());
+        AllocationProjectionWriter projectionWriter = new AllocationProjectionWriter(
+                jdbcTemplate, new AllocationProjectionProperties());
+        AllocationChangeLog changeLog = new AllocationChangeLog(jdbcTemplate);
+        AllocationIngestionMetrics metrics = AllocationIngestionMetrics.noop();
+        batchWriter = new AllocationBatchWriter(
+                jdbcTemplate, transactionManager, encoder, projectionWriter, changeLog, metrics);
+        copyWriter = new AllocationCopyWriter(
+                jdbcTemplate, transactionManager, encoder, batchWriter, projectionWriter, changeLog, metrics);
+        cleanUp();
+    }
+
+    @AfterAll
+    static void cleanUp() {
+        jdbcTemplate.update("DELETE FROM allocation_change WHERE loan_number LIKE 'BENCH-%'");
+        jdbcTemplate.update("DELETE FROM loan_allocation WHERE loan_number LIKE 'BENCH-%'");
+    }
+
+    @Test
+    void batchEngine() {
+        run("batch", batchWriter.ownedBy(Tenant.ALL), 1_000);
+    }
+
+    @Test
+    void copyEngine() {
+        run("copy", copyWriter.ownedBy(Tenant.ALL), 10_000);
+    }
+
+    private void run(String name, AllocationChunkWriter writer, int chunkSize) {
+        String prefix = "BENCH-" + name + "-";
+        load(name + " insert", writer, chunkSize, prefix, 0);
+        load(name + " update", writer, chunkSize, prefix, 1);
+    }
+
+    private void load(String name, AllocationChunkWriter writer, int chunkSize, String prefix, int version) {
+        int inserted = 0;
+        int updated = 0;
+        long start = System.nanoTime();
+        for (int from = 1, chunk = 0; from <= ROWS; from += chunkSize, chunk++) {
+            List<AllocationRow> rows = new ArrayList<>(chunkSize);
+            for (int r = from; r < from + chunkSize && r <= ROWS; r++) {
+                rows.add(row(r, prefix + r, version));
+            }
+            AllocationChunkResult result = writer.write(
+                    AllocationChunkResult.builder().chunk(chunk).lastRow(from + rows.size() - 1).build(),
+                    rows, AllocationIngestionListener.NONE);
+            inserted += result.getInserted();
+            updated += result.getUpdated();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-14s %,d rows (%,d inserted, %,d updated) in %.2fs = %,.0f rows/sec%n",
+                name, ROWS, inserted, updated, seconds, ROWS / seconds);
+    }
+
+    private static AllocationRow row(int r, String loanNumber, int version) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("LOANNUMBER", loanNumber);
+        for (int c = 1; c < COLUMNS; c++) {
+            data.put("COLUMN " + c, c % 2 == 0 ? (Object) (r * 10.5 + c + version) : "value " + (r % 500) + "-" + c);
+        }
+        return new AllocationRow(r, loanNumber, data);
+    }
+}
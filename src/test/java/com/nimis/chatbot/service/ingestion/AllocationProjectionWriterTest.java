@@ -0,0 +1,37 @@
+package com.nimis.chatbot.service.ingestion;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationProjectionWriterTest {
+
+    @Test
+    void coercesCellsToColumnTypes() {
+        assertEquals("9876543210", AllocationProjectionWriter.coerce(9.87654321E9, "character varying", 255));
+        assertEquals(Date.valueOf(LocalDate.of(2024, 3, 15)),
+                AllocationProjectionWriter.coerce("15/03/2024", "date", 0));
+        assertEquals(Date.valueOf(LocalDate.of(2024, 3, 15)),
+                AllocationProjectionWriter.coerce(LocalDate.of(2024, 3, 15), "date", 0));
+        assertEquals(BigDecimal.valueOf(125000.5), AllocationProjectionWriter.coerce("125000.5", "numeric", 0));
+        assertEquals(42L, AllocationProjectionWriter.coerce(42.0, "bigint", 0));
+    }
+
+    @Test
+    void dropsValuesThatDoNotFit() {
+        assertNull(AllocationProjectionWriter.coerce("next week", "date", 0));
+        assertNull(AllocationProjectionWriter.coerce("N/A", "numeric", 0));
+        assertNull(AllocationProjectionWriter.coerce("   ", "character varying", 255));
+        assertNull(AllocationProjectionWriter.coerce(null, "character varying", 255));
+    }
+
+    @Test
+    void truncatesTextToColumnLength() {
+        assertEquals("abc", AllocationProjectionWriter.coerce("abcdef", "character varying", 3));
+        assertEquals("abcdef", AllocationProjectionWriter.coerce("abcdef", "text", 0));
+    }
+}
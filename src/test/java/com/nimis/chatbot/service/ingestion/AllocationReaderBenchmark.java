@@ -0,0 +1,88 @@
+package com.nimis.chatbot.service.ingestion;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares peak heap and rows/sec of the streaming and DOM readers.
+ *
+ * Not part of the normal build. Run with:
+ * mvn test -Dtest=AllocationReaderBenchmark -Dbenchmark=true [-Dbenchmark.rows=150000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AllocationReaderBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 150_000);
+    private static final int COLUMNS = 60;
+
+    private static Path file;
+
+    @BeforeAll
+    static void writeWorkbook() throws Exception {
+        file = Files.createTempFile("allocation-benchmark-", ".xlsx");
+        file.toFile().deleteOnExit();
+
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("LOANNUMBER");
+            for (int c = 1; c < COLUMNS; c++) {
+                header.createCell(c).setCellValue("COLUMN " + c);
+            }
+            for (int r = 1; r <= ROWS; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue("LN" + r);
+                for (int c = 1; c < COLUMNS; c++) {
+                    if (c % 2 == 0) {
+                        row.createCell(c).setCellValue(r * 10.5 + c);
+                    } else {
+                        row.createCell(c).setCellValue("value " + (r % 500) + "-" + c);
+                    }
+                }
+            }
+            workbook.write(out);
+        }
+        System.out.printf("Benchmark workbook: %d rows x %d columns, %d KB%n",
+                ROWS, COLUMNS, Files.size(file) / 1024);
+    }
+
+    @Test
+    void streamingReader() throws Exception {
+        run("streaming", new StreamingXlsxAllocationReader());
+    }
+
+    @Test
+    void workbookReader() throws Exception {
+        run("workbook", new WorkbookAllocationReader());
+    }
+
+    private void run(String name, AllocationRowReader reader) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicLong rows = new AtomicLong();
+
+        long start = System.nanoTime();
+        reader.read(file, (rowNumber, rowData) -> {
+            if (rows.incrementAndGet() % 1000 == 0) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-10s rows=%d time=%.2fs rows/sec=%.0f peakHeapDelta=%d MB%n",
+                name, rows.get(), seconds, rows.get() / seconds, (peak.get() - baseline) / (1024 * 1024));
+    }
+}
@@ -0,0 +1,61 @@
+package com.nimis.chatbot.service.ingestion;
+
+import com.nimis.chatbot.dto.response.AllocationUploadResult;
+import com.nimis.chatbot.dto.response.AllocationValidationReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationValidationCollectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reportsColumnStatsDuplicatesAndInvalidRows() throws Exception {
+        Path file = tempDir.resolve("allocation.csv");
+        Files.writeString(file, """
+                LOANNUMBER,POS Amt,LOCATION
+                LN001,1000.50,Pune
+                LN002,2000,
+                ,300,Mumbai
+                LN001,1200.75,Pune
+                LN003,N/A,Nashik
+                """);
+
+        AllocationValidationCollector collector = new AllocationValidationCollector();
+        AllocationUploadResult result;
+        AllocationColumnSchema schema;
+        try (AllocationIngestionPipeline pipeline = new AllocationIngestionPipeline(
+                collector, collector, 2, 2, 1, 3, Map.of(), 0)) {
+            new CsvAllocationReader().read(file, pipeline);
+            result = pipeline.finish();
+            schema = pipeline.schema();
+        }
+
+        AllocationValidationReport report = collector.report("allocation.csv", result, schema, 5);
+
+        assertEquals(5, report.getRowsRead());
+        assertEquals(1, report.getDuplicateLoanNumberCount());
+        assertEquals(List.of("LN001"), report.getDuplicateLoanNumbers());
+        assertEquals(2, report.getInvalidRowCount());
+        assertEquals(List.of(4, 6), report.getInvalidRows().stream()
+                .map(AllocationValidationReport.InvalidRow::getRow).toList());
+        assertEquals("Missing LOANNUMBER", report.getInvalidRows().get(0).getReason());
+
+        AllocationValidationReport.ColumnStats pos = report.getColumns().stream()
+                .filter(c -> c.getName().equals("POS Amt")).findFirst().orElseThrow();
+        assertEquals("DECIMAL", pos.getType());
+        assertEquals(1, pos.getMismatches());
+
+        AllocationValidationReport.ColumnStats location = report.getColumns().stream()
+                .filter(c -> c.getName().equals("LOCATION")).findFirst().orElseThrow();
+        assertEquals(1, location.getNulls());
+    }
+}
@@ -0,0 +1,69 @@
+package com.nimis.chatbot.service.ingestion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvAllocationReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsQuotedFieldsAndLineBreaks() throws Exception {
+        Path file = tempDir.resolve("allocation.csv");
+        Files.writeString(file, "\uFEFF LOANNUMBER ,CUSTOMER NAME,ADDRESS,POS Amt\r\n"
+                + "  LN001 ,\"Sharma, Ravi\",\"12 \"\"Main\"\" Rd\nFlat 4\",125000.50\r\n"
+                + "\r\n"
+                + "LN002,,\"\",\n", StandardCharsets.UTF_8);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<Integer> rowNumbers = new ArrayList<>();
+        new CsvAllocationReader().read(file, (rowNumber, rowData) -> {
+            rowNumbers.add(rowNumber);
+            rows.add(rowData);
+        });
+
+        assertEquals(List.of(2, 4), rowNumbers);
+
+        Map<String, Object> first = rows.get(0);
+        assertEquals(List.of("LOANNUMBER", "CUSTOMER NAME", "ADDRESS", "POS Amt"), new ArrayList<>(first.keySet()));
+        assertEquals("LN001", first.get("LOANNUMBER"));
+        assertEquals("Sharma, Ravi", first.get("CUSTOMER NAME"));
+        assertEquals("12 \"Main\" Rd\nFlat 4", first.get("ADDRESS"));
+        assertEquals("125000.50", first.get("POS Amt"));
+
+        Map<String, Object> second = rows.get(1);
+        assertEquals("LN002", second.get("LOANNUMBER"));
+        assertNull(second.get("CUSTOMER NAME"));
+        assertNull(second.get("ADDRESS"));
+        assertNull(second.get("POS Amt"));
+    }
+
+    @Test
+    void detectsSemicolonDelimiterAndSpansBufferRefills() throws Exception {
+        StringBuilder csv = new StringBuilder("LOANNUMBER;REMARKS\n");
+        for (int i = 0; i < 5000; i++) {
+            csv.append("LN").append(i).append(";\"note; ").append(i).append("\n second line\"\n");
+        }
+        Path file = tempDir.resolve("allocation.txt");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        new CsvAllocationReader().read(file, (rowNumber, rowData) -> rows.add(rowData));
+
+        assertEquals(5000, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals("LN" + i, rows.get(i).get("LOANNUMBER"));
+            assertEquals("note; " + i + "\n second line", rows.get(i).get("REMARKS"));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.nimis.chatbot.service.ingestion;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingXlsxAllocationReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void streamsTypedRowsLikeTheWorkbookReader() throws Exception {
+        Path file = tempDir.resolve("allocation.xlsx");
+        try (Workbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd-mm-yyyy"));
+
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue(" LOANNUMBER ");
+            header.createCell(1).setCellValue("POS Amt");
+            header.createCell(2).setCellValue("DUE DATE");
+            header.createCell(3).setCellValue("LEGAL");
+            header.createCell(5).setCellValue("CUSTOMER NAME");
+
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("  LN001 ");
+            row.createCell(1).setCellValue(125000.5);
+            Cell due = row.createCell(2);
+            due.setCellValue(LocalDate.of(2025, 11, 5));
+            due.setCellStyle(dateStyle);
+            row.createCell(3).setCellValue(true);
+            row.createCell(4).setCellValue("no header");
+            row.createCell(5).setBlank();
+
+            sheet.createRow(3).createCell(0).setCellValue("LN002");
+
+            workbook.write(out);
+        }
+
+        List<Map<String, Object>> streamed = new ArrayList<>();
+        List<Integer> rowNumbers = new ArrayList<>();
+        new StreamingXlsxAllocationReader().read(file, (rowNumber, rowData) -> {
+            rowNumbers.add(rowNumber);
+            streamed.add(rowData);
+        });
+
+        List<Map<String, Object>> loaded = new ArrayList<>();
+        new WorkbookAllocationReader().read(file, (rowNumber, rowData) -> loaded.add(rowData));
+
+        assertEquals(List.of(2, 4), rowNumbers);
+        assertEquals(loaded, streamed);
+
+        Map<String, Object> first = streamed.get(0);
+        assertEquals(List.of("LOANNUMBER", "POS Amt", "DUE DATE", "LEGAL", "CUSTOMER NAME"),
+                new ArrayList<>(first.keySet()));
+        assertEquals("LN001", first.get("LOANNUMBER"));
+        assertEquals(125000.5, first.get("POS Amt"));
+        assertEquals(LocalDate.of(2025, 11, 5), first.get("DUE DATE"));
+        assertEquals(Boolean.TRUE, first.get("LEGAL"));
+        assertNull(first.get("CUSTOMER NAME"));
+    }
+}
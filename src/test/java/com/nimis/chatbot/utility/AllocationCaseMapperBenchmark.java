@@ -0,0 +1,162 @@
+package com.nimis.chatbot.utility;
+
+import com.nimis.chatbot.dto.response.FieldExecutiveCaseResponse;
+import com.nimis.chatbot.model.entity.Allocation;
+import com.nimis.chatbot.model.entity.AllocationData;
+import com.nimis.chatbot.model.entity.AllocationPayload;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Per-case cost of building a FieldExecutiveCaseResponse: the old per-key
+ * map readers (try/catch parseInt/parseDouble) against AllocationView.
+ *
+ * Half the cases carry numbers as text from older uploads, some of them
+ * unparseable ("-", "NA"), which is where the old readers threw.
+ *
+ * Not part of the normal build. Run with:
+ * mvn test -Dtest=AllocationCaseMapperBenchmark -Dbenchmark=true [-Dbenchmark.cases=20000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AllocationCaseMapperBenchmark {
+
+    private static final int CASES = Integer.getInteger("benchmark.cases", 20_000);
+    private static final int EXTRA_COLUMNS = 80;
+    private static final long WARMUP_NANOS = 3_000_000_000L;
+    private static final long MEASURE_NANOS = 5_000_000_000L;
+
+    @Test
+    void mapCases() {
+        List<Allocation> allocations = allocations();
+
+        run("map readers", allocations, LegacyMapper::toCase);
+        run("view", allocations, AllocationCaseMapper::toCase);
+    }
+
+    private void run(String name, List<Allocation> allocations, Function<Allocation, FieldExecutiveCaseResponse> mapper) {
+        long sink = 0;
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            sink += map(allocations, mapper);
+        }
+        long rounds = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            sink += map(allocations, mapper);
+            rounds++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        double nanosPerCase = elapsed / (double) (rounds * allocations.size());
+        System.out.printf("%-12s cases=%d %.0f ns/case (%d)%n", name, allocations.size(), nanosPerCase, sink);
+    }
+
+    private static long map(List<Allocation> allocations, Function<Allocation, FieldExecutiveCaseResponse> mapper) {
+        long fields = 0;
+        for (Allocation allocation : allocations) {
+            FieldExecutiveCaseResponse response = mapper.apply(allocation);
+            if (response.getEmi() != null) fields++;
+            if (response.getPosAmount() != null) fields++;
+        }
+        return fields;
+    }
+
+    private static List<Allocation> allocations() {
+        List<Allocation> allocations = new ArrayList<>(CASES);
+        for (int i = 0; i < CASES; i++) {
+            boolean text = i % 2 == 1;
+            Map<String, Object> d = new HashMap<>();
+            d.put("SEGMENT", "RETAIL");
+            d.put("LOCATION", "PUNE " + (i % 40));
+            d.put("CUSTOMER NAME", "Customer " + i);
+            d.put("POS (IN CR)", text ? "0.0" + (i % 90 + 10) : 0.01 + (i % 90) / 10_000.0);
+            d.put("POS Amt", text ? Double.toString(100_000 + i * 1.5) : 100_000 + i * 1.5);
+            d.put("EMI", text ? (i % 7 == 0 ? "-" : Integer.toString(4_000 + i % 1_000)) : 4_000L + i % 1_000);
+            d.put("Emi Overdue", text ? (i % 5 == 0 ? "NA" : "2") : 2L);
+            d.put("phone_1", 9_800_000_000L + i);
+            d.put("Count Of Emi Due NOV", text ? "3" : 3L);
+            d.put("BKT TAG", "B1");
+            d.put("OPENING BKT", "1");
+            d.put("SECURITIZATION", "NO");
+            d.put("ASHV DA/PTC", "NA");
+            d.put("Warrant", "N");
+            d.put("Co_Applicant1_Name", "Co " + i);
+            d.put("Co_Applicant1_Mobile_No", 9_700_000_000L + i);
+            for (int p = 1; p <= 4; p++) {
+                d.put("address_priority_" + p, p + ". Street " + i + ", Ward " + p);
+            }
+            for (int c = 0; c < EXTRA_COLUMNS; c++) {
+                d.put("COLUMN " + c, c % 2 == 0 ? (Object) (i * 10.5 + c) : "value " + c);
+            }
+            allocations.add(withData("LN" + i, d));
+        }
+        return allocations;
+    }
+
+    // allocation_data is read-only on Allocation (ingestion writes it), so it is set here directly
+    private static Allocation withData(String loanNumber, Map<String, Object> data) {
+        Allocation allocation = new Allocation();
+        allocation.setLoanNumber(loanNumber);
+        ReflectionTestUtils.setField(allocation, "payload", new AllocationPayload(null, AllocationData.copyOf(data)));
+        return allocation;
+    }
+
+    /**
+     * The mapping FieldExecutiveService and VendorService used before AllocationView.
+     */
+    private static final class LegacyMapper {
+
+        static FieldExecutiveCaseResponse toCase(Allocation a) {
+            Map<String, Object> d = a.getAllocationData();
+            return FieldExecutiveCaseResponse.builder()
+                    .segment(getString(d, "SEGMENT"))
+                    .location(getString(d, "LOCATION"))
+                    .loanNumber(a.getLoanNumber())
+                    .customerName(getString(d, "CUSTOMER NAME"))
+                    .posInCr(getDouble(d, "POS (IN CR)"))
+                    .posAmount(getDouble(d, "POS Amt"))
+                    .emi(getInt(d, "EMI"))
+                    .emiOverdue(getInt(d, "Emi Overdue"))
+                    .mobile(getString(d, "phone_1"))
+                    .emiDueCount(getInt(d, "Count Of Emi Due NOV"))
+                    .bktTag(getString(d, "BKT TAG"))
+                    .openingBucket(getString(d, "OPENING BKT"))
+                    .securitization(getString(d, "SECURITIZATION"))
+                    .ashvDaPtc(getString(d, "ASHV DA/PTC"))
+                    .warrant(getString(d, "Warrant"))
+                    .coApplicant1Name(getString(d, "Co_Applicant1_Name"))
+                    .coApplicant1Mobile(getString(d, "Co_Applicant1_Mobile_No"))
+                    .addressPriority1(getString(d, "address_priority_1"))
+                    .addressPriority2(getString(d, "address_priority_2"))
+                    .addressPriority3(getString(d, "address_priority_3"))
+                    .addressPriority4(getString(d, "address_priority_4"))
+                    .build();
+        }
+
+        private static String getString(Map<String, Object> map, String key) {
+            Object v = map.get(key);
+            return v == null ? null : v.toString();
+        }
+
+        private static Integer getInt(Map<String, Object> map, String key) {
+            Object v = map.get(key);
+            if (v instanceof Number n) return n.intValue();
+            try { return v == null ? null : Integer.parseInt(v.toString()); }
+            catch (Exception e) { return null; }
+        }
+
+        private static Double getDouble(Map<String, Object> map, String key) {
+            Object v = map.get(key);
+            if (v instanceof Number n) return n.doubleValue();
+            try { return v == null ? null : Double.parseDouble(v.toString()); }
+            catch (Exception e) { return null; }
+        }
+    }
+}